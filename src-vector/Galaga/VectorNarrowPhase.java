@@ -0,0 +1,91 @@
+package Galaga;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The Vector API narrow phase: each lane holds a different shape of the batch, so one pass tests as many shapes as the
+ * CPU has float lanes. Does exactly the same float operations per shape as the scalar kernel, so both give identical
+ * masks. Only loaded through NarrowPhase.create(), and kept in its own source root so the game itself compiles
+ * without the incubator module. Build it on top of the game's classes:
+ *   javac -d out src/Galaga/*.java
+ *   javac --add-modules jdk.incubator.vector -cp out -d out-vector src-vector/Galaga/*.java
+ *   java --add-modules jdk.incubator.vector -cp out:out-vector Galaga.NarrowPhaseBench
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+final class VectorNarrowPhase extends NarrowPhase {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    String getName(){
+        return "vector x" + SPECIES.length();
+    }
+
+    @Override
+    void circleCircles(float x, float y, float r, ShapeBatch batch, long[] hits){
+        int lanes = SPECIES.length();
+        for (int k = 0; k < batch.circles; k += lanes) {
+            FloatVector dx = FloatVector.fromArray(SPECIES, batch.centerX, k).neg().add(x);
+            FloatVector dy = FloatVector.fromArray(SPECIES, batch.centerY, k).neg().add(y);
+            FloatVector reach = FloatVector.fromArray(SPECIES, batch.radius, k).add(r);
+            store(hits, k, dx.mul(dx).add(dy.mul(dy)).compare(VectorOperators.LE, reach.mul(reach)));
+        }
+        NarrowPhase.trim(hits, batch.circles);
+    }
+
+    @Override
+    void circleBoxes(float x, float y, float r, ShapeBatch batch, long[] hits){
+        int lanes = SPECIES.length();
+        for (int k = 0; k < batch.boxes; k += lanes) {
+            FloatVector nearX = FloatVector.fromArray(SPECIES, batch.right, k).min(x)
+                    .max(FloatVector.fromArray(SPECIES, batch.left, k));
+            FloatVector nearY = FloatVector.fromArray(SPECIES, batch.bottom, k).min(y)
+                    .max(FloatVector.fromArray(SPECIES, batch.top, k));
+            FloatVector dx = nearX.neg().add(x);
+            FloatVector dy = nearY.neg().add(y);
+            store(hits, k, dx.mul(dx).add(dy.mul(dy)).compare(VectorOperators.LE, r * r));
+        }
+        NarrowPhase.trim(hits, batch.boxes);
+    }
+
+    @Override
+    void boxCircles(float left, float top, float right, float bottom, ShapeBatch batch, long[] hits){
+        int lanes = SPECIES.length();
+        for (int k = 0; k < batch.circles; k += lanes) {
+            FloatVector x = FloatVector.fromArray(SPECIES, batch.centerX, k);
+            FloatVector y = FloatVector.fromArray(SPECIES, batch.centerY, k);
+            FloatVector r = FloatVector.fromArray(SPECIES, batch.radius, k);
+            FloatVector dx = x.sub(x.min(right).max(left));
+            FloatVector dy = y.sub(y.min(bottom).max(top));
+            store(hits, k, dx.mul(dx).add(dy.mul(dy)).compare(VectorOperators.LE, r.mul(r)));
+        }
+        NarrowPhase.trim(hits, batch.circles);
+    }
+
+    @Override
+    void boxBoxes(float left, float top, float right, float bottom, ShapeBatch batch, long[] hits){
+        int lanes = SPECIES.length();
+        for (int k = 0; k < batch.boxes; k += lanes) {
+            VectorMask<Float> overlap = FloatVector.fromArray(SPECIES, batch.right, k).compare(VectorOperators.GE, left)
+                    .and(FloatVector.fromArray(SPECIES, batch.left, k).compare(VectorOperators.LE, right))
+                    .and(FloatVector.fromArray(SPECIES, batch.bottom, k).compare(VectorOperators.GE, top))
+                    .and(FloatVector.fromArray(SPECIES, batch.top, k).compare(VectorOperators.LE, bottom));
+            store(hits, k, overlap);
+        }
+        NarrowPhase.trim(hits, batch.boxes);
+    }
+
+    /**
+     * Write one block's lanes into the mask; lanes divide 64 and k is a multiple of the lane count, so a block never
+     * straddles two words, and the first block of each word replaces whatever was there before
+     */
+    private static void store(long[] hits, int k, VectorMask<Float> mask){
+        long bits = mask.toLong() << (k & 63);
+        hits[k >>> 6] = (k & 63) == 0 ? bits : hits[k >>> 6] | bits;
+    }
+}
@@ -1,6 +1,6 @@
 package Galaga;
 
-import java.awt.*;
+import java.util.List;
 
 /**
  * The base unit for visible, colliding elements in the Galaga game.
@@ -18,20 +18,38 @@ public abstract class Actor {
     private TravelingPath path = null;
     int[] xVals;
     int[] yVals;
+    Shape shape; // analytic outline; actors without one are tested with the xVals/yVals polygon
+    int tickSlot = -1; // the actor's index among the movers of a ParallelTick phase, -1 outside of one
+    // where the game's ActorGrid files the actor: its cell (-1 if not filed) and its neighbours in that cell
+    int gridCell = -1;
+    Actor gridPrev;
+    Actor gridNext;
+    int libraryCount = 0; // how many times the actor is in the library
+    long libraryOrder; // when it was last added to the library, for ActorLibrary.near
     private GalagaGame parent;
 
     /**
-     * Draw the actor with its custom shape/appearance.
-     * @param g The graphics to draw with
+     * Record the actor's custom shape/appearance so the renderer can draw it later.
+     * @param snapshot The snapshot to record into
      */
-    abstract void drawActor(Graphics g);
+    abstract void recordSnapshot(RenderSnapshot snapshot);
 
     /**
      * Create the actor object, adding it to the static library for collisions and rendering
      */
     Actor(GalagaGame parent) {
+        this(parent, true);
+    }
+
+    /**
+     * Create the actor object, optionally leaving it out of the library for now (e.g. when built on another thread)
+     * @param register Whether or not to add it to the library right away
+     */
+    Actor(GalagaGame parent, boolean register) {
         this.parent = parent;
-        this.parent.collLibrary.add(this);
+        if (register) {
+            this.parent.collLibrary.add(this);
+        }
     }
 
     /**
@@ -49,6 +67,18 @@ public abstract class Actor {
         this.path = p;
     }
 
+    /**
+     * Determine if the actor overlaps with another actor, with a specialised test when both have analytic shapes
+     * @param other The other actor
+     * @return Whether or not they overlap on the 2D plane
+     */
+    boolean collidesWith(Actor other){
+        if (shape != null && other.shape != null) {
+            return Collisions.overlap(shape, other.shape);
+        }
+        return doesOverlap(other.xVals, other.yVals);
+    }
+
     /**
      * Determine if the actor overlaps with another actor's x and y coordinates
      * @param x The array of x coordinates
@@ -63,6 +93,11 @@ public abstract class Actor {
             return false;
         }
 
+        // cheap rejection first: shapes whose bounding boxes don't touch can't overlap, so skip the axis tests.
+        if (!boundsOverlap(x, y)){
+            return false;
+        }
+
         // Test the SAT using the foreign actor's sides first.
         for(int i = 0; i < x.length; i++){
             Line compareAxis = fromPoints(x[i], y[i], x[(i+1)%x.length], y[(i+1)%x.length]);
@@ -91,6 +126,33 @@ public abstract class Actor {
         return true;
     }
 
+    /**
+     * Determine if the axis-aligned bounding boxes of a foreign object's x-y coordinates and the local actor's touch
+     * @param x The array of x coordinates
+     * @param y The array of y coordinates
+     * @return Whether or not the bounding boxes overlap (touching counts)
+     */
+    private boolean boundsOverlap(int[] x, int[] y){
+        if (x.length == 0 || xVals.length == 0){
+            return false;
+        }
+        int minX = x[0], maxX = x[0], minY = y[0], maxY = y[0];
+        for (int i = 1; i < x.length; i++){
+            minX = Math.min(minX, x[i]);
+            maxX = Math.max(maxX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        int thisMinX = xVals[0], thisMaxX = xVals[0], thisMinY = yVals[0], thisMaxY = yVals[0];
+        for (int i = 1; i < xVals.length; i++){
+            thisMinX = Math.min(thisMinX, xVals[i]);
+            thisMaxX = Math.max(thisMaxX, xVals[i]);
+            thisMinY = Math.min(thisMinY, yVals[i]);
+            thisMaxY = Math.max(thisMaxY, yVals[i]);
+        }
+        return minX <= thisMaxX && thisMinX <= maxX && minY <= thisMaxY && thisMinY <= maxY;
+    }
+
     /**
      * Check if there is a usable gap between a foreign object's x-y coordinates and the local actor's on a particular axis
      * @param x The array of x coordinates
@@ -187,14 +249,26 @@ public abstract class Actor {
     public void setLocation(int x, int y) {
 
         // Set the new location
-        this.setPos(new Point(x, y));
+        this.setPos(x, y);
 
         // Re-determine the new x/y array representations of the vertices/edges of this shape
         generateRepresentation();
 
         // if relevant, check for collisions. We just move, so see if we're on top of something
+        collide();
+    }
+
+    /**
+     * Check for collisions where the actor stands now, dispatching the event to both sides of each one
+     */
+    void collide() {
         if (this.canCollide && this.isAlive()) {
-            for (Actor other : parent.collLibrary) {
+            // only actors with an outline can be hit by one (see collidesWith), and all of them lie within their
+            // bounds, so once it has a size the grid's neighbours are enough for those
+            List<Actor> candidates = shape != null && libraryCount > 0 && getExtent() > 0
+                    ? parent.collLibrary.near(this) : parent.collLibrary.list();
+            for (int i = 0; i < candidates.size(); i++) { // by index: an iterator per move adds up
+                Actor other = candidates.get(i);
                 // a checklist:
                 // is the other thing alive? are these both enemies? can the other thing even collide?
                 // the enemy check might be overzealous and out of position, but it is optimizing
@@ -203,15 +277,23 @@ public abstract class Actor {
                 if (other != this && other.isAlive()
                         && !(this instanceof Enemy && other instanceof Enemy)
                         && other.canCollide) {
-                    if (doesOverlap(other.xVals, other.yVals)) {
+                    if (collidesWith(other)) {
                         handleCollision(other);
                         other.handleCollision(this);
                     }
                 }
             }
         }
+    }
 
-
+    /**
+     * Put the actor somewhere without checking for collisions, e.g. when restoring a saved game
+     * @param x The x coordinate to relocate to
+     * @param y The y coordinate to relocate to
+     */
+    void place(int x, int y) {
+        this.setPos(x, y);
+        generateRepresentation();
     }
 
     /**
@@ -231,7 +313,7 @@ public abstract class Actor {
      */
     public void shift(int x, int y){
         setLocation(getPos().x + x, getPos().y + y);
-        for(int i = 0; i < xVals.length; i++){
+        for(int i = 0; xVals != null && i < xVals.length; i++){
             xVals[i] += x;
             yVals[i] += y;
         }
@@ -357,13 +439,52 @@ public abstract class Actor {
     }
 
     void setPos(Point myLocation) {
-        this.myLocation = new Point(myLocation);
+        setPos(myLocation.x, myLocation.y);
+    }
+
+    /**
+     * Move the actor's position in place; nothing outside holds on to it, since getPos hands out copies
+     */
+    private void setPos(int x, int y) {
+        if (myLocation == null) {
+            myLocation = new Point(x, y);
+        } else {
+            myLocation.x = x;
+            myLocation.y = y;
+        }
+        if (libraryCount > 0) {
+            parent.collLibrary.moved(this);
+        }
+    }
+
+    boolean hasPos() {
+        return myLocation != null;
+    }
+
+    // allocation-free position and size for the grid, unlike getPos and getSize
+    int getX() {
+        return myLocation.x;
+    }
+
+    int getY() {
+        return myLocation.y;
+    }
+
+    /**
+     * The larger of the actor's width and height, 0 if it has no size
+     */
+    int getExtent() {
+        return size == null ? 0 : Math.max(size.width, size.height);
     }
 
     public TravelingPath getPath() {
         return path;
     }
 
+    GalagaGame getParent() {
+        return parent;
+    }
+
     /**
      * A simple class to represent a line as a combination of a point and a slope.
      */
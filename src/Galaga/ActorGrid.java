@@ -0,0 +1,128 @@
+package Galaga;
+
+import java.util.ArrayList;
+
+/**
+ * A uniform grid over the playfield that files every actor in the library under the cell holding its upper left
+ * corner, so "what is in this rectangle" only walks the cells the rectangle touches instead of the whole library. Each
+ * cell is an intrusive doubly linked list through the actors themselves, so moving between cells is a few pointer
+ * updates and never allocates. Actors off the playfield (shots leaving it, the HUD) are filed in the nearest edge cell.
+ *
+ * Only ever touched from the simulation thread: actors built elsewhere (LevelPrebuilder) aren't in the library yet,
+ * and ParallelTick places its movers serially in its merge step.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+final class ActorGrid {
+
+    static final int CELL = 64;
+
+    private final int cols;
+    private final int rows;
+    private final Actor[] heads;
+    private int maxExtent = 0; // the widest or tallest actor filed so far, how far one can reach out of its cell
+
+    /**
+     * Create a grid covering a playfield
+     * @param width The width of the playfield
+     * @param height The height of the playfield
+     */
+    ActorGrid(int width, int height){
+        cols = Math.max(1, (width + CELL - 1) / CELL);
+        rows = Math.max(1, (height + CELL - 1) / CELL);
+        heads = new Actor[cols * rows];
+    }
+
+    /**
+     * File an actor that just joined the library (or leave it for later if it has no position yet)
+     */
+    void insert(Actor a){
+        if (a.hasPos()) {
+            link(a, cellOf(a.getX(), a.getY()));
+        }
+    }
+
+    /**
+     * Take an actor that left the library out of the grid
+     */
+    void remove(Actor a){
+        if (a.gridCell >= 0) {
+            unlink(a);
+        }
+    }
+
+    /**
+     * Refile an actor after it moved, if it changed cells
+     */
+    void moved(Actor a){
+        int cell = cellOf(a.getX(), a.getY());
+        if (cell != a.gridCell) {
+            if (a.gridCell >= 0) {
+                unlink(a);
+            }
+            link(a, cell);
+        }
+    }
+
+    /**
+     * Collect every filed actor whose bounds overlap a rectangle, cell by cell
+     * @param x The left edge of the rectangle
+     * @param y The top edge of the rectangle
+     * @param w The width of the rectangle
+     * @param h The height of the rectangle
+     * @param out Gets the actors found (appended, not cleared)
+     */
+    void query(int x, int y, int w, int h, ArrayList<Actor> out){
+        // an actor filed up to maxExtent to the left or above can still reach into the rectangle
+        int fromCol = clamp((x - maxExtent) / CELL, cols);
+        int toCol = clamp((x + w) / CELL, cols);
+        int fromRow = clamp((y - maxExtent) / CELL, rows);
+        int toRow = clamp((y + h) / CELL, rows);
+        for (int row = fromRow; row <= toRow; row++) {
+            for (int col = fromCol; col <= toCol; col++) {
+                for (Actor a = heads[row * cols + col]; a != null; a = a.gridNext) {
+                    int ax = a.getX();
+                    int ay = a.getY();
+                    int extent = a.getExtent();
+                    if (ax < x + w && ax + extent >= x && ay < y + h && ay + extent >= y) {
+                        out.add(a);
+                    }
+                }
+            }
+        }
+    }
+
+    private int cellOf(int x, int y){
+        return clamp(y / CELL, rows) * cols + clamp(x / CELL, cols);
+    }
+
+    private static int clamp(int index, int count){
+        return Math.max(0, Math.min(count - 1, index));
+    }
+
+    private void link(Actor a, int cell){
+        maxExtent = Math.max(maxExtent, a.getExtent());
+        a.gridCell = cell;
+        a.gridPrev = null;
+        a.gridNext = heads[cell];
+        if (a.gridNext != null) {
+            a.gridNext.gridPrev = a;
+        }
+        heads[cell] = a;
+    }
+
+    private void unlink(Actor a){
+        if (a.gridPrev != null) {
+            a.gridPrev.gridNext = a.gridNext;
+        } else {
+            heads[a.gridCell] = a.gridNext;
+        }
+        if (a.gridNext != null) {
+            a.gridNext.gridPrev = a.gridPrev;
+        }
+        a.gridCell = -1;
+        a.gridPrev = null;
+        a.gridNext = null;
+    }
+}
@@ -0,0 +1,158 @@
+package Galaga;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * The game's collision library: the ordered list of actors everything walks for collisions and drawing, which also
+ * keeps an ActorGrid of them up to date for spatial queries. It wraps its list rather than being one, so the only ways
+ * to change it are the ones below, and each of them keeps the grid in step. An actor can be in the list more than once
+ * (nothing stops it); it stays in the grid until its last entry goes.
+ *
+ * Adding always appends, so the order actors were added in is the list's order; each actor keeps the number of its
+ * latest add, which lets near() put what the grid finds back in list order.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+final class ActorLibrary implements Iterable<Actor> {
+
+    private final ArrayList<Actor> actors = new ArrayList<>();
+    private final List<Actor> readOnly = Collections.unmodifiableList(actors);
+    private final ActorGrid grid;
+    private final ArrayList<Actor> nearby = new ArrayList<>();
+    private long added = 0;
+    private int repeated = 0; // entries beyond an actor's first
+
+    private static final Comparator<Actor> LIBRARY_ORDER = (a, b) -> Long.compare(a.libraryOrder, b.libraryOrder);
+
+    ActorLibrary(ActorGrid grid){
+        this.grid = grid;
+    }
+
+    ActorGrid getGrid(){
+        return grid;
+    }
+
+    /**
+     * Called by an actor in the library whenever its position changes
+     */
+    void moved(Actor a){
+        grid.moved(a);
+    }
+
+    void add(Actor a){
+        actors.add(a);
+        a.libraryOrder = added++;
+        entered(a);
+    }
+
+    void addAll(Collection<? extends Actor> c){
+        for (Actor a : c) {
+            add(a);
+        }
+    }
+
+    /**
+     * Remove an actor's first entry
+     * @return Whether it was in the library
+     */
+    boolean remove(Actor a){
+        if (actors.remove(a)) {
+            left(a);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Remove every entry matching a filter
+     */
+    void removeIf(Predicate<? super Actor> filter){
+        actors.removeIf(a -> {
+            if (filter.test(a)) {
+                left(a);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Remove every entry of the given actors
+     */
+    void removeAll(Collection<? extends Actor> c){
+        removeIf(c::contains);
+    }
+
+    void clear(){
+        for (int i = 0; i < actors.size(); i++) {
+            left(actors.get(i));
+        }
+        actors.clear();
+    }
+
+    int size(){
+        return actors.size();
+    }
+
+    /**
+     * Copy the actors, in order, into an array (a bigger one if it doesn't fit), as ArrayList.toArray does
+     */
+    Actor[] toArray(Actor[] into){
+        return actors.toArray(into);
+    }
+
+    /**
+     * The actors that might touch one (which it is itself among), in library order: the ones the grid has around its
+     * bounds. While some actor is in the library more than once the grid can't give the order, so it is all of them.
+     * @param a An actor in the library, with a position
+     * @return The actors, in a list reused by the next call
+     */
+    List<Actor> near(Actor a){
+        if (repeated > 0) {
+            return readOnly;
+        }
+        nearby.clear();
+        // touching counts as overlapping, so the far edges are included
+        grid.query(a.getX(), a.getY(), a.getExtent() + 1, a.getExtent() + 1, nearby);
+        nearby.sort(LIBRARY_ORDER);
+        return nearby;
+    }
+
+    /**
+     * The actors in order, as a list that can't be changed
+     */
+    List<Actor> list(){
+        return readOnly;
+    }
+
+    /**
+     * The actors in order; the iterator can't remove them
+     */
+    @Override
+    public Iterator<Actor> iterator(){
+        return readOnly.iterator();
+    }
+
+    private void entered(Actor a){
+        if (a.libraryCount++ == 0) {
+            grid.insert(a);
+        } else {
+            repeated++;
+        }
+    }
+
+    private void left(Actor a){
+        if (--a.libraryCount == 0) {
+            grid.remove(a);
+        } else {
+            repeated--;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package Galaga;
+
+/**
+ * Every enemy bullet of the bullet-pattern mode, stored as parallel arrays instead of one actor per shot. Moving,
+ * culling and testing against the fighter are each one tight loop over the arrays, which is what lets tens of
+ * thousands of bullets stay in flight at the normal tick rate.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+final class BulletField {
+
+    static final int RADIUS = 2;
+    private static final int CULL_MARGIN = 8;
+
+    final float[] x;
+    final float[] y;
+    final float[] vx;
+    final float[] vy;
+    int count = 0;
+    private int rejected = 0;
+
+    /**
+     * Create an empty field
+     * @param capacity The most bullets that can be in flight; extra ones are not fired
+     */
+    BulletField(int capacity){
+        x = new float[capacity];
+        y = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+    }
+
+    /**
+     * Fire one bullet
+     * @param px Starting x
+     * @param py Starting y
+     * @param pvx X distance moved per tick
+     * @param pvy Y distance moved per tick
+     */
+    void spawn(float px, float py, float pvx, float pvy){
+        if (count == x.length){
+            rejected++;
+            return;
+        }
+        x[count] = px;
+        y[count] = py;
+        vx[count] = pvx;
+        vy[count] = pvy;
+        count++;
+    }
+
+    /**
+     * Fire a fan of bullets centred on a direction
+     * @param px Starting x
+     * @param py Starting y
+     * @param angle The centre direction, in radians (PI/2 is straight down)
+     * @param spread The angle between the outermost bullets
+     * @param bullets How many bullets in the fan
+     * @param speed Distance per tick
+     */
+    void spawnSpread(float px, float py, double angle, double spread, int bullets, float speed){
+        double step = bullets > 1 ? spread / (bullets - 1) : 0;
+        double first = angle - spread / 2;
+        for (int i = 0; i < bullets; i++){
+            double a = first + step * i;
+            spawn(px, py, (float) (Math.cos(a) * speed), (float) (Math.sin(a) * speed));
+        }
+    }
+
+    /**
+     * Fire bullets evenly in every direction
+     * @param px Starting x
+     * @param py Starting y
+     * @param bullets How many bullets in the ring
+     * @param speed Distance per tick
+     * @param phase Rotation of the whole ring, in radians
+     */
+    void spawnRing(float px, float py, int bullets, float speed, double phase){
+        spawnSpread(px, py, phase + Math.PI, 2 * Math.PI * (bullets - 1) / bullets, bullets, speed);
+    }
+
+    /**
+     * Fire a tight burst straight at a target
+     * @param px Starting x
+     * @param py Starting y
+     * @param targetX The x to aim at
+     * @param targetY The y to aim at
+     * @param bullets How many bullets, one behind the other
+     * @param speed Distance per tick of the fastest bullet; the rest trail slightly slower
+     */
+    void spawnAimed(float px, float py, float targetX, float targetY, int bullets, float speed){
+        double angle = Math.atan2(targetY - py, targetX - px);
+        float cos = (float) Math.cos(angle);
+        float sin = (float) Math.sin(angle);
+        for (int i = 0; i < bullets; i++){
+            float s = speed * (1f - 0.06f * i);
+            spawn(px, py, cos * s, sin * s);
+        }
+    }
+
+    /**
+     * Move every bullet, then drop those that left the level (keeping the rest in firing order)
+     * @param width The level width
+     * @param height The level height
+     */
+    void update(int width, int height){
+        int n = count;
+        for (int i = 0; i < n; i++){
+            x[i] += vx[i];
+            y[i] += vy[i];
+        }
+
+        float minX = -CULL_MARGIN;
+        float minY = -CULL_MARGIN;
+        float maxX = width + CULL_MARGIN;
+        float maxY = height + CULL_MARGIN;
+        int kept = 0;
+        for (int i = 0; i < n; i++){
+            float bx = x[i];
+            float by = y[i];
+            if (bx >= minX && bx <= maxX && by >= minY && by <= maxY){
+                if (kept != i){
+                    x[kept] = bx;
+                    y[kept] = by;
+                    vx[kept] = vx[i];
+                    vy[kept] = vy[i];
+                }
+                kept++;
+            }
+        }
+        count = kept;
+    }
+
+    /**
+     * Check every bullet against an upward-pointing triangle (the fighter), removing the bullets that hit it
+     * @param left The triangle's left edge
+     * @param top The triangle's top (its tip)
+     * @param w The triangle's width
+     * @param h The triangle's height
+     * @return How many bullets hit
+     */
+    int collideTriangle(int left, int top, int w, int h){
+        float minX = left - RADIUS;
+        float maxX = left + w + RADIUS;
+        float minY = top - RADIUS;
+        float maxY = top + h + RADIUS;
+        float tipX = left + w / 2f;
+        float halfSlope = (w / 2f) / h; // how far each side spreads per pixel down
+
+        int hits = 0;
+        int kept = 0;
+        for (int i = 0; i < count; i++){
+            float bx = x[i];
+            float by = y[i];
+            boolean hit = false;
+            if (bx >= minX && bx <= maxX && by >= minY && by <= maxY){
+                // inside the box: compare against the triangle's half width at this height (bullet radius added)
+                float reach = (by - top) * halfSlope + RADIUS;
+                hit = Math.abs(bx - tipX) <= reach;
+            }
+            if (hit){
+                hits++;
+            } else {
+                if (kept != i){
+                    x[kept] = bx;
+                    y[kept] = by;
+                    vx[kept] = vx[i];
+                    vy[kept] = vy[i];
+                }
+                kept++;
+            }
+        }
+        count = kept;
+        return hits;
+    }
+
+    /**
+     * Remove every bullet
+     */
+    void clear(){
+        count = 0;
+    }
+
+    /**
+     * How many bullets weren't fired because the field was full
+     * @return The number of rejected bullets
+     */
+    int getRejected(){
+        return rejected;
+    }
+}
@@ -0,0 +1,51 @@
+package Galaga;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Measures the bullet-pattern mode: enemies fire patterns every tick at increasing densities while the fighter is
+ * revived whenever it's hit (so the collision loop keeps running), and each step reports how many bullets were in
+ * flight and how long ticks took. A tick at the normal rate has 23 ms.
+ *
+ * Usage: BulletStress [ticks per step] [volleys per tick]
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public class BulletStress {
+
+    private static final int[] DENSITIES = {1, 4, 16, 32, 64};
+    private static final int CAPACITY = 64 * 1024;
+
+    public static void main(String[] args){
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int volleys = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+
+        System.out.printf("%8s %10s %10s %10s %10s %10s%n", "density", "avg live", "peak live", "p50 ms", "p99 ms",
+                "max ms");
+        for (int density : DENSITIES) {
+            GalagaGame game = new GalagaGame(400, 600, density);
+            game.configureSwarm(0, 0, -1, 0, volleys);
+            game.enableBulletPatterns(CAPACITY, density);
+            BulletField bullets = game.getBullets();
+
+            Random input = new Random(density);
+            long[] tickTimes = new long[ticks];
+            long live = 0;
+            int peak = 0;
+            for (int tick = 0; tick < ticks; tick++) {
+                long before = System.nanoTime();
+                game.handleTick(tick, false, input.nextInt(3) == 0, input.nextInt(3) == 0);
+                tickTimes[tick] = System.nanoTime() - before;
+
+                live += bullets.count;
+                peak = Math.max(peak, bullets.count);
+                game.getFighter().setAlive(true);
+            }
+            Arrays.sort(tickTimes);
+            System.out.printf("%8d %10d %10d %10.3f %10.3f %10.3f%n", density, live / ticks, peak,
+                    tickTimes[ticks / 2] / 1e6, tickTimes[ticks * 99 / 100] / 1e6, tickTimes[ticks - 1] / 1e6);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package Galaga;
+
+import Galaga.Shape.Box;
+import Galaga.Shape.Circle;
+import Galaga.Shape.Triangle;
+
+import java.util.Arrays;
+
+/**
+ * Overlap tests between collision shapes, picked by a table indexed with both shapes' kinds. The pairs the game
+ * actually produces (shots against enemies, enemies and shots against the fighter) have closed-form tests; everything
+ * else falls back to the general separating axis test, which works in a per-thread scratch array (ParallelTick tests
+ * from several threads) so it never allocates. Touching counts as overlapping throughout.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+final class Collisions {
+
+    /**
+     * One entry of the dispatch table
+     */
+    interface Test {
+        boolean overlaps(Shape a, Shape b);
+    }
+
+    private static final ThreadLocal<double[]> SCRATCH = ThreadLocal.withInitial(() -> new double[2]);
+
+    private static final Test[][] TESTS = new Test[Shape.KINDS][Shape.KINDS];
+    static {
+        for (Test[] row : TESTS) {
+            Arrays.fill(row, (Test) Collisions::separatingAxes);
+        }
+        TESTS[Shape.CIRCLE][Shape.CIRCLE] = (a, b) -> circleCircle((Circle) a, (Circle) b);
+        TESTS[Shape.CIRCLE][Shape.BOX] = (a, b) -> circleBox((Circle) a, (Box) b);
+        TESTS[Shape.BOX][Shape.CIRCLE] = (a, b) -> circleBox((Circle) b, (Box) a);
+        TESTS[Shape.BOX][Shape.BOX] = (a, b) -> boxBox((Box) a, (Box) b);
+        TESTS[Shape.TRIANGLE][Shape.CIRCLE] = (a, b) -> triangleCircle((Triangle) a, (Circle) b);
+        TESTS[Shape.CIRCLE][Shape.TRIANGLE] = (a, b) -> triangleCircle((Triangle) b, (Circle) a);
+        TESTS[Shape.TRIANGLE][Shape.BOX] = (a, b) -> triangleBox((Triangle) a, (Box) b);
+        TESTS[Shape.BOX][Shape.TRIANGLE] = (a, b) -> triangleBox((Triangle) b, (Box) a);
+    }
+
+    private Collisions(){
+    }
+
+    /**
+     * Whether two shapes overlap
+     */
+    static boolean overlap(Shape a, Shape b){
+        return TESTS[a.kind()][b.kind()].overlaps(a, b);
+    }
+
+    static boolean circleCircle(Circle a, Circle b){
+        double dx = a.centerX - b.centerX;
+        double dy = a.centerY - b.centerY;
+        double r = a.radius + b.radius;
+        return dx * dx + dy * dy <= r * r;
+    }
+
+    static boolean circleBox(Circle c, Box b){
+        // distance from the centre to the nearest point of the box
+        double dx = c.centerX - Math.max(b.left(), Math.min(c.centerX, b.right()));
+        double dy = c.centerY - Math.max(b.top(), Math.min(c.centerY, b.bottom()));
+        return dx * dx + dy * dy <= c.radius * c.radius;
+    }
+
+    static boolean boxBox(Box a, Box b){
+        return a.left() <= b.right() && b.left() <= a.right() && a.top() <= b.bottom() && b.top() <= a.bottom();
+    }
+
+    static boolean triangleCircle(Triangle t, Circle c){
+        double px = c.centerX;
+        double py = c.centerY;
+
+        // centre inside the triangle: all three edges see it on the same side
+        double d0 = cross(t.x[0], t.y[0], t.x[1], t.y[1], px, py);
+        double d1 = cross(t.x[1], t.y[1], t.x[2], t.y[2], px, py);
+        double d2 = cross(t.x[2], t.y[2], t.x[0], t.y[0], px, py);
+        boolean anyNegative = d0 < 0 || d1 < 0 || d2 < 0;
+        boolean anyPositive = d0 > 0 || d1 > 0 || d2 > 0;
+        if (!(anyNegative && anyPositive)) {
+            return true;
+        }
+
+        // otherwise the circle has to reach one of the edges
+        double r2 = c.radius * c.radius;
+        return segmentDistanceSquared(t.x[0], t.y[0], t.x[1], t.y[1], px, py) <= r2
+                || segmentDistanceSquared(t.x[1], t.y[1], t.x[2], t.y[2], px, py) <= r2
+                || segmentDistanceSquared(t.x[2], t.y[2], t.x[0], t.y[0], px, py) <= r2;
+    }
+
+    /**
+     * The separating axis test unrolled for this pair: the box's two axes are the triangle's bounding box, and against
+     * each triangle edge's normal the box only needs its two extreme corners
+     */
+    static boolean triangleBox(Triangle t, Box b){
+        int[] x = t.x;
+        int[] y = t.y;
+        int minX = Math.min(x[0], Math.min(x[1], x[2]));
+        int maxX = Math.max(x[0], Math.max(x[1], x[2]));
+        int minY = Math.min(y[0], Math.min(y[1], y[2]));
+        int maxY = Math.max(y[0], Math.max(y[1], y[2]));
+        if (maxX < b.left() || b.right() < minX || maxY < b.top() || b.bottom() < minY) {
+            return false;
+        }
+        for (int i = 0; i < 3; i++) {
+            int next = (i + 1) % 3;
+            int apex = (i + 2) % 3;
+            double nx = y[i] - y[next];
+            double ny = x[next] - x[i];
+            // both ends of the edge project to the same point, so the triangle spans that and its third corner
+            double edge = x[i] * nx + y[i] * ny;
+            double far = x[apex] * nx + y[apex] * ny;
+            double boxMin = (nx >= 0 ? b.left() : b.right()) * nx + (ny >= 0 ? b.top() : b.bottom()) * ny;
+            double boxMax = (nx >= 0 ? b.right() : b.left()) * nx + (ny >= 0 ? b.bottom() : b.top()) * ny;
+            if (Math.max(edge, far) < boxMin || boxMax < Math.min(edge, far)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Which side of the line a-b the point p is on (the sign), times the length of a-b
+     */
+    private static double cross(double ax, double ay, double bx, double by, double px, double py){
+        return (bx - ax) * (py - ay) - (by - ay) * (px - ax);
+    }
+
+    private static double segmentDistanceSquared(double ax, double ay, double bx, double by, double px, double py){
+        double ex = bx - ax;
+        double ey = by - ay;
+        double length2 = ex * ex + ey * ey;
+        double t = length2 == 0 ? 0 : Math.max(0, Math.min(1, ((px - ax) * ex + (py - ay) * ey) / length2));
+        double dx = ax + t * ex - px;
+        double dy = ay + t * ey - py;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * The general test: the shapes overlap unless one of either shape's axes separates them
+     * @see <a href='http://www.sevenson.com.au/actionscript/sat/'>Separating Axis Theorem explanation </a>
+     */
+    static boolean separatingAxes(Shape a, Shape b){
+        double[] scratch = SCRATCH.get();
+        return !hasSeparatingAxis(a, b, scratch) && !hasSeparatingAxis(b, a, scratch);
+    }
+
+    /**
+     * @param scratch Room for one {x, y} or {min, max}; holds the axis, then each projection in turn
+     */
+    private static boolean hasSeparatingAxis(Shape owner, Shape other, double[] scratch){
+        for (int i = 0; i < owner.axisCount(); i++) {
+            owner.axis(i, other, scratch);
+            double nx = scratch[0];
+            double ny = scratch[1];
+            if (nx == 0 && ny == 0) {
+                continue; // a repeated corner, or a circle centred on the other's corner
+            }
+            owner.project(nx, ny, scratch);
+            double firstMin = scratch[0];
+            double firstMax = scratch[1];
+            other.project(nx, ny, scratch);
+            if (firstMax < scratch[0] || scratch[1] < firstMin) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
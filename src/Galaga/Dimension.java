@@ -0,0 +1,38 @@
+package Galaga;
+
+/**
+ * A size in level coordinates. The game model uses this rather than java.awt.Dimension, whose class initializer loads
+ * the native AWT libraries, so that simulating a game never touches AWT (see HeadlessSimulator).
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+final class Dimension {
+
+    int width;
+    int height;
+
+    Dimension(int width, int height){
+        this.width = width;
+        this.height = height;
+    }
+
+    Dimension(Dimension other){
+        this(other.width, other.height);
+    }
+
+    @Override
+    public boolean equals(Object o){
+        return o instanceof Dimension && ((Dimension) o).width == width && ((Dimension) o).height == height;
+    }
+
+    @Override
+    public int hashCode(){
+        return 31 * width + height;
+    }
+
+    @Override
+    public String toString(){
+        return width + "x" + height;
+    }
+}
@@ -1,7 +1,5 @@
 package Galaga;
 
-import java.awt.*;
-
 /**
  * The actor in a game of galaga that opposes the player. Can occasionally follow dive-bombing paths.
  *
@@ -10,17 +8,18 @@ import java.awt.*;
  */
 class Enemy extends Actor{
 
+    private static final int COLOR = 0xFF0000;
+
     /**
-     * Draw the enemy
-     * @param g The graphics to draw with
+     * Record the enemy as a red circle
+     * @param snapshot The snapshot to record into
      */
     @Override
-    void drawActor(Graphics g) {
+    void recordSnapshot(RenderSnapshot snapshot) {
         if (super.isAlive()) {
-            g.setColor(Color.RED);
             Point loc = this.getPos();
-            g.fillOval(loc.x, loc.y, getSize().width, getSize().height);
-            //g.drawPolygon(xVals, yVals, xVals.length);
+            Dimension size = getSize();
+            snapshot.add(RenderSnapshot.SHAPE_OVAL, COLOR, loc.x, loc.y, size.width, size.height);
         }
     }
 
@@ -30,7 +29,15 @@ class Enemy extends Actor{
      * @param location The point of location of the enemy (relative to the window/panel/level)
      */
     public Enemy(GalagaGame parent, int size, Point location){
-        super(parent);
+        this(parent, size, location, true);
+    }
+
+    /**
+     * Create a new enemy, optionally without adding it to the game's library yet
+     * @param register Whether or not to add it to the library right away
+     */
+    Enemy(GalagaGame parent, int size, Point location, boolean register){
+        super(parent, register);
         this.setSize(new Dimension(size,size));
 
         this.setPos(location);
@@ -38,25 +45,17 @@ class Enemy extends Actor{
     }
 
     /**
-     * Determine the new points of intersection for the enemy
+     * Determine the enemy's collision circle
      */
+    @Override
     void generateRepresentation(){
-        /*
-        explanation: the origin of this function ties in with the enemy. to apply the SAT (or my previous idea), sides were necessary
-        as opposed to one constant curve. So, we approximate a regular polygon to represent the bounds of a circle. the more
-        sides, the more circular it is.
-         */
-        final int CORRECTION_DEPTH = 16;
-        xVals = new int[CORRECTION_DEPTH];
-        yVals = new int[CORRECTION_DEPTH];
-        int s = this.getSize().width / 2;
-        Point loc = this.getPos();
-        for(int i = 0; i < CORRECTION_DEPTH; i++){
-            // generate CORRECTION_DEPTH sides by calculating each endpoint. This is done via unit circle calculations
-            double radians = (360 / CORRECTION_DEPTH) * i * Math.PI / 180;
-            xVals[i] = loc.x + (int)Math.floor(s * (Math.sin(radians)+1));
-            yVals[i] = loc.y + (int)Math.floor(s * (Math.cos(radians)+1));
+        // this used to be a 16-sided polygon approximating the circle, tested edge by edge. a real circle is cheaper
+        // and exact.
+        if (shape == null){
+            shape = new Shape.Circle();
         }
+        double r = this.getExtent() / 2.0; // enemies are square
+        ((Shape.Circle) shape).set(getX() + r, getY() + r, r);
     }
 
     /**
@@ -68,12 +67,23 @@ class Enemy extends Actor{
         if (super.isAlive()) {
             if (other instanceof Projectile) {
                 if (((Projectile) other).canCollide) {
-                    super.setAlive(false);
+                    destroy();
                 }
             } else {
-                super.setAlive(false);
+                destroy();
                 other.setAlive(false);
             }
         }
     }
+
+    /**
+     * Get shot down (or crash): die, and blow up if we weren't dead already. Collisions go through here rather than
+     * setAlive, which also marks enemies dead without a fight (formation gaps, restored games).
+     */
+    void destroy() {
+        if (super.isAlive()) {
+            super.setAlive(false);
+            getParent().explode(this, COLOR, 1);
+        }
+    }
 }
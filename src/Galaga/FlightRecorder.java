@@ -0,0 +1,573 @@
+package Galaga;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.*;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Always-on recorder of the last few seconds of a game, for looking into reported hitches. Every tick's input, phase
+ * timings and a small summary of the state go into preallocated rings, along with garbage collections (from the
+ * collectors' notifications), painted frame times, and a full saved state every KEYFRAME_INTERVAL ticks. When a tick
+ * or frame runs over the threshold, the window around it (a quarter of it after the slow tick) is frozen and written
+ * to a file on a background thread.
+ *
+ * A dump has the game's settings (its waves included), a keyframe from before the window and every input since, so
+ * the main method here can replay the exact stretch of game offline and check it against what was recorded.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public final class FlightRecorder implements TickObserver, Closeable {
+
+    private static final int MAGIC = 0x47465232; // GFR2: GFR1 plus the waves
+    private static final int KEYFRAME_INTERVAL = 43; // about a second
+    private static final int GC_EVENTS = 64;
+    private static final int FRAMES = 256;
+
+    private final Path directory;
+    private final long thresholdNanos;
+    private final long periodNanos;
+    private final Window live;
+    private final Window frozen;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "galaga-flight-recorder");
+        t.setDaemon(true);
+        return t;
+    });
+    private final ArrayList<NotificationEmitter> emitters = new ArrayList<>();
+    private final NotificationListener gcListener = this::gcNotification;
+
+    // garbage collections, written by the notification thread
+    private final long[] gcAt = new long[GC_EVENTS];
+    private final long[] gcMillis = new long[GC_EVENTS];
+    private final String[] gcNames = new String[GC_EVENTS];
+    private int gcCount = 0;
+
+    // painted frames, written by the rendering thread
+    private final long[] frameAt = new long[FRAMES];
+    private final long[] frameNanos = new long[FRAMES];
+    private int frameCount = 0;
+    private volatile long slowFrameNanos = 0;
+
+    private long lastTickAt = 0;
+    private int dumpAtTick = -1;
+    private String dumpReason;
+    private volatile boolean writing = false;
+    private int dumps = 0;
+    private int skipped = 0;
+
+    /**
+     * @param directory Where to write dumps
+     * @param seconds How many seconds of ticks to keep
+     * @param thresholdNanos A tick (or frame) taking longer than this, or arriving this much later than expected,
+     *                       triggers a dump
+     * @param periodNanos The expected time between ticks, or 0 not to check for late ticks
+     */
+    public FlightRecorder(Path directory, int seconds, long thresholdNanos, long periodNanos) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.thresholdNanos = thresholdNanos;
+        this.periodNanos = periodNanos;
+        int ticks = Math.max(KEYFRAME_INTERVAL * 2, seconds * KEYFRAME_INTERVAL);
+        live = new Window(ticks);
+        frozen = new Window(ticks);
+
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter) {
+                NotificationEmitter emitter = (NotificationEmitter) gc;
+                emitter.addNotificationListener(gcListener, null, null);
+                emitters.add(emitter);
+            }
+        }
+    }
+
+    @Override
+    public void tickFinished(GalagaGame game, int tick){
+        long now = System.nanoTime();
+        long work = 0;
+        for (int phase = 0; phase < GalagaGame.PHASES; phase++) {
+            work += game.getPhaseNanos(phase);
+        }
+        long interval = lastTickAt == 0 ? 0 : now - lastTickAt;
+        lastTickAt = now;
+        live.record(game, tick, now, interval);
+
+        long frame = slowFrameNanos;
+        boolean late = periodNanos > 0 && interval - periodNanos > thresholdNanos;
+        if (work > thresholdNanos || late || frame > 0) {
+            slowFrameNanos = 0;
+            if (dumpAtTick < 0 && !writing) {
+                dumpAtTick = tick + live.capacity / 4;
+                if (work > thresholdNanos) {
+                    dumpReason = String.format("tick %d took %.2f ms", tick, work / 1e6);
+                } else if (late) {
+                    dumpReason = String.format("tick %d came %.2f ms late", tick, (interval - periodNanos) / 1e6);
+                } else {
+                    dumpReason = String.format("a frame took %.2f ms to paint", frame / 1e6);
+                }
+            } else if (writing) {
+                skipped++;
+            }
+        }
+        if (dumpAtTick == tick) {
+            dumpAtTick = -1;
+            dump(game);
+        }
+    }
+
+    /**
+     * Drop the window: a replay from one of its keyframes would run through inputs that never led to the states after
+     * the rewind. A dump waiting for its quarter window after a slow tick goes too.
+     */
+    @Override
+    public void rewound(GalagaGame game, int tick){
+        live.clear();
+        dumpAtTick = -1;
+    }
+
+    /**
+     * Report a painted frame; a slow one triggers a dump at the next tick
+     * @param nanos How long it took to paint
+     */
+    public void frameRendered(long nanos){
+        synchronized (frameAt) {
+            int slot = frameCount++ % FRAMES;
+            frameAt[slot] = System.nanoTime();
+            frameNanos[slot] = nanos;
+        }
+        if (nanos > thresholdNanos) {
+            slowFrameNanos = nanos;
+        }
+    }
+
+    /**
+     * Forget when the last tick came, e.g. after a pause or between games, so the gap isn't taken for a stutter
+     */
+    public void resetTiming(){
+        lastTickAt = 0;
+    }
+
+    /**
+     * How many dumps have been written (or are being written)
+     */
+    public int getDumpCount(){
+        return dumps;
+    }
+
+    /**
+     * How many slow ticks came while a dump was still being written, and so weren't dumped
+     */
+    public int getSkippedCount(){
+        return skipped;
+    }
+
+    @Override
+    public void close(){
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(gcListener);
+            } catch (Exception e) {
+                // already gone
+            }
+        }
+        writer.shutdown();
+    }
+
+    /**
+     * Freeze the window on this thread (a copy into preallocated arrays), then write it out on the writer thread
+     */
+    private void dump(GalagaGame game){
+        writing = true;
+        dumps++;
+        frozen.copyFrom(live);
+        String reason = dumpReason;
+        int width = game.getLevelSize().width;
+        int height = game.getLevelSize().height;
+        int[] config = game.getConfig();
+        String waves = game.getWaves().getText();
+        String[] gcNameCopy = new String[GC_EVENTS];
+        long[][] gcs = copyGcs(gcNameCopy);
+        long[][] frames = copyFrames();
+        Path file = directory.resolve("flight-" + System.currentTimeMillis() + "-" + frozen.lastTick() + ".gfr");
+        writer.execute(() -> {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+                out.writeInt(MAGIC);
+                out.writeUTF(reason);
+                out.writeInt(width);
+                out.writeInt(height);
+                out.writeInt(config.length);
+                for (int value : config) {
+                    out.writeInt(value);
+                }
+                // the levels are compiled from the waves, so a replay needs the same ones: -1 for the standard waves
+                if (waves == null) {
+                    out.writeInt(-1);
+                } else {
+                    byte[] text = waves.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(text.length);
+                    out.write(text);
+                }
+                frozen.write(out);
+                out.writeInt(gcs[0].length);
+                for (int i = 0; i < gcs[0].length; i++) {
+                    out.writeLong(gcs[0][i]);
+                    out.writeLong(gcs[1][i]);
+                    out.writeUTF(gcNameCopy[i]);
+                }
+                out.writeInt(frames[0].length);
+                for (int i = 0; i < frames[0].length; i++) {
+                    out.writeLong(frames[0][i]);
+                    out.writeLong(frames[1][i]);
+                }
+                System.err.println("Flight recorder: " + reason + ", wrote " + file);
+            } catch (IOException ioe) {
+                System.err.println("Error writing the flight recording.");
+            } finally {
+                writing = false;
+            }
+        });
+    }
+
+    private void gcNotification(Notification notification, Object handback){
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        synchronized (gcAt) {
+            int slot = gcCount++ % GC_EVENTS;
+            gcAt[slot] = System.nanoTime();
+            gcMillis[slot] = info.getGcInfo().getDuration();
+            gcNames[slot] = info.getGcName() + " (" + info.getGcCause() + ")";
+        }
+    }
+
+    /**
+     * The collections kept, oldest first, as {when, milliseconds}
+     * @param names Filled with their names, in the same order
+     */
+    private long[][] copyGcs(String[] names){
+        synchronized (gcAt) {
+            int n = Math.min(gcCount, GC_EVENTS);
+            long[][] copy = new long[2][n];
+            for (int i = 0; i < n; i++) {
+                int slot = (gcCount - n + i) % GC_EVENTS;
+                copy[0][i] = gcAt[slot];
+                copy[1][i] = gcMillis[slot];
+                names[i] = gcNames[slot];
+            }
+            return copy;
+        }
+    }
+
+    /**
+     * The frames kept, oldest first, as {when, nanoseconds}
+     */
+    private long[][] copyFrames(){
+        synchronized (frameAt) {
+            int n = Math.min(frameCount, FRAMES);
+            long[][] copy = new long[2][n];
+            for (int i = 0; i < n; i++) {
+                int slot = (frameCount - n + i) % FRAMES;
+                copy[0][i] = frameAt[slot];
+                copy[1][i] = frameNanos[slot];
+            }
+            return copy;
+        }
+    }
+
+    /**
+     * Print a dump and replay it from its keyframe, checking the replay against the recorded summaries
+     * @param args The dump file
+     */
+    public static void main(String[] args) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(Paths.get(args[0]))))) {
+            if (in.readInt() != MAGIC) {
+                System.err.println("Not a flight recording (or one from an older version).");
+                return;
+            }
+            String reason = in.readUTF();
+            int width = in.readInt();
+            int height = in.readInt();
+            int[] config = new int[in.readInt()];
+            for (int i = 0; i < config.length; i++) {
+                config[i] = in.readInt();
+            }
+            WaveBook waves = WaveBook.standard();
+            int wavesLength = in.readInt();
+            if (wavesLength >= 0) {
+                byte[] text = new byte[wavesLength];
+                in.readFully(text);
+                waves = WaveBook.fromText(new String(text, StandardCharsets.UTF_8), "the recorded waves");
+            }
+            Window window = Window.read(in);
+            System.out.println("Dumped because " + reason);
+
+            int n = window.size;
+            long base = window.at[0];
+            System.out.printf("%8s %9s %9s %9s %9s %9s %9s %7s %6s %6s%n", "tick", "at ms", "gap ms", "cluster",
+                    "shots", "logic", "publish", "score", "lives", "shots");
+            for (int i = 0; i < n; i++) {
+                System.out.printf("%8d %9.2f %9.2f %9.3f %9.3f %9.3f %9.3f %7d %6d %6d%n", window.ticks[i],
+                        (window.at[i] - base) / 1e6, window.interval[i] / 1e6,
+                        window.phases[GalagaGame.PHASE_CLUSTER][i] / 1e6, window.phases[GalagaGame.PHASE_SHOTS][i] / 1e6,
+                        window.phases[GalagaGame.PHASE_LOGIC][i] / 1e6, window.phases[GalagaGame.PHASE_PUBLISH][i] / 1e6,
+                        window.score[i], window.lives[i], window.shots[i]);
+            }
+            int gcs = in.readInt();
+            for (int i = 0; i < gcs; i++) {
+                long at = in.readLong();
+                long millis = in.readLong();
+                System.out.printf("GC at %.2f ms: %s, %d ms%n", (at - base) / 1e6, in.readUTF(), millis);
+            }
+            int frames = in.readInt();
+            long slowest = 0;
+            for (int i = 0; i < frames; i++) {
+                in.readLong();
+                slowest = Math.max(slowest, in.readLong());
+            }
+            System.out.printf("%d frames, slowest %.2f ms%n", frames, slowest / 1e6);
+
+            System.out.println(window.replay(width, height, config, waves));
+        }
+    }
+
+    /**
+     * A ring of per-tick records plus the keyframes to replay them from
+     */
+    private static final class Window {
+        final int capacity;
+        final int[] ticks;
+        final long[] at;
+        final long[] interval;
+        final boolean[] fire;
+        final double[] right;
+        final double[] left;
+        final long[][] phases;
+        final int[] score;
+        final int[] level;
+        final int[] lives;
+        final int[] shots;
+        final int[] fighterX;
+        int next = 0; // ring position of the next record
+        int size = 0;
+
+        final SavedState[] keyframes;
+        final int[] keyframeTicks;
+        private final InputSample input = new InputSample();
+
+        Window(int capacity){
+            this.capacity = capacity;
+            ticks = new int[capacity];
+            at = new long[capacity];
+            interval = new long[capacity];
+            fire = new boolean[capacity];
+            right = new double[capacity];
+            left = new double[capacity];
+            phases = new long[GalagaGame.PHASES][capacity];
+            score = new int[capacity];
+            level = new int[capacity];
+            lives = new int[capacity];
+            shots = new int[capacity];
+            fighterX = new int[capacity];
+            keyframes = new SavedState[capacity / KEYFRAME_INTERVAL + 2];
+            keyframeTicks = new int[keyframes.length];
+            for (int i = 0; i < keyframes.length; i++) {
+                keyframes[i] = new SavedState(1024);
+                keyframeTicks[i] = -1;
+            }
+        }
+
+        void record(GalagaGame game, int tick, long now, long gap){
+            int i = next;
+            ticks[i] = tick;
+            at[i] = now;
+            interval[i] = gap;
+            game.copyLastInput(input);
+            fire[i] = input.fire;
+            right[i] = input.rightHeld;
+            left[i] = input.leftHeld;
+            for (int phase = 0; phase < GalagaGame.PHASES; phase++) {
+                phases[phase][i] = game.getPhaseNanos(phase);
+            }
+            score[i] = game.getScore();
+            level[i] = game.getLevel();
+            lives[i] = game.getPlayerLives();
+            shots[i] = game.getShots().size();
+            fighterX[i] = game.getFighter().getPos().x;
+            next = (next + 1) % capacity;
+            size = Math.min(size + 1, capacity);
+
+            if (tick % KEYFRAME_INTERVAL == 0) {
+                int k = (tick / KEYFRAME_INTERVAL) % keyframes.length;
+                game.saveState(keyframes[k]);
+                keyframeTicks[k] = tick;
+            }
+        }
+
+        int lastTick(){
+            return ticks[(next - 1 + capacity) % capacity];
+        }
+
+        void clear(){
+            next = 0;
+            size = 0;
+            for (int k = 0; k < keyframes.length; k++) {
+                keyframeTicks[k] = -1;
+            }
+        }
+
+        /**
+         * Copy another window, oldest record first
+         */
+        void copyFrom(Window other){
+            size = other.size;
+            next = size % capacity;
+            int first = (other.next - other.size + capacity) % capacity;
+            for (int n = 0; n < size; n++) {
+                int from = (first + n) % capacity;
+                ticks[n] = other.ticks[from];
+                at[n] = other.at[from];
+                interval[n] = other.interval[from];
+                fire[n] = other.fire[from];
+                right[n] = other.right[from];
+                left[n] = other.left[from];
+                for (int phase = 0; phase < GalagaGame.PHASES; phase++) {
+                    phases[phase][n] = other.phases[phase][from];
+                }
+                score[n] = other.score[from];
+                level[n] = other.level[from];
+                lives[n] = other.lives[from];
+                shots[n] = other.shots[from];
+                fighterX[n] = other.fighterX[from];
+            }
+            for (int k = 0; k < keyframes.length; k++) {
+                keyframes[k].copyFrom(other.keyframes[k]);
+                keyframeTicks[k] = other.keyframeTicks[k];
+            }
+        }
+
+        /**
+         * The oldest keyframe whose following ticks are all in the window (records must be oldest first)
+         */
+        int replayKeyframe(){
+            int best = -1;
+            for (int k = 0; k < keyframes.length; k++) {
+                int tick = keyframeTicks[k];
+                if (tick >= ticks[0] && tick < ticks[size - 1] && (best < 0 || tick < keyframeTicks[best])) {
+                    best = k;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Write the records (oldest first) and the keyframe to replay from
+         */
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(size);
+            for (int n = 0; n < size; n++) {
+                out.writeInt(ticks[n]);
+                out.writeLong(at[n]);
+                out.writeLong(interval[n]);
+                out.writeBoolean(fire[n]);
+                out.writeDouble(right[n]);
+                out.writeDouble(left[n]);
+                for (int phase = 0; phase < GalagaGame.PHASES; phase++) {
+                    out.writeLong(phases[phase][n]);
+                }
+                out.writeInt(score[n]);
+                out.writeInt(level[n]);
+                out.writeInt(lives[n]);
+                out.writeInt(shots[n]);
+                out.writeInt(fighterX[n]);
+            }
+            int k = replayKeyframe();
+            out.writeInt(k < 0 ? -1 : keyframeTicks[k]);
+            if (k >= 0) {
+                SavedState keyframe = keyframes[k];
+                out.writeInt(keyframe.length);
+                for (int i = 0; i < keyframe.length; i++) {
+                    out.writeInt(keyframe.values[i]);
+                }
+            }
+        }
+
+        static Window read(DataInputStream in) throws IOException {
+            int size = in.readInt();
+            Window window = new Window(Math.max(size, 1));
+            window.size = size;
+            for (int n = 0; n < size; n++) {
+                window.ticks[n] = in.readInt();
+                window.at[n] = in.readLong();
+                window.interval[n] = in.readLong();
+                window.fire[n] = in.readBoolean();
+                window.right[n] = in.readDouble();
+                window.left[n] = in.readDouble();
+                for (int phase = 0; phase < GalagaGame.PHASES; phase++) {
+                    window.phases[phase][n] = in.readLong();
+                }
+                window.score[n] = in.readInt();
+                window.level[n] = in.readInt();
+                window.lives[n] = in.readInt();
+                window.shots[n] = in.readInt();
+                window.fighterX[n] = in.readInt();
+            }
+            window.keyframeTicks[0] = in.readInt();
+            if (window.keyframeTicks[0] >= 0) {
+                SavedState keyframe = window.keyframes[0];
+                keyframe.clear();
+                int length = in.readInt();
+                for (int i = 0; i < length; i++) {
+                    keyframe.put(in.readInt());
+                }
+            }
+            return window;
+        }
+
+        /**
+         * Restore the keyframe into a fresh game, play every recorded input after it, and compare
+         * @return A line saying how the replay went
+         */
+        String replay(int width, int height, int[] config, WaveBook waves){
+            int keyTick = keyframeTicks[0];
+            if (keyTick < 0) {
+                return "No keyframe in the window, can't replay.";
+            }
+            GalagaGame game = new GalagaGame(width, height, 0L);
+            game.setSnapshotPublishing(false);
+            game.setWaves(waves);
+            game.applyConfig(config);
+            game.restoreState(keyframes[0]);
+
+            int replayed = 0;
+            for (int n = 0; n < size; n++) {
+                if (ticks[n] <= keyTick) {
+                    continue;
+                }
+                input.fire = fire[n];
+                input.rightHeld = right[n];
+                input.leftHeld = left[n];
+                game.handleTick(ticks[n], input);
+                replayed++;
+                if (game.getScore() != score[n] || game.getLevel() != level[n] || game.getPlayerLives() != lives[n]
+                        || game.getShots().size() != shots[n] || game.getFighter().getPos().x != fighterX[n]) {
+                    return "Replay from tick " + keyTick + " DIFFERS at tick " + ticks[n];
+                }
+            }
+            return "Replayed " + replayed + " ticks from the keyframe at tick " + keyTick + ": matches the recording";
+        }
+    }
+}
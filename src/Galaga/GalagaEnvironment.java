@@ -0,0 +1,145 @@
+package Galaga;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A reinforcement-learning style wrapper around one headless Galaga game. Agents call reset, then step with an action
+ * until done, reading a flat numeric observation after each step instead of poking at actors.
+ *
+ * Observation layout (all floats, positions scaled to 0..1 of the level):
+ *  - GRID_COLS * GRID_ROWS enemy occupancy cells, row-major, 1 where a living enemy's centre is
+ *  - MAX_SHOTS shot slots of (x, y, direction), direction being -1 for fighter shots, 1 for enemy shots, 0 if unused
+ *  - the fighter's x, the number of spare lives, and 1/0 for whether the fighter is alive
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public class GalagaEnvironment {
+
+    public static final int ACTION_LEFT = 1;
+    public static final int ACTION_RIGHT = 2;
+    public static final int ACTION_FIRE = 4;
+    public static final int ACTION_COUNT = 8;
+
+    public static final int GRID_COLS = 20;
+    public static final int GRID_ROWS = 30;
+    public static final int MAX_SHOTS = 32;
+    private static final int SHOT_OFFSET = GRID_COLS * GRID_ROWS;
+    private static final int FIGHTER_OFFSET = SHOT_OFFSET + MAX_SHOTS * 3;
+    public static final int OBSERVATION_SIZE = FIGHTER_OFFSET + 3;
+
+    private final int width;
+    private final int height;
+    private final int maxSteps;
+    private final float[] observation = new float[OBSERVATION_SIZE];
+
+    private GalagaGame game;
+    private int tick = 0;
+    private int lastScore = 0;
+    private boolean done = true;
+
+    /**
+     * Create an environment for games of the given size
+     * @param width Width of the (virtual) galaga window
+     * @param height Height of the (virtual) galaga window
+     * @param maxSteps Steps after which an episode is cut off, or 0 to only end when the player is out of lives
+     */
+    public GalagaEnvironment(int width, int height, int maxSteps){
+        this.width = width;
+        this.height = height;
+        this.maxSteps = maxSteps;
+    }
+
+    /**
+     * Start a new episode
+     * @param seed The seed for every random choice the game makes
+     * @return The first observation (reused by later calls, copy it to keep it)
+     */
+    public float[] reset(long seed){
+        game = new GalagaGame(width, height, seed);
+        game.setSnapshotPublishing(false);
+        tick = 0;
+        lastScore = 0;
+        done = false;
+        observe(observation, 0);
+        return observation;
+    }
+
+    /**
+     * Advance the game by one tick with the given action
+     * @param action A combination of the ACTION_ flags
+     * @return The reward for this step: how much the score went up
+     */
+    public float step(int action){
+        if (done){
+            throw new IllegalStateException("Episode is over; call reset first.");
+        }
+        game.handleTick(tick++, (action & ACTION_FIRE) != 0, (action & ACTION_RIGHT) != 0,
+                (action & ACTION_LEFT) != 0);
+
+        int score = game.getScore();
+        float reward = score - lastScore;
+        lastScore = score;
+        done = !game.isRunning() || (maxSteps > 0 && tick >= maxSteps);
+        observe(observation, 0);
+        return reward;
+    }
+
+    /**
+     * Whether or not the current episode has ended
+     * @return True once the player is out of lives or the step limit was hit
+     */
+    public boolean isDone(){
+        return done;
+    }
+
+    /**
+     * The observation after the most recent reset or step (reused between calls)
+     * @return The observation array
+     */
+    public float[] getObservation(){
+        return observation;
+    }
+
+    /**
+     * Write the current observation into part of a larger array
+     * @param out The array to write to
+     * @param offset Where in the array the OBSERVATION_SIZE values begin
+     */
+    void observe(float[] out, int offset){
+        Arrays.fill(out, offset, offset + OBSERVATION_SIZE, 0f);
+
+        // enemies, by which cell their centre falls in
+        for (Enemy[] column : game.getEnemies()){
+            for (Enemy e : column){
+                if (e.isAlive()){
+                    int half = e.getExtent() / 2;
+                    int cx = (e.getX() + half) * GRID_COLS / width;
+                    int cy = (e.getY() + half) * GRID_ROWS / height;
+                    if (cx >= 0 && cx < GRID_COLS && cy >= 0 && cy < GRID_ROWS){
+                        out[offset + cy * GRID_COLS + cx] = 1f;
+                    }
+                }
+            }
+        }
+
+        // shots in flight, in firing order, as many as fit
+        ArrayList<Projectile> shots = game.getShots();
+        int slot = offset + SHOT_OFFSET;
+        for (int i = 0; i < shots.size() && i < MAX_SHOTS; i++){
+            Projectile shot = shots.get(i);
+            if (shot.isAlive()){
+                out[slot] = shot.getX() / (float) width;
+                out[slot + 1] = shot.getY() / (float) height;
+                out[slot + 2] = shot.getMomentumY() < 0 ? -1f : 1f;
+                slot += 3;
+            }
+        }
+
+        PlayerFighter fighter = game.getFighter();
+        out[offset + FIGHTER_OFFSET] = fighter.getX() / (float) width;
+        out[offset + FIGHTER_OFFSET + 1] = game.getPlayerLives();
+        out[offset + FIGHTER_OFFSET + 2] = fighter.isAlive() ? 1f : 0f;
+    }
+}
@@ -1,8 +1,9 @@
 package Galaga;
 
-import java.awt.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Game logic related to running a game that's similar and not entirely unlike Galaga. Or galaxa? Or space invaders?
@@ -26,11 +27,45 @@ public class GalagaGame {
     private int playerLives = DEFAULT_PLAYER_LIVES;
     private int deadPlayerTimeout = -1;
     private int lastFighterShot = 0;
-
-    private int maximumMovingEnemies = 2;
-
-    private int enemyDispatchDelay = 40;
-    private int enemyFireDelay =40;
+    private double fighterDrift = 0;
+    private long lastInputNanos = 0;
+
+    // the levels as data, and the current one compiled: what to do on each tick, and cursors into its orders
+    private WaveBook waves = WaveBook.standard();
+    private WaveSchedule schedule;
+    private long waveSeed;
+    private int scheduleStep = 0;
+    private int dispatchCursor = 0;
+    private int fireCursor = 0;
+    private int pathCursor = 0;
+
+    // bullet-pattern mode: enemies fire spreads, rings and aimed bursts instead of single projectiles
+    private BulletField bullets = null;
+    private int bulletDensity = 1;
+    private final float BULLET_SPEED = 4f;
+
+    // stress test overrides of the usual difficulty curve (0 or -1 means no override)
+    private int swarmRows = 0;
+    private int swarmCols = 0;
+    private int swarmMaxMoving = -1;
+    private int swarmFireDelay = -1;
+    private int swarmShots = -1;
+
+    // how long each part of the last tick took, for the flight recorder
+    static final int PHASE_CLUSTER = 0;
+    static final int PHASE_SHOTS = 1;
+    static final int PHASE_LOGIC = 2;
+    static final int PHASE_PUBLISH = 3;
+    static final int PHASES = 4;
+    private final long[] phaseNanos = new long[PHASES];
+
+    // the last tick's input, so it can be recorded and played again
+    private boolean lastFire = false;
+    private double lastRight = 0;
+    private double lastLeft = 0;
+
+    private static final int DIVE_PATH = 1;
+    private static final int RETURN_PATH = 2;
 
     private Direction clusterDir = Direction.EAST;
     private Enemy[][] enemies;
@@ -38,28 +73,74 @@ public class GalagaGame {
 
     private PlayerFighter fighter;
     private PlayerFighter[] lifeCounter;
-    private static Dimension levelSize;
-
-    ArrayList<Actor> collLibrary = new ArrayList<>();
+    private Actor scoreDisplay;
+    private final LevelPrebuilder prebuilder = new LevelPrebuilder(this, DEFAULT_ENEMY_SIZE);
+    private final Dimension levelSize;
+
+    // the part of the level the renderer shows, and where: follows the fighter and never touches the simulation
+    private int viewWidth;
+    private int viewHeight;
+    private int cameraX = 0;
+    private int cameraY = 0;
+    private final ArrayList<Actor> visible = new ArrayList<>();
+
+    // explosions: only for show, so they are only spawned and moved while snapshots are being published
+    static final int DEFAULT_PARTICLE_BUDGET = 1024;
+    private final ParticlePool particles = new ParticlePool(ParticlePool.DEFAULT_CAPACITY);
+    private int particleBudget = DEFAULT_PARTICLE_BUDGET;
+
+    final ActorLibrary collLibrary;
+    private final SnapshotBuffer snapshots = new SnapshotBuffer();
     private ArrayList<Projectile> shots = new ArrayList<>();
     private final int PROJECTILE_TICK_DISTANCE = 8;
     private int level = 1;
 
     private int score = 0;
 
+    private final GameRandom random;
+    private double travelDistance = 1.5;
+    private boolean snapshotPublishing = true;
+    private final ArrayList<TickObserver> tickObservers = new ArrayList<>();
+    private int lastTick = 0; // the last tick finished, for counting what a rewind takes back
+    private int rewoundTicks = 0;
+    private ParallelTick parallel; // null: movement and collisions run in the plain serial loops
+    private final GameMetrics metrics = new GameMetrics();
+
     /**
      * Create a new Galaga Game, supplying the width and height for positioning
      * @param width Width of the galaga window (margins are handled internally)
      * @param height Height of the galaga window
      */
     public GalagaGame(int width, int height){
+        this(width, height, new GameRandom(new Random().nextLong()));
+    }
+
+    /**
+     * Create a new, reproducible Galaga Game: every random choice (swooping enemies, firing enemies, swoop curves) is
+     * drawn from a generator with the given seed.
+     * @param width Width of the galaga window (margins are handled internally)
+     * @param height Height of the galaga window
+     * @param seed The seed for the game's random number generator
+     */
+    public GalagaGame(int width, int height, long seed){
+        this(width, height, new GameRandom(seed));
+    }
+
+    private GalagaGame(int width, int height, GameRandom random){
+        this.random = random;
         levelSize = new Dimension(width, height);
+        viewWidth = width;
+        viewHeight = height;
+        collLibrary = new ActorLibrary(new ActorGrid(width, height));
 
         // Create player's actor: fighter. Override collision to gain direct collision response.
         fighter = new PlayerFighter(this, DEFAULT_ENEMY_SIZE){
             @Override
             public void handleCollision(Actor other){
                 super.handleCollision(other);
+                if (deadPlayerTimeout < 0) {
+                    explode(this, PlayerFighter.COLOR, 2);
+                }
                 deadPlayerTimeout = DEFAULT_PLAYER_DIED_TIMEOUT;
             }
         };
@@ -70,13 +151,12 @@ public class GalagaGame {
 
         setLevelParams(level);
 
-        Actor scoreDisplay = new Actor(this){
+        scoreDisplay = new Actor(this){
 
             @Override
-            void drawActor(Graphics g) {
-                g.setColor(Color.GREEN);
-                g.setFont(new Font("Arial", Font.PLAIN, 16));
-                g.drawString("Score: " + score, getPos().x, getPos().y);
+            void recordSnapshot(RenderSnapshot snapshot) {
+                // the text itself comes from the snapshot's score
+                snapshot.add(RenderSnapshot.SHAPE_SCORE, 0x00FF00, getPos().x, getPos().y, 0, 0);
             }
 
             @Override
@@ -91,24 +171,88 @@ public class GalagaGame {
             }
         };
         scoreDisplay.setLocation(5, 16);
-        scoreDisplay.setCanCollide(false);
-        collLibrary.add(scoreDisplay);
+        scoreDisplay.setCanCollide(false); // already in the library: every actor joins it when created
+
+        publishSnapshot(0);
     }
 
     /**
-     * Update the galaga game by supplying a moment tick. (25 ms interval recommended)
+     * Update the galaga game by supplying a moment tick, then publish a render snapshot of the result.
+     * (25 ms interval recommended)
      * @param tick The tick number to base movements off of
      * @param space Whether or not the space bar is pressed
      * @param right Whether or not the left button is pressed
      * @param left Whether or not the right button is pressed
      */
     public void handleTick (int tick, boolean space, boolean right, boolean left){
+        timedStep(tick, space, right ? 1 : 0, left ? 1 : 0);
+        finishTick(tick);
+    }
+
+    /**
+     * Update the galaga game with timestamped input drained from an InputQueue: keys held for only part of the tick
+     * move the fighter part of the way, and a fire tap shorter than a tick still fires.
+     * @param tick The tick number to base movements off of
+     * @param input What the player did since the last tick
+     */
+    public void handleTick (int tick, InputSample input){
+        lastInputNanos = input.latestEventNanos;
+        timedStep(tick, input.fire, input.rightHeld, input.leftHeld);
+        finishTick(tick);
+    }
+
+    /**
+     * Step the simulation, remembering the input and how long the step took
+     */
+    private void timedStep(int tick, boolean space, double right, double left){
+        lastFire = space;
+        lastRight = right;
+        lastLeft = left;
+        phaseNanos[PHASE_CLUSTER] = 0;
+        phaseNanos[PHASE_SHOTS] = 0;
+        long start = System.nanoTime();
+        stepTick(tick, space, right, left);
+        phaseNanos[PHASE_LOGIC] = System.nanoTime() - start - phaseNanos[PHASE_CLUSTER] - phaseNanos[PHASE_SHOTS];
+    }
+
+    /**
+     * Publish the results of a tick to the renderer and any observers
+     */
+    private void finishTick(int tick){
+        long start = System.nanoTime();
+        publishSnapshot(tick);
+        phaseNanos[PHASE_PUBLISH] = System.nanoTime() - start;
+        lastTick = tick;
+        for (TickObserver observer : tickObservers) {
+            observer.tickFinished(this, tick);
+        }
+    }
+
+    /**
+     * Advance the simulation by one tick.
+     * @param right How much of the tick (0 to 1) the right button was held
+     * @param left How much of the tick (0 to 1) the left button was held
+     * @see GalagaGame#handleTick(int, boolean, boolean, boolean)
+     */
+    private void stepTick(int tick, boolean space, double right, double left){
 
-        // Move enemies every other 'frame'
-        if (tick % 2 == 0){
+        // what the level does this tick: moving the cluster (every other tick), sending a swooper, firing a volley
+        byte actions = schedule.actions[scheduleStep];
+        if (++scheduleStep == schedule.actions.length){
+            scheduleStep = 0;
+        }
+
+        long start = System.nanoTime();
+        if ((actions & WaveSchedule.MOVE_CLUSTER) != 0){
             this.moveCluster();
         }
+        long moved = System.nanoTime();
         this.moveShots();
+        if (bullets != null){
+            this.moveBullets();
+        }
+        phaseNanos[PHASE_CLUSTER] = moved - start;
+        phaseNanos[PHASE_SHOTS] = System.nanoTime() - moved;
 
         // If desired, fire the fighter weapon, if alloweed
         if (space && tick - lastFighterShot > 16){
@@ -116,17 +260,27 @@ public class GalagaGame {
             this.fireFighterWeapon();
         }
 
-        // move left if only left, move right if only right
-        if (left && !right) {
-            this.moveFighter(GalagaGame.Direction.WEST);
+        // move left if only left, move right if only right. keys held for part of the tick move part of the way;
+        // whatever doesn't add up to a whole pixel is carried over to the next tick
+        fighterDrift += (right - left) * NUDGE_DISTANCE * 4;
+        int step = (int) fighterDrift;
+        fighterDrift -= step;
+        if (step < 0) {
+            this.moveFighter(GalagaGame.Direction.WEST, -step);
         }
-        else if (right && !left) {
-            this.moveFighter(GalagaGame.Direction.EAST);
+        else if (step > 0) {
+            this.moveFighter(GalagaGame.Direction.EAST, step);
+        }
+        if (!fighter.isAlive()) {
+            fighterDrift = 0;
         }
 
-        // Fire enemy weapon every 40 frames
-        if ((enemyFireDelay == 0 || tick % enemyFireDelay == 0) && fighter.isAlive()){
-            fireEnemyWeapon();
+        // Fire an enemy volley when the level says so
+        if ((actions & WaveSchedule.FIRE) != 0 && fighter.isAlive()){
+            int volley = swarmShots >= 0 ? swarmShots : schedule.shots;
+            for (int i = 0; i < volley; i++) {
+                fireEnemyWeapon();
+            }
         }
 
         // If player died recently, tick off some time. If they died a while ago, consume a life and begin the game again
@@ -138,133 +292,477 @@ public class GalagaGame {
             if (playerLives > 0){
                 consumeLife();
             }
-        } else if ((enemyDispatchDelay == 0 || tick % enemyDispatchDelay == 0)
-                && getEnemyPathCount() <= maximumMovingEnemies){
-
-            // select an enemy to swoop
-            Random r = new Random();
-            int tempx =r.nextInt(enemyCols);
-            int tempy = r.nextInt(enemyRows);
-            while (!enemies[tempx][tempy].isAlive()){
-                if (getExtreme(Direction.NORTH) == -1){
-                    // new level!
-                    level++;
-                    setLevelParams(level);
-                    return;
-                }
-                tempx =r.nextInt(enemyCols);
-                tempy = r.nextInt(enemyRows);
-            }
-
-            // the anonymous object requires "effectively final" variables, so restate them
-            int x = tempx;
-            int y =tempy;
-
-            Point fighterPoint = fighter.getPos();
-
-            // determine whether or not we want to ram the fighter or tractor beam it .
-
-            if (r.nextInt(100) > 75){ // 25% ish
-                System.out.println("TRACTOR!");
-            }
-
-            // Send this enemy on a path. Define which it is, where it's going, and override its finish function
-            Enemy chosen = enemies[x][y];
-            chosen.setPath(new TravelingPath(chosen, new Point(fighterPoint.x, fighterPoint.y+100)){
-
-                /**
-                 * When the enemy has finished going past the fighter, restart it above the view to swoop back in.
-                 */
-                @Override
-                public void finished() {
-                    // above the view
-                    chosen.setLocation(chosen.getPos().x, -100);
-                    // a new path to swoop back in. when done, clear references to the path.
-                    chosen.setPath(new TravelingPath(chosen, getSingleClusterOffset(x, y)){
-
-                        /**
-                         * When done, clear the references.
-                         */
-                        @Override
-                        public void finished() {
-                            if (chosen.getPath() != null) {
-                                chosen.setPath(null);
-                                score+=5; // five points for surviving a pass-over
-                            }
-                        }
-                        /**
-                         * Allow for potential upper-level logic... and update the destination as the goal keeps moving
-                         */
-                        @Override
-                        public void move(){
-                            super.move();
-                            this.updateDestination(getSingleClusterOffset(x, y));
-                        }
-                    });
+        } else if ((actions & WaveSchedule.DISPATCH) != 0
+                && getEnemyPathCount() <= (swarmMaxMoving >= 0 ? swarmMaxMoving : schedule.maxMoving)){
+            dispatchEnemy();
+        }
+    }
+
+    /**
+     * Send the next idle enemy in the level's dispatch order swooping, or go to the next level if there are none left
+     */
+    private void dispatchEnemy(){
+        int[] cols = schedule.dispatchCols;
+        int[] rows = schedule.dispatchRows;
+        for (int n = 0; n < cols.length; n++) {
+            int x = cols[dispatchCursor];
+            int y = rows[dispatchCursor];
+            if (++dispatchCursor == cols.length) {
+                dispatchCursor = 0;
+            }
+            Enemy e = enemies[x][y];
+            if (e.isAlive() && e.getPath() == null) {
+                e.setPath(new DivePath(x, y));
+                return;
+            }
+        }
+        if (getExtreme(Direction.NORTH) == -1){
+            // new level!
+            advanceLevel();
+        }
+    }
+
+    /**
+     * Record every living actor into the back render snapshot and hand it over to the renderer.
+     * @param tick The tick the snapshot represents
+     */
+    private void publishSnapshot(int tick){
+        if (!snapshotPublishing){
+            return;
+        }
+        RenderSnapshot snapshot = snapshots.back();
+        snapshot.clear();
+        moveCamera();
+        if (viewWidth == levelSize.width && viewHeight == levelSize.height) {
+            // the whole level is in view: nothing to cull or scroll
+            for (Actor x : collLibrary) {
+                if (x.isAlive()) {
+                    x.recordSnapshot(snapshot);
                 }
-            });
+            }
+        } else {
+            recordView(snapshot);
         }
+        snapshot.setBullets(bullets, cameraX, cameraY, viewWidth, viewHeight);
+        particles.update();
+        snapshot.setParticles(particles, cameraX, cameraY, viewWidth, viewHeight, particleBudget);
+        snapshot.inputStamp = lastInputNanos;
+        snapshot.tick = tick;
+        snapshot.score = score;
+        snapshot.lives = playerLives;
+        snapshot.running = isRunning();
+        snapshots.publish();
     }
 
-    private void setLevelParams(int level){
+    /**
+     * Record what the camera sees, found through the library's grid so the cost follows what is on screen rather than
+     * the size of the level, shifted into the viewport. The HUD (score and spare lives) is pinned to the viewport.
+     */
+    private void recordView(RenderSnapshot snapshot){
+        visible.clear();
+        collLibrary.getGrid().query(cameraX, cameraY, viewWidth, viewHeight, visible);
+        for (Actor x : visible) {
+            if (x.isAlive() && x != scoreDisplay && !(x instanceof PlayerFighter && x != fighter)) {
+                x.recordSnapshot(snapshot);
+            }
+        }
+        snapshot.translate(0, -cameraX, -cameraY);
+
+        // spare lives sit along the bottom of the level; move them to the bottom of the view
+        int hud = snapshot.count;
+        for (PlayerFighter life : lifeCounter) {
+            if (life.isAlive() && life.libraryCount > 0) {
+                life.recordSnapshot(snapshot);
+            }
+        }
+        snapshot.translate(hud, 0, viewHeight - levelSize.height);
+        if (scoreDisplay.isAlive()) {
+            scoreDisplay.recordSnapshot(snapshot);
+        }
+    }
+
+    /**
+     * Blow an actor up: white-hot sparks and debris in its own colour, from its centre
+     * @param a The actor that died
+     * @param rgb Its colour, for the debris
+     * @param scale How big an explosion, 1 for an enemy
+     */
+    void explode(Actor a, int rgb, int scale){
+        if (!snapshotPublishing || particleBudget <= 0){
+            return;
+        }
+        float cx = a.getX() + a.getExtent() / 2f;
+        float cy = a.getY() + a.getExtent() / 2f;
+        particles.burst(cx, cy, ParticlePool.SPARK_COLOR, 12 * scale, 3f * scale, 16, false);
+        particles.burst(cx, cy, rgb, 10 * scale, 1.5f * scale, 40, true);
+    }
+
+    /**
+     * Limit how many explosion particles go into each render snapshot. Past the budget, every explosion is drawn
+     * thinner rather than some not at all.
+     * @param budget The most particles per frame, 0 for no explosions
+     */
+    void setParticleBudget(int budget){
+        this.particleBudget = budget;
+        if (budget <= 0){
+            particles.clear();
+        }
+    }
+
+    ParticlePool getParticles(){
+        return particles;
+    }
+
+    /**
+     * Show only part of the level: from now on the render snapshots hold a viewport-sized picture from a camera that
+     * follows the fighter, with only what the camera sees recorded. The simulation still covers the whole level.
+     * @param width The width of the viewport (no more than the level's)
+     * @param height The height of the viewport (no more than the level's)
+     */
+    void setViewport(int width, int height){
+        viewWidth = Math.max(1, Math.min(width, levelSize.width));
+        viewHeight = Math.max(1, Math.min(height, levelSize.height));
+        cameraX = cameraTargetX();
+        cameraY = cameraTargetY();
+    }
+
+    /**
+     * Where the view's upper left corner is in the level, as of the last published snapshot
+     */
+    Point getCamera(){
+        return new Point(cameraX, cameraY);
+    }
+
+    /**
+     * Ease the camera towards the fighter, closing a quarter of the gap each tick (rounded up, so it always arrives)
+     */
+    private void moveCamera(){
+        int dx = cameraTargetX() - cameraX;
+        int dy = cameraTargetY() - cameraY;
+        cameraX += (dx + Integer.signum(dx) * 3) / 4;
+        cameraY += (dy + Integer.signum(dy) * 3) / 4;
+    }
+
+    /**
+     * The camera position with the fighter centered horizontally, kept inside the level
+     */
+    private int cameraTargetX(){
+        int x = fighter.getX() + fighter.getExtent() / 2 - viewWidth / 2;
+        return Math.max(0, Math.min(levelSize.width - viewWidth, x));
+    }
+
+    /**
+     * The camera position with the fighter as far off the bottom of the view as it starts off the bottom of the level
+     */
+    private int cameraTargetY(){
+        int y = fighter.getY() + DEFAULT_ENEMY_SIZE + WINDOW_MARGIN - viewHeight;
+        return Math.max(0, Math.min(levelSize.height - viewHeight, y));
+    }
+
+    /**
+     * Get the render snapshots published by this game. Safe to read from any single rendering thread.
+     * @return The snapshot hand-off buffer
+     */
+    SnapshotBuffer getSnapshots(){
+        return snapshots;
+    }
+
+    /**
+     * Register something to be told about every finished tick, after the render snapshot is published.
+     * @param observer The observer to add
+     */
+    public void addTickObserver(TickObserver observer){
+        tickObservers.add(observer);
+    }
+
+    /**
+     * Stop telling an observer about finished ticks
+     * @param observer The observer to remove
+     */
+    public void removeTickObserver(TickObserver observer){
+        tickObservers.remove(observer);
+    }
+
+    /**
+     * Tell the observers the game was just put back to an earlier tick by restoreState (practice mode's rewind).
+     * restoreState doesn't do it itself, as that is also how replays and recordings set a game up.
+     * @param tick The tick the game is back at
+     */
+    void rewound(int tick){
+        rewoundTicks += lastTick - tick;
+        lastTick = tick;
+        for (TickObserver observer : tickObservers) {
+            observer.rewound(this, tick);
+        }
+    }
+
+    /**
+     * How many ticks rewinds have taken back so far. Added to a tick number it gives a count that keeps going up
+     * through rewinds, for observers whose readers expect ticks to only go forward.
+     */
+    int getRewoundTicks(){
+        return rewoundTicks;
+    }
+
+    /**
+     * Turn publishing render snapshots on or off. Headless users (training, benchmarks) never draw, so they can skip it.
+     * @param publishing Whether or not to publish a snapshot after every tick
+     */
+    void setSnapshotPublishing(boolean publishing){
+        this.snapshotPublishing = publishing;
+    }
+
+    /**
+     * Override the formation size and enemy aggression for stress testing, and rebuild the current level with them.
+     * The level size should be big enough for the formation: columns * 36 + 40 pixels wide, at least.
+     * @param rows Rows in the formation
+     * @param cols Columns in the formation
+     * @param maxMoving How many enemies may swoop at once
+     * @param fireDelay Ticks between enemy volleys (0 is every tick)
+     * @param shots Shots per volley
+     */
+    void configureSwarm(int rows, int cols, int maxMoving, int fireDelay, int shots){
+        swarmRows = rows;
+        swarmCols = cols;
+        swarmMaxMoving = maxMoving;
+        swarmFireDelay = fireDelay;
+        swarmShots = shots;
+        setLevelParams(level);
+    }
+
+    /**
+     * Split the movement and collision checks of big formations and volleys across a fork/join pool. The game plays
+     * out exactly as the serial one does for the same seed; see ParallelTick.
+     * @param pool The pool to use, or null to go back to the serial loops
+     */
+    void setParallelTicks(ForkJoinPool pool){
+        parallel = pool == null ? null : new ParallelTick(pool);
+    }
+
+    /**
+     * Switch enemies over to firing bullet patterns instead of single projectiles
+     * @param capacity The most pattern bullets that can be in flight at once
+     * @param density How many times the usual number of bullets per pattern to fire
+     */
+    void enableBulletPatterns(int capacity, int density){
+        bullets = new BulletField(capacity);
+        bulletDensity = density;
+    }
+
+    /**
+     * The pattern bullets in flight
+     * @return The bullet field, or null if bullet-pattern mode is off
+     */
+    BulletField getBullets(){
+        return bullets;
+    }
+
+    /**
+     * How long one part of the last tick took
+     * @param phase One of the PHASE_ constants
+     * @return The time in nanoseconds
+     */
+    long getPhaseNanos(int phase){
+        return phaseNanos[phase];
+    }
+
+    /**
+     * Copy out the input the last tick was given, in the form handleTick takes it
+     * @param out Where to write it
+     */
+    void copyLastInput(InputSample out){
+        out.fire = lastFire;
+        out.rightHeld = lastRight;
+        out.leftHeld = lastLeft;
+    }
 
-        TravelingPath.setTravelDistance(1.2 + (0.3)*level);
-        for(Projectile shot : (new ArrayList<>(shots))){
-            shot.dispose();
-            shots.remove(shot);
+    /**
+     * The settings a saved state doesn't carry (swarm overrides, volley size, bullet patterns, an invulnerable
+     * fighter), so that a fresh game can be set up the same way before restoring a state into it
+     * @return The settings, for applyConfig
+     */
+    int[] getConfig(){
+        return new int[] {swarmRows, swarmCols, swarmMaxMoving, swarmFireDelay, swarmShots,
+                bullets == null ? -1 : bullets.x.length, bulletDensity, fighter.canCollide() ? 1 : 0};
+    }
+
+    /**
+     * Take over the settings of another game, from its getConfig. Doesn't rebuild the level; restore a state next.
+     * @param config The settings
+     */
+    void applyConfig(int[] config){
+        swarmRows = config[0];
+        swarmCols = config[1];
+        swarmMaxMoving = config[2];
+        swarmFireDelay = config[3];
+        swarmShots = config[4];
+        if (config[5] >= 0) {
+            enableBulletPatterns(config[5], config[6]);
         }
+        fighter.setCanCollide(config[7] == 1);
+    }
+
+    /**
+     * Numbers about this game for outside monitoring
+     * @return The game's metrics
+     */
+    public GameMetrics getMetrics(){
+        return metrics;
+    }
+
+    Random getRandom(){
+        return random;
+    }
+
+    double getTravelDistance(){
+        return travelDistance;
+    }
+
+    Enemy[][] getEnemies(){
+        return enemies;
+    }
+
+    ArrayList<Projectile> getShots(){
+        return shots;
+    }
 
-        enemyRows = 6 + (level-1)/2;
-        maximumMovingEnemies = 2 + (level-1)*2;
+    PlayerFighter getFighter(){
+        return fighter;
+    }
 
-        enemyDispatchDelay = 40 - 5 * (level-1);
-        enemyFireDelay = (40 - 5 * (level - 1));
+    int getPlayerLives(){
+        return playerLives;
+    }
 
-        score += 30 * (level-1);
+    int getLevel(){
+        return level;
+    }
 
-        if (level % 4 == 0){
+    /**
+     * Skip straight to the next level, as if the current formation had just been cleared
+     */
+    void advanceLevel(){
+        level++;
+        score += waves.bonus(level);
+        if (waves.extraLife(level)){
             playerLives += 1;
         }
+        setLevelParams(level);
+    }
 
-        // erase old enemies
-        if (enemies != null){
-            for (Enemy[] enemy : enemies) {
-                for (Enemy anEnemy : enemy) {
-                    anEnemy.dispose();
-                }
-            }
+    WaveBook getWaves(){
+        return waves;
+    }
+
+    /**
+     * Play a different set of waves, rebuilding the current level from them. Meant for right after creating the game.
+     * @param waves The waves to play
+     */
+    void setWaves(WaveBook waves){
+        this.waves = waves;
+        setLevelParams(level);
+    }
+
+    private void setLevelParams(int level){
+
+        if (bullets != null){
+            bullets.clear();
         }
 
-        // clear life counter
-        if (lifeCounter != null){
-            for (PlayerFighter aLifeCounter : lifeCounter) {
-                aLifeCounter.dispose();
+        // compile the level from its wave (stress testing may override the formation and the volleys)
+        enemyRows = rowsForLevel(level);
+        enemyCols = colsForLevel(level);
+        waveSeed = random.nextLong();
+        compileSchedule();
+
+        // take the old shots, enemies and life markers out of the library in one pass (they get put back at the end
+        // if they're reused, as a whole new set would be)
+        collLibrary.removeIf(a -> a instanceof Projectile || a instanceof Enemy
+                || (a instanceof PlayerFighter && a != fighter));
+        shots.clear();
+
+        // Reuse the old enemies if the formation has the same shape, otherwise take the one built in the background (or
+        // build it now, if it isn't ready)
+        if (enemies != null && enemies.length == enemyCols && enemies[0].length == enemyRows){
+            for (Enemy[] column : enemies) {
+                for (Enemy anEnemy : column) {
+                    anEnemy.setAlive(true);
+                    anEnemy.setPath(null);
+                }
             }
+        } else {
+            Enemy[][] prebuilt = prebuilder.take(enemyCols, enemyRows);
+            enemies = prebuilt != null ? prebuilt
+                    : LevelPrebuilder.build(this, DEFAULT_ENEMY_SIZE, enemyCols, enemyRows);
         }
 
-        // Initialize sizes, create enemies
-        int usableWidth = (levelSize.width - WINDOW_MARGIN*2);
-        enemyCols = usableWidth / (DEFAULT_ENEMY_SIZE + ENEMY_SPACING);
-        this.enemies = new Enemy[enemyCols][enemyRows];
+        // Position enemies around the full grid, leaving the cells outside the wave's formation shape empty
+        int cell = DEFAULT_ENEMY_SIZE + ENEMY_SPACING;
+        enemyCorner = new Point((levelSize.width - (enemyCols * cell - ENEMY_SPACING))/2, WINDOW_MARGIN);
         for(int x = 0; x < enemyCols; x++){
             for(int y = 0; y < enemyRows; y++){
-                enemies[x][y] = new Enemy(this, DEFAULT_ENEMY_SIZE, new Point(0, 0));
+                Point p = getSingleClusterOffset(x, y);
+                enemies[x][y].place(p.x, p.y);
+                enemies[x][y].setAlive(schedule.formation[x][y]);
+                collLibrary.add(enemies[x][y]);
+            }
+        }
+
+        // Dummy fighter actors to represent remaining lives, reused unless the number of lives changed
+        if (lifeCounter == null || lifeCounter.length != playerLives){
+            lifeCounter = new PlayerFighter[playerLives];
+            for(int i = 0; i < playerLives; i++){
+                PlayerFighter pf = new PlayerFighter(this, DEFAULT_ENEMY_SIZE-6);
+                pf.place(pf.getSize().width * i, levelSize.height - pf.getSize().height);
+                pf.setCanCollide(false);
+                lifeCounter[i] = pf;
             }
+            collLibrary.removeAll(Arrays.asList(lifeCounter)); // added back below, with the reused ones
+        }
+        for (PlayerFighter aLifeCounter : lifeCounter) {
+            aLifeCounter.setAlive(true);
+            collLibrary.add(aLifeCounter);
         }
 
-        // Position enemies
-        Dimension clusterSize = getClusterSize();
-        enemyCorner = new Point((levelSize.width - clusterSize.width)/2, WINDOW_MARGIN);
-        setClusterPos(enemyCorner);
+        // get the next level's formation ready, if it will look different
+        if (rowsForLevel(level + 1) != enemyRows || colsForLevel(level + 1) != enemyCols){
+            prebuilder.prepare(colsForLevel(level + 1), rowsForLevel(level + 1));
+        }
+    }
+
+    /**
+     * Work out the current level's schedule from its wave and seed, starting at its beginning
+     */
+    private void compileSchedule(){
+        schedule = waves.compile(level, enemyCols, enemyRows, swarmFireDelay, levelSize, waveSeed);
+        travelDistance = schedule.travelDistance;
+        scheduleStep = 0;
+        dispatchCursor = 0;
+        fireCursor = 0;
+        pathCursor = 0;
+    }
+
+    /**
+     * How many rows of enemies a level has
+     * @param level The level number
+     * @return The number of rows
+     */
+    private int rowsForLevel(int level){
+        return swarmRows > 0 ? swarmRows : waves.rows(level);
+    }
 
-        // Create dummy fighter actors to represent remaining lives.
-        lifeCounter = new PlayerFighter[playerLives];
-        for(int i = 0; i < playerLives; i++){
-            PlayerFighter pf = new PlayerFighter(this, DEFAULT_ENEMY_SIZE-6);
-            pf.setLocation(pf.getSize().width * i, levelSize.height - pf.getSize().height);
-            pf.setCanCollide(false);
-            lifeCounter[i] = pf;
+    /**
+     * How many columns of enemies a level has
+     * @param level The level number
+     * @return The number of columns
+     */
+    private int colsForLevel(int level){
+        if (swarmCols > 0){
+            return swarmCols;
         }
+        int cols = waves.cols(level);
+        int usableWidth = (levelSize.width - WINDOW_MARGIN*2);
+        return cols > 0 ? cols : usableWidth / (DEFAULT_ENEMY_SIZE + ENEMY_SPACING);
     }
 
     /**
@@ -285,28 +783,90 @@ public class GalagaGame {
     }
 
     /**
-     * select a random enemy near the fighter to fire.
+     * Fire from the next column in the level's firing order that has anyone left in it
      */
     private void fireEnemyWeapon(){
-
-        // make sure to pick the bottom ones or they'll shoot each other.
-        Random r = new Random();
-        while (getExtreme(Direction.WEST) != -1) { // -1 means no one is alive
-            int col = r.nextInt(enemyCols);
+        int[] order = schedule.fireCols;
+        for (int n = 0; n < order.length; n++) {
+            int col = order[fireCursor];
+            if (++fireCursor == order.length) {
+                fireCursor = 0;
+            }
+            // make sure to pick the bottom ones or they'll shoot each other.
             for (int y = enemyRows - 1; y >= 0; y--) {
                 if (enemies[col][y].isAlive()) {
+                    fireFrom(enemies[col][y]);
+                    return;
+                }
+            }
+        }
+    }
 
-                    // found a suitable enemy
-                    Enemy e = enemies[col][y];
-                    Point p = e.getPos();
+    /**
+     * Fire the level's pattern (or a bullet pattern, in bullet-pattern mode) from just below an enemy
+     */
+    private void fireFrom(Enemy e){
+        Point p = e.getPos();
+        Dimension dim = e.getSize();
+        if (bullets != null) {
+            fireBulletPattern(p.x + dim.width / 2f, p.y + dim.height + 4);
+            return;
+        }
+        int x = p.x + dim.width / 2;
+        int y = p.y + dim.height + 4;
+        switch (schedule.firePattern) {
+            case WaveBook.PATTERN_SPREAD:
+                // three shots fanning out, far enough apart not to hit each other
+                for (int i = -1; i <= 1; i++) {
+                    shots.add(new Projectile(this, x + i * 4, y, i * 2, PROJECTILE_TICK_DISTANCE));
+                }
+                break;
+            case WaveBook.PATTERN_AIMED:
+                Point target = fighter.getPos();
+                int drift = (target.x + fighter.getSize().width / 2 - x) * PROJECTILE_TICK_DISTANCE
+                        / Math.max(PROJECTILE_TICK_DISTANCE, target.y - y);
+                shots.add(new Projectile(this, x, y, Math.max(-4, Math.min(4, drift)), PROJECTILE_TICK_DISTANCE));
+                break;
+            default:
+                shots.add(new Projectile(this, x, y, 0, PROJECTILE_TICK_DISTANCE));
+                break;
+        }
+    }
 
-                    // "fire" (create) the projectile
-                    Dimension dim = e.getSize();
-                    Projectile proj = new Projectile(this, p.x + dim.width / 2, p.y + dim.height + 4, 0, PROJECTILE_TICK_DISTANCE);
+    /**
+     * Fire one randomly chosen bullet pattern (a downward fan, a ring, or a burst aimed at the fighter) from a point
+     * @param x The x coordinate to fire from
+     * @param y The y coordinate to fire from
+     */
+    private void fireBulletPattern(float x, float y){
+        int count = bulletDensity * (4 + level * 2);
+        switch (random.nextInt(3)) {
+            case 0:
+                bullets.spawnSpread(x, y, Math.PI / 2, Math.PI / 3, count, BULLET_SPEED);
+                break;
+            case 1:
+                bullets.spawnRing(x, y, count * 2, BULLET_SPEED * 0.75f, random.nextDouble() * Math.PI);
+                break;
+            default:
+                Point target = fighter.getPos();
+                bullets.spawnAimed(x, y, target.x + fighter.getSize().width / 2f, target.y,
+                        Math.max(3, count / 2), BULLET_SPEED * 1.25f);
+                break;
+        }
+    }
 
-                    shots.add(proj);
-                    return;
-                }
+    /**
+     * Move every pattern bullet, drop the ones that left the level, and see if any hit the fighter
+     */
+    private void moveBullets(){
+        bullets.update(levelSize.width, levelSize.height);
+        if (fighter.isAlive() && fighter.canCollide()){
+            Point p = fighter.getPos();
+            Dimension d = fighter.getSize();
+            if (bullets.collideTriangle(p.x, p.y, d.width, d.height) > 0){
+                fighter.setAlive(false);
+                explode(fighter, PlayerFighter.COLOR, 2);
+                deadPlayerTimeout = DEFAULT_PLAYER_DIED_TIMEOUT;
             }
         }
     }
@@ -322,19 +882,7 @@ public class GalagaGame {
         // Create a new projectile, position it properly, add it to animation collection
         Point p = fighter.getPos();
         Dimension dim = fighter.getSize();
-        Projectile proj = new Projectile(this,p.x + dim.width / 2, p.y - Projectile.height - 4, 0, -PROJECTILE_TICK_DISTANCE){
-            @Override
-            public void handleCollision(Actor other){
-                super.handleCollision(other);
-                // handle scoring
-                if (other instanceof Enemy){
-                    score += 20;
-                } else if (other instanceof Projectile){
-                    score += 10;
-                }
-            }
-        };
-        shots.add(proj);
+        shots.add(new FighterShot(p.x + dim.width / 2, p.y - Projectile.height - 4, false));
     }
 
     /**
@@ -343,8 +891,19 @@ public class GalagaGame {
     private void moveShots(){
         // remove if necessary, but keep in mind we can't operate on a list that's being operated on
         ArrayList<Projectile> toRemove = new ArrayList<>();
+        if (parallel != null && shots.size() >= ParallelTick.MIN_MOVERS){
+            parallel.begin();
+            for(Projectile x : shots){
+                Point p = x.getPos();
+                parallel.add(x, p.x + x.getMomentumX(), p.y + x.getMomentumY());
+            }
+            parallel.run(collLibrary);
+        } else {
+            for(Projectile x : shots){
+                x.move();
+            }
+        }
         for(Projectile x : shots){
-            x.move();
             Point p = x.getPos();
             if (p.x < 0 || p.x > levelSize.width || p.y < 0 || p.y > levelSize.height){
                 toRemove.add(x);
@@ -357,19 +916,20 @@ public class GalagaGame {
     }
 
     /**
-     * Move the player's fighter a given direction (East or West)
+     * Move the player's fighter a given distance in a given direction (East or West)
      * @param dir Move in a given direction, limited to EAST or WEST
+     * @param distance How many pixels to move
      */
-    private void moveFighter(Direction dir){
+    private void moveFighter(Direction dir, int distance){
         // do not move a dead fighter
         if (fighter.isAlive()) {
             Point pos = fighter.getPos();
 
-            // Do not move outside the window margins, move based on the base nudge distance
+            // Do not move outside the window margins
             if (dir == Direction.EAST && pos.x + fighter.getSize().width < levelSize.width - WINDOW_MARGIN) {
-                fighter.setLocation(pos.x + NUDGE_DISTANCE * 4, pos.y);
+                fighter.setLocation(pos.x + distance, pos.y);
             } else if (dir == Direction.WEST && pos.x > WINDOW_MARGIN) {
-                fighter.setLocation(pos.x - NUDGE_DISTANCE * 4, pos.y);
+                fighter.setLocation(pos.x - distance, pos.y);
             }
         }
     }
@@ -399,7 +959,7 @@ public class GalagaGame {
      * (Copy) Accessor for the levelSize variable
      * @return A copy of the levelSize information.
      */
-    public static Dimension getLevelSize(){
+    public Dimension getLevelSize(){
         return new Dimension(levelSize);
     }
 
@@ -425,6 +985,10 @@ public class GalagaGame {
      */
     private void setClusterPos(Point pos){
         enemyCorner = pos;
+        if (parallel != null && enemyCols * enemyRows >= ParallelTick.MIN_MOVERS){
+            setClusterPosParallel();
+            return;
+        }
 
         for(int x = 0; x < enemyCols; x++){
             for(int y = 0; y < enemyRows; y++){
@@ -446,6 +1010,27 @@ public class GalagaGame {
         }
     }
 
+    /**
+     * The same step as setClusterPos, with the moves worked out on the pool
+     */
+    private void setClusterPosParallel(){
+        parallel.begin();
+        for(int x = 0; x < enemyCols; x++){
+            for(int y = 0; y < enemyRows; y++){
+                Enemy e = enemies[x][y];
+                if (e.getPath() == null) {
+                    Point p = getSingleClusterOffset(x, y);
+                    parallel.add(e, p.x, p.y);
+                } else if (e.isAlive()) {
+                    parallel.addTraveler(e, e.getPath());
+                } else {
+                    e.setPath(null);
+                }
+            }
+        }
+        parallel.run(collLibrary);
+    }
+
     private int getEnemyPathCount(){
         int count = 0;
         for (Enemy[] enemy : enemies) {
@@ -500,19 +1085,6 @@ public class GalagaGame {
         return -1;
     }
 
-    /**
-     * Calculate the true size of the cluster, based on living enemies
-     * @return The dimensions of the cluster
-     */
-    private Dimension getClusterSize(){
-        Dimension enemySize = enemies[0][0].getSize();
-        int enemyWidth = Math.abs(getExtreme(Direction.WEST) - getExtreme(Direction.EAST))
-                * (enemySize.width+ENEMY_SPACING)-ENEMY_SPACING;
-        int enemyHeight = Math.abs(getExtreme(Direction.SOUTH) - getExtreme(Direction.NORTH))
-                * (enemySize.height+ENEMY_SPACING) - ENEMY_SPACING;
-        return new Dimension(enemyWidth, enemyHeight);
-    }
-
     /**
      * Loop through the row to determine if any enemies are alive
      * @param row The row index to check
@@ -557,6 +1129,345 @@ public class GalagaGame {
         return score;
     }
 
+    /**
+     * Write everything needed to put the game back exactly as it is now. Allocates nothing once the state has grown to
+     * the game's size, so it can run every tick.
+     * @param state The state to overwrite
+     */
+    void saveState(SavedState state){
+        state.clear();
+        state.put(level);
+        state.put(score);
+        state.put(playerLives);
+        state.put(deadPlayerTimeout);
+        state.put(lastFighterShot);
+        state.putDouble(fighterDrift);
+        state.putDouble(travelDistance);
+        state.putLong(random.getState());
+        state.put(enemyRows);
+        state.put(enemyCols);
+        state.putLong(waveSeed);
+        state.put(scheduleStep);
+        state.put(dispatchCursor);
+        state.put(fireCursor);
+        state.put(pathCursor);
+        state.put(clusterDir.ordinal());
+        state.put(enemyCorner.x);
+        state.put(enemyCorner.y);
+        saveActor(state, fighter);
+
+        state.put(lifeCounter.length);
+        for (PlayerFighter life : lifeCounter) {
+            state.put(life.isAlive() ? 1 : 0);
+        }
+
+        for (int x = 0; x < enemyCols; x++) {
+            for (int y = 0; y < enemyRows; y++) {
+                Enemy e = enemies[x][y];
+                saveActor(state, e);
+                TravelingPath path = e.getPath();
+                if (path == null) {
+                    state.put(0);
+                    continue;
+                }
+                state.put(path instanceof DivePath ? DIVE_PATH : RETURN_PATH);
+                state.putDouble(path.getTravelDistance());
+                state.putDouble(path.getProgress());
+                for (int c = 0; c < 3; c++) {
+                    state.put(path.getControlX(c));
+                    state.put(path.getControlY(c));
+                }
+            }
+        }
+
+        state.put(shots.size());
+        for (Projectile shot : shots) {
+            state.put(shot instanceof FighterShot ? 1 : 0);
+            saveActor(state, shot);
+            state.put(shot.getMomentumX());
+            state.put(shot.getMomentumY());
+        }
+
+        if (bullets == null) {
+            state.put(-1);
+        } else {
+            state.put(bullets.count);
+            for (int i = 0; i < bullets.count; i++) {
+                state.putFloat(bullets.x[i]);
+                state.putFloat(bullets.y[i]);
+                state.putFloat(bullets.vx[i]);
+                state.putFloat(bullets.vy[i]);
+            }
+        }
+    }
+
+    private void saveActor(SavedState state, Actor actor){
+        Point p = actor.getPos();
+        state.put(p.x);
+        state.put(p.y);
+        state.put(actor.isAlive() ? 1 : 0);
+    }
+
+    /**
+     * Put the game back exactly as it was when the state was saved. Existing enemies and life markers are reused if the
+     * formation has the same shape; the collision library is rebuilt in the order the game itself builds it, so the
+     * game plays on exactly as it did the first time.
+     * @param state A state written by saveState of this game
+     */
+    void restoreState(SavedState state){
+        state.rewind();
+        particles.clear(); // the explosions belong to the moment we're leaving
+        level = state.get();
+        score = state.get();
+        playerLives = state.get();
+        deadPlayerTimeout = state.get();
+        lastFighterShot = state.get();
+        fighterDrift = state.getDouble();
+        travelDistance = state.getDouble();
+        random.setState(state.getLong());
+        int rows = state.get();
+        int cols = state.get();
+        long seed = state.getLong();
+        int step = state.get();
+        int dispatchAt = state.get();
+        int fireAt = state.get();
+        int pathAt = state.get();
+        clusterDir = Direction.values()[state.get()];
+        int cornerX = state.get();
+        enemyCorner = new Point(cornerX, state.get());
+
+        collLibrary.clear();
+        collLibrary.add(fighter);
+        restoreActor(state, fighter);
+
+        int lives = state.get();
+        if (lifeCounter.length != lives) {
+            lifeCounter = new PlayerFighter[lives];
+            for (int i = 0; i < lives; i++) {
+                PlayerFighter pf = new PlayerFighter(this, DEFAULT_ENEMY_SIZE-6);
+                pf.place(pf.getSize().width * i, levelSize.height - pf.getSize().height);
+                pf.setCanCollide(false);
+                lifeCounter[i] = pf;
+            }
+            collLibrary.removeAll(Arrays.asList(lifeCounter)); // re-added below, after the enemies
+        }
+        for (PlayerFighter life : lifeCounter) {
+            life.setAlive(state.get() == 1);
+        }
+
+        boolean sameFormation = cols == enemyCols && rows == enemyRows;
+        enemyRows = rows;
+        enemyCols = cols;
+        if (!sameFormation || seed != waveSeed || schedule == null) {
+            waveSeed = seed;
+            double restoredDistance = travelDistance;
+            compileSchedule();
+            travelDistance = restoredDistance;
+        }
+        scheduleStep = step;
+        dispatchCursor = dispatchAt;
+        fireCursor = fireAt;
+        pathCursor = pathAt;
+        if (!sameFormation) {
+            enemies = new Enemy[enemyCols][enemyRows];
+        }
+        int[] controls = new int[6];
+        for (int x = 0; x < enemyCols; x++) {
+            for (int y = 0; y < enemyRows; y++) {
+                if (sameFormation) {
+                    collLibrary.add(enemies[x][y]);
+                } else {
+                    enemies[x][y] = new Enemy(this, DEFAULT_ENEMY_SIZE, new Point(0, 0));
+                }
+                Enemy e = enemies[x][y];
+                restoreActor(state, e);
+                int pathKind = state.get();
+                if (pathKind == 0) {
+                    e.setPath(null);
+                    continue;
+                }
+                double distance = state.getDouble();
+                double progress = state.getDouble();
+                for (int c = 0; c < controls.length; c++) {
+                    controls[c] = state.get();
+                }
+                e.setPath(pathKind == DIVE_PATH ? new DivePath(x, y, distance, progress, controls)
+                        : new ReturnPath(x, y, distance, progress, controls));
+            }
+        }
+
+        collLibrary.addAll(Arrays.asList(lifeCounter));
+        collLibrary.add(scoreDisplay);
+
+        shots.clear();
+        int shotCount = state.get();
+        for (int i = 0; i < shotCount; i++) {
+            boolean fromFighter = state.get() == 1;
+            int x = state.get();
+            int y = state.get();
+            boolean alive = state.get() == 1;
+            int momentumX = state.get();
+            int momentumY = state.get();
+            Projectile shot = fromFighter ? new FighterShot(x, y, true)
+                    : new Projectile(this, x, y, momentumX, momentumY, true);
+            shot.setAlive(alive);
+            shots.add(shot);
+        }
+
+        int bulletCount = state.get();
+        if (bulletCount >= 0 && bullets != null) {
+            bullets.clear();
+            for (int i = 0; i < bulletCount; i++) {
+                bullets.spawn(state.getFloat(), state.getFloat(), state.getFloat(), state.getFloat());
+            }
+        }
+    }
+
+    private void restoreActor(SavedState state, Actor actor){
+        int x = state.get();
+        int y = state.get();
+        actor.place(x, y);
+        actor.setAlive(state.get() == 1);
+    }
+
+    /**
+     * Take the next entry of the level's path table
+     * @return The entry's index
+     */
+    private int nextPath(){
+        int entry = pathCursor;
+        if (++pathCursor == schedule.pathFamily.length) {
+            pathCursor = 0;
+        }
+        return entry;
+    }
+
+    private Point tableInfluence(int entry){
+        return new Point(schedule.pathX[entry], schedule.pathY[entry]);
+    }
+
+    /**
+     * The bezier influence point of a swoop from the path table
+     */
+    private Point swoopInfluence(int entry){
+        Point target = fighter.getPos();
+        switch (schedule.pathFamily[entry]) {
+            case WaveBook.FAMILY_LOOP:
+                // out wide on the far side of the fighter, then back in under it
+                return new Point(levelSize.width - target.x, target.y);
+            case WaveBook.FAMILY_STRAFE:
+                // across the level just above the fighter
+                return new Point(schedule.pathX[entry], target.y - 40);
+            default:
+                return tableInfluence(entry);
+        }
+    }
+
+    /**
+     * Where a swoop from the path table ends: past the fighter, or for a strafe, past it on the opposite side
+     */
+    private Point swoopDestination(int column, int row, int entry){
+        Point target = fighter.getPos();
+        if (schedule.pathFamily[entry] == WaveBook.FAMILY_STRAFE) {
+            return new Point(levelSize.width - enemies[column][row].getPos().x, target.y + 100);
+        }
+        return new Point(target.x, target.y + 100);
+    }
+
+    /**
+     * An enemy's swoop past the fighter. When it's gone past, the enemy restarts above the view to swoop back in.
+     */
+    private class DivePath extends TravelingPath {
+        private final int column;
+        private final int row;
+
+        DivePath(int column, int row){
+            this(column, row, nextPath());
+        }
+
+        private DivePath(int column, int row, int entry){
+            super(enemies[column][row], swoopInfluence(entry), swoopDestination(column, row, entry));
+            this.column = column;
+            this.row = row;
+        }
+
+        DivePath(int column, int row, double travelDistance, double position, int[] controls){
+            super(enemies[column][row], travelDistance, position, controls);
+            this.column = column;
+            this.row = row;
+        }
+
+        @Override
+        public void finished() {
+            Enemy chosen = enemies[column][row];
+            // above the view
+            chosen.setLocation(chosen.getPos().x, -100);
+            // a new path to swoop back in. when done, clear references to the path.
+            chosen.setPath(new ReturnPath(column, row));
+        }
+    }
+
+    /**
+     * An enemy's way back from above the view to its place in the cluster
+     */
+    private class ReturnPath extends TravelingPath {
+        private final int column;
+        private final int row;
+
+        ReturnPath(int column, int row){
+            super(enemies[column][row], tableInfluence(nextPath()), getSingleClusterOffset(column, row));
+            this.column = column;
+            this.row = row;
+        }
+
+        ReturnPath(int column, int row, double travelDistance, double position, int[] controls){
+            super(enemies[column][row], travelDistance, position, controls);
+            this.column = column;
+            this.row = row;
+        }
+
+        /**
+         * When done, clear the references.
+         */
+        @Override
+        public void finished() {
+            Enemy chosen = enemies[column][row];
+            if (chosen.getPath() != null) {
+                chosen.setPath(null);
+                score+=5; // five points for surviving a pass-over
+            }
+        }
+
+        /**
+         * Allow for potential upper-level logic... and update the destination as the goal keeps moving
+         */
+        @Override
+        void stepped(){
+            this.updateDestination(getSingleClusterOffset(column, row));
+        }
+    }
+
+    /**
+     * A shot fired by the player: scores for whatever it hits
+     */
+    private class FighterShot extends Projectile {
+
+        FighterShot(int x, int y, boolean quiet){
+            super(GalagaGame.this, x, y, 0, -PROJECTILE_TICK_DISTANCE, quiet);
+        }
+
+        @Override
+        public void handleCollision(Actor other){
+            super.handleCollision(other);
+            // handle scoring
+            if (other instanceof Enemy){
+                score += 20;
+            } else if (other instanceof Projectile){
+                score += 10;
+            }
+        }
+    }
+
     /**
      * A simple enum to dictate screen directions
      */
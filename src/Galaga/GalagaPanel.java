@@ -2,6 +2,7 @@ package Galaga;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.image.BufferedImage;
 
 /**
  * Draw the galaga game -- the middle-man between Game and Window.
@@ -14,6 +15,30 @@ class GalagaPanel extends JPanel {
     private GalagaGame game;
     private GalagaWindow.WindowStatus status = GalagaWindow.WindowStatus.ENTRY;
     private HighScore highScoreRef;
+    private InputLatencyProbe latencyProbe;
+    private FlightRecorder flightRecorder;
+    private boolean paused = false;
+    private RenderQuality quality; // null: always draw plain primitives at full resolution
+    private VideoRecorder video;
+    private BufferedImage videoFrame; // game frames are drawn here first while recording, then copied to the panel
+
+    private static final int BULLET_COLOR = 0xFF66CC;
+    private static final Font SCORE_FONT = new Font("Arial", Font.PLAIN, 16);
+    private static final Font TITLE_FONT = new Font("Arial", Font.BOLD, 32);
+    private static final Font CREDIT_FONT = new Font("Arial", Font.ITALIC, 12);
+    private static final Color PAUSE_SHADE = new Color(0, 0, 0, 160);
+    private final int[] triangleX = new int[3];
+    private final int[] triangleY = new int[3];
+    private final int[] colorKeys = new int[16];
+    private final Color[] colorValues = new Color[16];
+    private int colorCount = 0;
+    private final long[] spriteKeys = new long[32];
+    private final Image[] spriteImages = new Image[32];
+    private int spriteCount = 0;
+    private BufferedImage lowRes; // the reduced-resolution frame, scaled up onto the panel
+    private BufferedImage hud; // the score, redrawn only every few frames on lower tiers
+    private int hudScore = -1;
+    private int frameNumber = 0;
 
     /**
      * Create the panel, tying it to the galaga instance.
@@ -32,6 +57,42 @@ class GalagaPanel extends JPanel {
         this.game = gmRef;
     }
 
+    void setLatencyProbe(InputLatencyProbe probe) {
+        this.latencyProbe = probe;
+    }
+
+    void setFlightRecorder(FlightRecorder recorder) {
+        this.flightRecorder = recorder;
+    }
+
+    /**
+     * Record the game frames this panel draws
+     * @param recorder The recorder, or null to stop
+     */
+    void setVideoRecorder(VideoRecorder recorder) {
+        this.video = recorder;
+        if (recorder != null && (videoFrame == null || videoFrame.getWidth() != recorder.getWidth()
+                || videoFrame.getHeight() != recorder.getHeight())) {
+            videoFrame = new BufferedImage(recorder.getWidth(), recorder.getHeight(), BufferedImage.TYPE_INT_RGB);
+        }
+    }
+
+    /**
+     * Let a controller pick the drawing quality from frame times
+     * @param quality The controller, or null to always draw the plain way
+     */
+    void setRenderQuality(RenderQuality quality) {
+        this.quality = quality;
+    }
+
+    /**
+     * Freeze the game view under a pause overlay, or go back to the live frames
+     * @param paused Whether or not the game is paused
+     */
+    void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
     public void setStatus(GalagaWindow.WindowStatus inStat) {
         this.status = inStat;
     }
@@ -53,33 +114,248 @@ class GalagaPanel extends JPanel {
         switch (this.status) {
 
             case GAME:
-                for (Actor x : game.collLibrary) {
-                    if (x.isAlive()) {
-                        x.drawActor(g);
-                    }
+                RenderSnapshot snapshot = game.getSnapshots().latest();
+                long before = System.nanoTime();
+                Graphics target = g;
+                if (video != null && !paused) {
+                    target = videoFrame.createGraphics();
+                    target.setColor(Color.BLACK);
+                    target.fillRect(0, 0, videoFrame.getWidth(), videoFrame.getHeight());
+                }
+                if (quality == null) {
+                    drawSnapshot(snapshot, target);
+                } else {
+                    drawAdaptive(snapshot, (Graphics2D) target);
+                }
+                if (target != g) {
+                    target.dispose();
+                    g.drawImage(videoFrame, 0, 0, null);
+                    video.offer(videoFrame, snapshot.tick);
+                }
+                if (quality != null && !paused) {
+                    quality.frameRendered(System.nanoTime() - before);
+                }
+                if (flightRecorder != null && !paused) {
+                    flightRecorder.frameRendered(System.nanoTime() - before);
+                }
+                if (paused) {
+                    g.setColor(PAUSE_SHADE);
+                    g.fillRect(0, 0, getWidth(), getHeight());
+                    g.setColor(Color.GREEN);
+                    g.setFont(TITLE_FONT);
+                    drawCenteredString("PAUSED", getHeight() / 2, g);
+                    g.setFont(CREDIT_FONT);
+                    drawCenteredString("Press P to continue", getHeight() / 2 + 24, g);
+                } else if (latencyProbe != null) {
+                    latencyProbe.framePainted(snapshot.inputStamp, System.nanoTime());
                 }
                 break;
 
             case ENTRY:
                 g.setColor(Color.GREEN);
-                Font fontLarge = new Font("Arial", Font.BOLD, 32);
-                Font fontSmall = new Font("Arial", Font.ITALIC, 12);
-                g.setFont(fontLarge);
+                g.setFont(TITLE_FONT);
                 drawCenteredString("GALAGA", 60, g);
-                g.setFont(fontSmall);
+                g.setFont(CREDIT_FONT);
                 drawCenteredString("or something like it", 80, g);
                 drawCenteredString("Created by Christian Schleif", 560, g);
-                g.setFont(fontLarge);
+                g.setFont(TITLE_FONT);
                 drawCenteredString("Press ENTER to start ", 530, g);
                 break;
 
             case HIGHSCORE:
-                highScoreRef.draw(g);
+                highScoreRef.draw(g, getSize());
                 break;
         }
 
     }
 
+    /**
+     * Draw a snapshot the way the quality controller's current tier says to
+     *
+     * @param snapshot The snapshot to draw
+     * @param g The panel's graphics
+     */
+    private void drawAdaptive(RenderSnapshot snapshot, Graphics2D g) {
+        frameNumber++;
+        double scale = quality.getScale();
+        if (scale >= 1) {
+            applyHints(g);
+            drawSnapshot(snapshot, g);
+            return;
+        }
+
+        // draw small, then blit it up to the panel's size
+        int w = Math.max(1, (int) (getWidth() * scale));
+        int h = Math.max(1, (int) (getHeight() * scale));
+        if (lowRes == null || lowRes.getWidth() != w || lowRes.getHeight() != h) {
+            lowRes = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        }
+        Graphics2D small = lowRes.createGraphics();
+        small.setColor(Color.BLACK);
+        small.fillRect(0, 0, w, h);
+        small.scale(scale, scale);
+        applyHints(small);
+        drawSnapshot(snapshot, small);
+        small.dispose();
+        g.drawImage(lowRes, 0, 0, getWidth(), getHeight(), null);
+    }
+
+    private void applyHints(Graphics2D g) {
+        boolean nice = quality.antialias();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                nice ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                nice ? RenderingHints.VALUE_TEXT_ANTIALIAS_ON : RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING,
+                nice ? RenderingHints.VALUE_RENDER_QUALITY : RenderingHints.VALUE_RENDER_SPEED);
+    }
+
+    /**
+     * Draw every shape recorded in a render snapshot. Never touches the live actors, so the simulation is free to run
+     * its next tick at the same time.
+     *
+     * @param snapshot The snapshot to draw
+     * @param g The graphics to draw with
+     */
+    void drawSnapshot(RenderSnapshot snapshot, Graphics g) {
+        boolean sprites = quality != null && quality.useSprites();
+        int hudInterval = quality == null ? 1 : quality.getHudInterval();
+        for (int i = 0; i < snapshot.count; i++) {
+            int x = snapshot.x[i];
+            int y = snapshot.y[i];
+            int w = snapshot.width[i];
+            int h = snapshot.height[i];
+            int shape = snapshot.shape[i];
+            if (sprites && (shape == RenderSnapshot.SHAPE_OVAL || shape == RenderSnapshot.SHAPE_TRIANGLE)) {
+                g.drawImage(getSprite(shape, snapshot.color[i], w, h), x, y, null);
+                continue;
+            }
+            if (hudInterval > 1 && shape == RenderSnapshot.SHAPE_SCORE) {
+                drawHud(snapshot.score, hudInterval, snapshot.color[i], x, y, g);
+                continue;
+            }
+            g.setColor(getColor(snapshot.color[i]));
+            switch (shape) {
+                case RenderSnapshot.SHAPE_OVAL:
+                    g.fillOval(x, y, w, h);
+                    break;
+                case RenderSnapshot.SHAPE_TRIANGLE:
+                    triangleX[0] = x + w / 2;
+                    triangleX[1] = x + w;
+                    triangleX[2] = x;
+                    triangleY[0] = y;
+                    triangleY[1] = y + h;
+                    triangleY[2] = y + h;
+                    g.fillPolygon(triangleX, triangleY, 3);
+                    break;
+                case RenderSnapshot.SHAPE_RECT:
+                    g.fillRect(x, y, w, h);
+                    break;
+                case RenderSnapshot.SHAPE_SCORE:
+                    g.setFont(SCORE_FONT);
+                    g.drawString("Score: " + snapshot.score, x, y);
+                    break;
+            }
+        }
+
+        if (snapshot.bulletCount > 0) {
+            g.setColor(getColor(BULLET_COLOR));
+            int r = BulletField.RADIUS;
+            for (int i = 0; i < snapshot.bulletCount; i++) {
+                g.fillRect((int) snapshot.bulletX[i] - r, (int) snapshot.bulletY[i] - r, r * 2, r * 2);
+            }
+        }
+
+        // particles of one burst sit together with one colour, so the colour only changes between bursts
+        int stride = quality == null ? 1 : quality.getParticleStride();
+        int lastColor = -1;
+        for (int i = 0; i < snapshot.particleCount; i += stride) {
+            if (snapshot.particleColor[i] != lastColor) {
+                lastColor = snapshot.particleColor[i];
+                g.setColor(getColor(lastColor));
+            }
+            int size = snapshot.particleSize[i];
+            g.fillRect((int) snapshot.particleX[i], (int) snapshot.particleY[i], size, size);
+        }
+    }
+
+    /**
+     * Look up (or render, the first time) the antialiased image of an oval or triangle
+     *
+     * @param shape RenderSnapshot.SHAPE_OVAL or SHAPE_TRIANGLE
+     * @param rgb The colour as 0xRRGGBB
+     * @return The sprite, w by h
+     */
+    private Image getSprite(int shape, int rgb, int w, int h) {
+        long key = (long) shape << 56 | (long) rgb << 32 | (long) (w & 0xFFFF) << 16 | (h & 0xFFFF);
+        for (int i = 0; i < spriteCount; i++) {
+            if (spriteKeys[i] == key) {
+                return spriteImages[i];
+            }
+        }
+        BufferedImage sprite = new BufferedImage(Math.max(1, w + 1), Math.max(1, h + 1), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D sg = sprite.createGraphics();
+        sg.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        sg.setColor(getColor(rgb));
+        if (shape == RenderSnapshot.SHAPE_OVAL) {
+            sg.fillOval(0, 0, w, h);
+        } else {
+            sg.fillPolygon(new int[]{w / 2, w, 0}, new int[]{0, h, h}, 3);
+        }
+        sg.dispose();
+        if (spriteCount < spriteKeys.length) {
+            spriteKeys[spriteCount] = key;
+            spriteImages[spriteCount] = sprite;
+            spriteCount++;
+        }
+        return sprite;
+    }
+
+    /**
+     * Draw the score from an image that's only brought up to date every few frames
+     *
+     * @param score The current score
+     * @param interval Refresh the image every this many frames
+     */
+    private void drawHud(int score, int interval, int rgb, int x, int y, Graphics g) {
+        if (hud == null || (score != hudScore && frameNumber % interval == 0)) {
+            if (hud == null) {
+                hud = new BufferedImage(200, 24, BufferedImage.TYPE_INT_ARGB);
+            }
+            Graphics2D hg = hud.createGraphics();
+            hg.setComposite(AlphaComposite.Clear);
+            hg.fillRect(0, 0, hud.getWidth(), hud.getHeight());
+            hg.setComposite(AlphaComposite.SrcOver);
+            hg.setColor(getColor(rgb));
+            hg.setFont(SCORE_FONT);
+            hg.drawString("Score: " + score, 0, 18);
+            hg.dispose();
+            hudScore = score;
+        }
+        g.drawImage(hud, x, y - 18, null);
+    }
+
+    /**
+     * Look up (or create, the first time) the colour object for a packed RGB value
+     *
+     * @param rgb The colour as 0xRRGGBB
+     * @return The matching colour
+     */
+    private Color getColor(int rgb) {
+        for (int i = 0; i < colorCount; i++) {
+            if (colorKeys[i] == rgb) {
+                return colorValues[i];
+            }
+        }
+        Color c = new Color(rgb);
+        if (colorCount < colorKeys.length) {
+            colorKeys[colorCount] = rgb;
+            colorValues[colorCount] = c;
+            colorCount++;
+        }
+        return c;
+    }
+
     private GalagaWindow getParentWindow(Container element) {
         if (!(element.getParent() instanceof GalagaWindow)) {
             return getParentWindow(element.getParent());
@@ -4,6 +4,13 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Window element used to display the galaga 'console'
@@ -15,20 +22,129 @@ class GalagaWindow extends JFrame{
     public static void main(String[] args){
         GalagaWindow gw = new GalagaWindow();
     }
+    private static final int REWIND_TICKS = 43; // about a second of ticks
+    private static final int TICK_MILLIS = 23;
+    private static final int RECORD_KEYFRAME_TICKS = 2 * REWIND_TICKS; // a keyframe every two seconds or so
+    private static final int VIDEO_POOL = 8; // frames of footage that may wait for the encoder
+
     private GalagaPanel panel;
     private GalagaGame game;
-    private boolean leftDown = false;
-    private boolean rightDown = false;
-    private boolean spaceDown = false;
+    private final InputQueue input = new InputQueue(256);
+    private final InputSample inputSample = new InputSample(); // only touched on the simulation thread
     private int gameTickCount = 0;
+    private int gameStartTick = 0;
     private Timer gameDriver;
+    private final ExecutorService simulation = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "galaga-simulation");
+        t.setDaemon(true);
+        return t;
+    });
+    private Future<?> pendingTick;
+    private SharedStateExporter stateExport;
+    private StateRecorder recorder;
+    private SpectatorServer spectators;
+    private WarmUpService warmUp;
+    private RewindRing rewind;
+    private boolean rewindRequested = false;
+    private boolean paused = false;
+    private final long minFrameNanos; // from the frame cap, 0 to draw every tick
+    private long lastFrameNanos = 0;
+    private int lastFrameTick = -1;
+    private RenderQuality quality;
+    private FlightRecorder flightRecorder;
+    private ScoreHistory scoreHistory;
+    private WaveBook waves; // null: the standard ones
+    private Dimension playfield; // null: the level is the size of the window
+    private VideoRecorder video;
     private WindowStatus status = WindowStatus.ENTRY;
     private HighScore highScore;
 
     /**
      * Create/initialize the GalagaWindow object
      */
-    private GalagaWindow(){
+    GalagaWindow(){
+
+        // optionally draw fewer frames than the game ticks, e.g. on slow cabinets: -Dgalaga.maxFps=30 (0 for no cap)
+        String maxFps = System.getProperty("galaga.maxFps");
+        long frameNanos = 0;
+        if (maxFps != null) {
+            try {
+                int fps = Integer.parseInt(maxFps.trim());
+                frameNanos = fps > 0 ? 1_000_000_000L / fps : 0;
+            } catch (NumberFormatException nfe) {
+                System.err.println("Bad frame cap '" + maxFps + "', drawing every tick.");
+            }
+        }
+        minFrameNanos = frameNanos;
+
+        // optionally play different waves than the standard ones: -Dgalaga.waves=/path/to/waves.properties
+        String wavesFile = System.getProperty("galaga.waves");
+        if (wavesFile != null) {
+            try {
+                waves = WaveBook.load(Paths.get(wavesFile));
+            } catch (IOException ioe) {
+                System.err.println("Error reading the waves, playing the standard ones: " + ioe.getMessage());
+            }
+        }
+
+        // optionally play on a level bigger than the window, scrolling to follow the fighter: -Dgalaga.playfield=1600x1200
+        String playfieldSize = System.getProperty("galaga.playfield");
+        if (playfieldSize != null) {
+            int x = playfieldSize.indexOf('x');
+            playfield = new Dimension(Integer.parseInt(playfieldSize.substring(0, x)),
+                    Integer.parseInt(playfieldSize.substring(x + 1)));
+        }
+
+        // optionally let other processes watch through a shared memory file: -Dgalaga.stateExport=/path/to/file
+        String exportFile = System.getProperty("galaga.stateExport");
+        if (exportFile != null) {
+            try {
+                stateExport = new SharedStateExporter(Paths.get(exportFile), 256, 512);
+            } catch (IOException ioe) {
+                System.err.println("Error creating the shared state file.");
+            }
+        }
+
+        // keep the last few seconds of every game and dump them when it stutters, so a reported hitch can be looked
+        // into; -Dgalaga.flightRecorder=dir to dump somewhere else, -Dgalaga.flightRecorder=off not to record
+        String flightDir = System.getProperty("galaga.flightRecorder",
+                Paths.get(System.getProperty("user.home"), ".galaga", "flight-recorder").toString());
+        if (!flightDir.equals("off")) {
+            try {
+                flightRecorder = new FlightRecorder(Paths.get(flightDir), 5, TICK_MILLIS * 1_000_000L,
+                        TICK_MILLIS * 1_000_000L);
+            } catch (IOException ioe) {
+                System.err.println("Error creating the flight recorder directory.");
+            }
+        }
+
+        // optionally keep every finished game, for ranking: -Dgalaga.scoreHistory=dir
+        String historyDir = System.getProperty("galaga.scoreHistory");
+        if (historyDir != null) {
+            try {
+                ScoreHistory history = new ScoreHistory(Paths.get(historyDir));
+                scoreHistory = history;
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        history.close(); // checkpoint, so the next start doesn't have to read the newest games
+                    } catch (IOException ioe) {
+                        System.err.println("Error closing the score history.");
+                    }
+                }));
+            } catch (IOException ioe) {
+                System.err.println("Error opening the score history.");
+            }
+        }
+
+        // optionally stream games to spectators on the network: -Dgalaga.spectatorPort=7777
+        String spectatorPort = System.getProperty("galaga.spectatorPort");
+        if (spectatorPort != null) {
+            try {
+                spectators = new SpectatorServer(new InetSocketAddress(Integer.parseInt(spectatorPort)));
+            } catch (IOException ioe) {
+                System.err.println("Error starting the spectator server.");
+            }
+        }
 
         // Bind a keyListener as necessary to track keyboard events.
         // allow for arrow AND WASD control!
@@ -39,43 +155,103 @@ class GalagaWindow extends JFrame{
             }
             @Override
             public void keyPressed(KeyEvent e) {
+                long when = System.nanoTime();
                 if (getStatus() == WindowStatus.HIGHSCORE){
                     highScore.receiveKeyPress(e);
                     panel.repaint();
                     if (e.getKeyCode() == KeyEvent.VK_ENTER){
                         setStatus(WindowStatus.ENTRY);
-
-                        gameDriver.restart();
                         return; // let's not jump RIGHT back into the game
                     }
                 }
                 switch (e.getKeyCode()) {
                     case KeyEvent.VK_ENTER:
                         if(getStatus() == WindowStatus.ENTRY) {
-                            game = new GalagaGame(getWidth(), getHeight());
+                            if (warmUp != null) {
+                                // don't let the warm-up game compete with the real one for the CPU
+                                warmUp.stop();
+                                warmUp = null;
+                            }
+                            if (playfield != null) {
+                                game = new GalagaGame(Math.max(playfield.width, getWidth()),
+                                        Math.max(playfield.height, getHeight()));
+                                game.setViewport(getWidth(), getHeight());
+                            } else {
+                                game = new GalagaGame(getWidth(), getHeight());
+                            }
+                            if (waves != null) {
+                                game.setWaves(waves);
+                            }
+                            // bullet hell, if asked for: -Dgalaga.bulletPatterns=<density>
+                            String bulletDensity = System.getProperty("galaga.bulletPatterns");
+                            if (bulletDensity != null) {
+                                game.enableBulletPatterns(32 * 1024, Integer.parseInt(bulletDensity));
+                            }
+                            // explosion particles per frame: -Dgalaga.particleBudget=<n>, 0 for none
+                            String particleBudget = System.getProperty("galaga.particleBudget");
+                            if (particleBudget != null) {
+                                game.setParticleBudget(Integer.parseInt(particleBudget));
+                            }
+                            if (stateExport != null) {
+                                game.addTickObserver(stateExport);
+                            }
+                            if (spectators != null) {
+                                game.addTickObserver(spectators);
+                            }
+                            if (flightRecorder != null) {
+                                flightRecorder.resetTiming();
+                                game.addTickObserver(flightRecorder);
+                            }
+                            startRecording();
+                            // practice mode: keep the last few seconds to rewind with R, -Dgalaga.rewindSeconds=5
+                            String rewindSeconds = System.getProperty("galaga.rewindSeconds");
+                            if (rewindSeconds != null) {
+                                rewind = new RewindRing(Integer.parseInt(rewindSeconds) * REWIND_TICKS);
+                                game.addTickObserver(rewind);
+                            }
                             panel.setGameRef(game);
+                            if (quality != null) {
+                                quality.setMetrics(game.getMetrics());
+                            }
+                            lastFrameTick = -1;
+                            gameStartTick = gameTickCount;
                             setStatus(WindowStatus.GAME);
+                            input.restart(System.nanoTime());
+                            gameDriver.start();
                         }
                         break;
                     case KeyEvent.VK_LEFT:
                     case KeyEvent.VK_A:
-                        leftDown = true;
+                        input.offer(InputQueue.LEFT, true, when);
                         break;
                     case KeyEvent.VK_RIGHT:
                     case KeyEvent.VK_D:
-                        rightDown = true;
+                        input.offer(InputQueue.RIGHT, true, when);
                         break;
                     case KeyEvent.VK_W:
                     case KeyEvent.VK_Z:
                     case KeyEvent.VK_SPACE:
-                        spaceDown = true;
+                        input.offer(InputQueue.FIRE, true, when);
+                        break;
+                    case KeyEvent.VK_R:
+                        rewindRequested = rewind != null;
                         break;
                     case KeyEvent.VK_P:
-                        // easy pause
-                        if (gameDriver.isRunning()){
-                            gameDriver.stop();
-                        } else {
-                            gameDriver.start();
+                        // easy pause. nothing moves while paused, so the overlay is drawn once and left alone
+                        if (getStatus() == WindowStatus.GAME) {
+                            paused = !paused;
+                            panel.setPaused(paused);
+                            if (paused) {
+                                gameDriver.stop();
+                                input.pause();
+                            } else {
+                                input.restart(System.nanoTime());
+                                if (flightRecorder != null) {
+                                    flightRecorder.resetTiming(); // the pause isn't a stutter
+                                }
+                                gameDriver.start();
+                            }
+                            panel.repaint();
                         }
                         break;
                 }
@@ -83,51 +259,175 @@ class GalagaWindow extends JFrame{
 
             @Override
             public void keyReleased(KeyEvent e) {
+                long when = System.nanoTime();
                 switch (e.getKeyCode()) {
                     case KeyEvent.VK_LEFT:
                     case KeyEvent.VK_A:
-                        leftDown = false;
+                        input.offer(InputQueue.LEFT, false, when);
                         break;
                     case KeyEvent.VK_RIGHT:
                     case KeyEvent.VK_D:
-                        rightDown = false;
+                        input.offer(InputQueue.RIGHT, false, when);
                         break;
                     case KeyEvent.VK_SPACE:
                     case KeyEvent.VK_W:
                     case KeyEvent.VK_Z:
-                        spaceDown = false;
+                        input.offer(InputQueue.FIRE, false, when);
                         break;
                 }
             }
         });
 
-        // set up the game-driving tick: 25 ms intervals per frame. push the game forward then draw it
-        gameDriver = new Timer(23, e -> {
-            if (game != null) {
+        // set up the game-driving tick: 25 ms intervals per frame. push the game forward on the simulation thread,
+        // then draw whatever it last published. a tick still running from last time means we skip this one.
+        // it only runs during a game: the title and high-score screens don't change by themselves, so they're only
+        // repainted on a key press or a change of screen.
+        gameDriver = new Timer(TICK_MILLIS, e -> {
+            if (game != null && (pendingTick == null || pendingTick.isDone())) {
                 if (!game.isRunning()) {
                     setStatus(WindowStatus.HIGHSCORE);
                     highScore = new HighScore(game.getScore());
+                    recordHistory();
                     panel.setHighScoreReference(highScore);
                     gameDriver.stop(); // passive handling for now
+                    input.pause();
+                    stopRecording();
                     game = null;
+                    pendingTick = null;
+                    rewind = null;
+                    return;
 
                 } else {
-                    game.handleTick(gameTickCount++, spaceDown, rightDown, leftDown);
+                    if (rewindRequested) {
+                        // the simulation thread is idle (its last tick is done), so the game can be touched here
+                        rewindRequested = false;
+                        int restored = rewind.rewind(game, REWIND_TICKS);
+                        if (restored >= 0) {
+                            gameTickCount = restored + 1;
+                        }
+                    }
+
+                    // the simulation thread drains the key events itself, right as the tick starts
+                    GalagaGame current = game;
+                    int tick = gameTickCount++;
+                    pendingTick = simulation.submit(() -> {
+                        input.drain(System.nanoTime(), inputSample);
+                        current.handleTick(tick, inputSample);
+                    });
                 }
             }
-            panel.repaint();
+            requestFrame();
         });
 
         // further render the window. give a proper size, position panel
         this.setSize(400, 600);
         this.setLayout(new BorderLayout());
 
-        // begin timer (game), finish building window
-        gameDriver.start();
+        // finish building window; the timer starts with a game
         panel = new GalagaPanel(game);
+        panel.setFlightRecorder(flightRecorder);
+
+        // turn drawing quality down when frames take too long: -Dgalaga.frameBudgetMs (default half a tick, leaving
+        // the rest for the simulation), or -Dgalaga.frameBudgetMs=0 to always draw the plain way
+        String budget = System.getProperty("galaga.frameBudgetMs");
+        double budgetMillis = budget == null ? TICK_MILLIS / 2.0 : Double.parseDouble(budget);
+        if (budgetMillis > 0) {
+            quality = new RenderQuality((long) (budgetMillis * 1_000_000), null);
+            panel.setRenderQuality(quality);
+        }
         this.add(panel);
         this.setVisible(true);
         this.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+
+        // get the game code loaded and compiled while the title screen is up
+        warmUp = new WarmUpService(getWidth(), getHeight(), 20000);
+        warmUp.start();
+    }
+
+    /**
+     * If asked to (-Dgalaga.recordDir=/some/dir), record the new game's full state to a file in that directory
+     */
+    private void startRecording(){
+        // gameplay footage, if asked for: -Dgalaga.videoDir=/some/dir, -Dgalaga.videoFormat=raw (default) or png
+        String videoDir = System.getProperty("galaga.videoDir");
+        if (videoDir != null) {
+            boolean png = "png".equals(System.getProperty("galaga.videoFormat"));
+            String name = "galaga-" + System.currentTimeMillis() + (png ? "" : ".grv");
+            try {
+                Files.createDirectories(Paths.get(videoDir));
+                video = new VideoRecorder(Paths.get(videoDir, name), png ? VideoRecorder.FORMAT_PNG
+                        : VideoRecorder.FORMAT_RAW, panel.getWidth(), panel.getHeight(), VIDEO_POOL);
+                panel.setVideoRecorder(video);
+            } catch (IOException ioe) {
+                System.err.println("Error creating the video recording.");
+            }
+        }
+
+        String recordDir = System.getProperty("galaga.recordDir");
+        if (recordDir == null) {
+            return;
+        }
+        try {
+            recorder = new StateRecorder(Paths.get(recordDir, "galaga-" + System.currentTimeMillis() + ".rec"),
+                    RECORD_KEYFRAME_TICKS);
+            game.addTickObserver(recorder);
+        } catch (IOException ioe) {
+            System.err.println("Error creating the recording file.");
+        }
+    }
+
+    /**
+     * Add the finished game to the score history, and show its rank on the high score screen
+     */
+    private void recordHistory(){
+        if (scoreHistory == null) {
+            return;
+        }
+        try {
+            double top = scoreHistory.record(game.getScore(), game.getLevel(),
+                    gameTickCount - gameStartTick + game.getRewoundTicks()); // rewinds don't take back play time
+            highScore.setRank(top, scoreHistory.size());
+        } catch (IOException ioe) {
+            System.err.println("Error adding to the score history.");
+        }
+    }
+
+    private void stopRecording(){
+        if (video != null) {
+            // the encoder finishes the frames it has on its own thread
+            video.finish();
+            panel.setVideoRecorder(null);
+            video = null;
+        }
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.close();
+        } catch (IOException ioe) {
+            System.err.println("Error finishing the recording.");
+        }
+        recorder = null;
+    }
+
+    /**
+     * Repaint if the game has published a frame we haven't drawn, and the frame cap allows it
+     */
+    private void requestFrame(){
+        if (game == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        int tick = game.getSnapshots().latest().tick;
+        if (tick != lastFrameTick && now - lastFrameNanos >= minFrameNanos) {
+            lastFrameTick = tick;
+            lastFrameNanos = now;
+            panel.repaint();
+        }
+    }
+
+    GalagaPanel getPanel(){
+        return panel;
     }
 
     public WindowStatus getStatus(){
@@ -138,6 +438,7 @@ class GalagaWindow extends JFrame{
         this.status = status;
         if (panel != null) {
             panel.setStatus(status);
+            panel.repaint();
         }
     }
 
@@ -0,0 +1,86 @@
+package Galaga;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Numbers about a running game worth watching from outside it, such as what the render quality controller is doing.
+ * Written by whichever thread does the work and safe to read from any other.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public final class GameMetrics {
+
+    private static final int MAX_DECISIONS = 16;
+
+    private volatile int renderTier = 0;
+    private volatile int tierChanges = 0;
+    private volatile double frameMillis = 0;
+    private volatile double worstFrameMillis = 0;
+    private final ArrayDeque<String> decisions = new ArrayDeque<>();
+
+    /**
+     * Record how the last window of frames went
+     * @param tier The quality tier they were drawn at
+     * @param averageMillis Their average paint time
+     * @param worstMillis Their slowest paint time (ignoring the odd outlier)
+     */
+    void recordFrames(int tier, double averageMillis, double worstMillis){
+        renderTier = tier;
+        frameMillis = averageMillis;
+        worstFrameMillis = worstMillis;
+    }
+
+    /**
+     * Record a change of quality tier and why it was made; the newest few are kept
+     */
+    void recordTierChange(int from, int to, String reason){
+        renderTier = to;
+        tierChanges++;
+        synchronized (decisions) {
+            if (decisions.size() == MAX_DECISIONS) {
+                decisions.removeFirst();
+            }
+            decisions.addLast("tier " + from + " -> " + to + ": " + reason);
+        }
+    }
+
+    /**
+     * The render quality tier in use, 0 being the best looking
+     */
+    public int getRenderTier(){
+        return renderTier;
+    }
+
+    /**
+     * How many times the render quality tier has changed
+     */
+    public int getTierChanges(){
+        return tierChanges;
+    }
+
+    /**
+     * Average paint time of the last window of frames, in milliseconds
+     */
+    public double getFrameMillis(){
+        return frameMillis;
+    }
+
+    /**
+     * Slowest paint time of the last window of frames, in milliseconds
+     */
+    public double getWorstFrameMillis(){
+        return worstFrameMillis;
+    }
+
+    /**
+     * The newest tier changes, oldest first, each with its reason
+     */
+    public List<String> getDecisions(){
+        synchronized (decisions) {
+            return new ArrayList<>(decisions);
+        }
+    }
+}
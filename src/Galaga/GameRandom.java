@@ -0,0 +1,46 @@
+package Galaga;
+
+import java.util.Random;
+
+/**
+ * The game's random number generator. Produces exactly the same numbers as java.util.Random for the same seed, but
+ * keeps its 48 bits of state where the game can read and restore them, which rewinding needs. Unlike Random it is not
+ * safe to share between threads; every game has its own.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+final class GameRandom extends Random {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    private long state; // no initializer: Random's constructor sets it through setSeed before this class's fields run
+
+    GameRandom(long seed){
+        super(seed);
+    }
+
+    @Override
+    public synchronized void setSeed(long seed){
+        super.setSeed(seed);
+        state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    @Override
+    protected int next(int bits){
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+
+    long getState(){
+        return state;
+    }
+
+    void setState(long state){
+        this.state = state & MASK;
+    }
+}
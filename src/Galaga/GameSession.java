@@ -0,0 +1,133 @@
+package Galaga;
+
+/**
+ * One live game hosted by a SessionHost: its own game, input source and tick schedule, run in a loop on its own
+ * (virtual, where available) thread. When a game ends a new one starts, so a session runs until it is stopped.
+ *
+ * The counters are written only by the session's thread; read them once the session has stopped, or accept that
+ * they may be a tick out of date.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public class GameSession {
+
+    static final int LATENESS_BUCKETS = 500;
+    static final long LATENESS_BUCKET_NANOS = 100_000L; // 0.1 ms each, so up to 50 ms
+
+    private final SessionHost host;
+    private final int width;
+    private final int height;
+    private final long seed;
+    private final InputSource input;
+    private final InputSample sample = new InputSample();
+    private final long startDelay;
+    private volatile boolean running = true;
+    private volatile GalagaGame game;
+
+    volatile long ticks = 0;
+    volatile long lateTicks = 0;     // ticks that finished after the next tick was due
+    volatile long skippedTicks = 0;  // ticks dropped because the session fell more than a whole period behind
+    volatile long gamesPlayed = 0;
+    volatile long maxLatenessNanos = 0;
+    volatile long firstTickNanos = 0;
+    volatile long lastTickNanos = 0;
+    final long[] lateness = new long[LATENESS_BUCKETS + 1]; // how long after its deadline each tick started
+
+    GameSession(SessionHost host, int width, int height, long seed, InputSource input, long startDelay){
+        this.host = host;
+        this.width = width;
+        this.height = height;
+        this.seed = seed;
+        this.input = input;
+        this.startDelay = startDelay;
+    }
+
+    /**
+     * The session's loop: wait for the deadline, tick, work out the next deadline
+     */
+    void run(){
+        TickScheduler.Waiter waiter = new TickScheduler.Waiter(Thread.currentThread());
+        long period = host.getPeriodNanos();
+        game = new GalagaGame(width, height, seed);
+        game.setSnapshotPublishing(host.isPublishingSnapshots());
+        int tick = 0;
+        long deadline = System.nanoTime() + startDelay;
+
+        while (running) {
+            host.getScheduler().awaitDeadline(waiter, deadline);
+            if (!running) {
+                break;
+            }
+            long woke = System.nanoTime();
+            if (ticks == 0) {
+                firstTickNanos = woke;
+            }
+            lastTickNanos = woke;
+            long late = Math.max(0, woke - deadline);
+            lateness[(int) Math.min(late / LATENESS_BUCKET_NANOS, LATENESS_BUCKETS)]++;
+            if (late > maxLatenessNanos) {
+                maxLatenessNanos = late;
+            }
+
+            if (!game.isRunning()) {
+                gamesPlayed++;
+                game = new GalagaGame(width, height, seed + gamesPlayed);
+                game.setSnapshotPublishing(host.isPublishingSnapshots());
+                tick = 0;
+            }
+            input.sample(tick, woke, sample);
+            game.handleTick(tick++, sample);
+            ticks++;
+
+            // the next tick is due one period after this one was, however late this one was: unless we're a whole
+            // period or more behind, then those ticks are dropped rather than run back to back
+            deadline += period;
+            long done = System.nanoTime();
+            if (done - deadline > 0) {
+                lateTicks++;
+                long behind = (done - deadline) / period;
+                if (behind > 0) {
+                    skippedTicks += behind;
+                    deadline += behind * period;
+                }
+            }
+        }
+    }
+
+    /**
+     * Ask the session to finish after its current tick
+     */
+    void stop(){
+        running = false;
+    }
+
+    /**
+     * The game currently being played. Only safe to inspect from the session's thread (e.g. a tick observer) or once
+     * the session has stopped.
+     * @return The game
+     */
+    public GalagaGame getGame(){
+        return game;
+    }
+
+    public long getTicks(){
+        return ticks;
+    }
+
+    public long getLateTicks(){
+        return lateTicks;
+    }
+
+    public long getSkippedTicks(){
+        return skippedTicks;
+    }
+
+    /**
+     * The session's achieved tick rate, from its first tick to its latest
+     * @return Ticks per second
+     */
+    public double getTickRate(){
+        return ticks < 2 ? 0 : (ticks - 1) * 1e9 / (lastTickNanos - firstTickNanos);
+    }
+}
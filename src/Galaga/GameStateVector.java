@@ -0,0 +1,189 @@
+package Galaga;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The whole visible state of a game flattened into one int array, so it can be stored, compared and delta-encoded
+ * without knowing anything about actors.
+ *
+ * Layout: score, lives, level, fighter x, fighter y, fighter alive, columns, rows; then the enemy alive mask (one bit
+ * per enemy, 32 per int, column-major); then each enemy's x and y; then the number of swooping enemies followed by
+ * (enemy index, progress, travel distance, 3 control points as x/y pairs) for each; then the number of shots followed
+ * by (x, y, y momentum) for each. Progress and travel distance are stored in thousandths.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+final class GameStateVector {
+
+    static final int SCORE = 0;
+    static final int LIVES = 1;
+    static final int LEVEL = 2;
+    static final int FIGHTER_X = 3;
+    static final int FIGHTER_Y = 4;
+    static final int FIGHTER_ALIVE = 5;
+    static final int COLUMNS = 6;
+    static final int ROWS = 7;
+    private static final int MASK = 8;
+
+    static final int PATH_STRIDE = 9;
+    static final int SHOT_STRIDE = 3;
+    static final int FIXED_POINT = 1000;
+
+    int[] values = new int[256];
+    int length = 0;
+
+    /**
+     * Overwrite this vector with the game's current state
+     * @param game The game to capture
+     */
+    void capture(GalagaGame game){
+        Enemy[][] enemies = game.getEnemies();
+        int cols = enemies.length;
+        int rows = cols == 0 ? 0 : enemies[0].length;
+        int count = cols * rows;
+        int maskWords = (count + 31) / 32;
+        ArrayList<Projectile> shots = game.getShots();
+
+        // size for the worst case: every enemy swooping
+        ensureCapacity(MASK + maskWords + count * 2 + 1 + count * PATH_STRIDE + 1 + shots.size() * SHOT_STRIDE);
+
+        PlayerFighter fighter = game.getFighter();
+        Point f = fighter.getPos();
+        values[SCORE] = game.getScore();
+        values[LIVES] = game.getPlayerLives();
+        values[LEVEL] = game.getLevel();
+        values[FIGHTER_X] = f.x;
+        values[FIGHTER_Y] = f.y;
+        values[FIGHTER_ALIVE] = fighter.isAlive() ? 1 : 0;
+        values[COLUMNS] = cols;
+        values[ROWS] = rows;
+
+        Arrays.fill(values, MASK, MASK + maskWords, 0);
+        int positions = MASK + maskWords;
+        int paths = positions + count * 2;
+        int pathCount = 0;
+        for (int x = 0; x < cols; x++){
+            for (int y = 0; y < rows; y++){
+                int i = x * rows + y;
+                Enemy e = enemies[x][y];
+                if (e.isAlive()){
+                    values[MASK + i / 32] |= 1 << (i % 32);
+                }
+                Point p = e.getPos();
+                values[positions + i * 2] = p.x;
+                values[positions + i * 2 + 1] = p.y;
+
+                TravelingPath path = e.getPath();
+                if (path != null){
+                    int at = paths + 1 + pathCount * PATH_STRIDE;
+                    values[at] = i;
+                    values[at + 1] = (int) Math.round(path.getProgress() * FIXED_POINT);
+                    values[at + 2] = (int) Math.round(path.getTravelDistance() * FIXED_POINT);
+                    for (int c = 0; c < 3; c++){
+                        values[at + 3 + c * 2] = path.getControlX(c);
+                        values[at + 4 + c * 2] = path.getControlY(c);
+                    }
+                    pathCount++;
+                }
+            }
+        }
+        values[paths] = pathCount;
+
+        int shotsAt = paths + 1 + pathCount * PATH_STRIDE;
+        int shotCount = 0;
+        for (Projectile shot : shots){
+            if (shot.isAlive()){
+                Point p = shot.getPos();
+                int at = shotsAt + 1 + shotCount * SHOT_STRIDE;
+                values[at] = p.x;
+                values[at + 1] = p.y;
+                values[at + 2] = shot.getMomentumY();
+                shotCount++;
+            }
+        }
+        values[shotsAt] = shotCount;
+        length = shotsAt + 1 + shotCount * SHOT_STRIDE;
+    }
+
+    /**
+     * Make sure the vector can hold at least the given number of values, keeping what's there
+     * @param size The number of values needed
+     */
+    void ensureCapacity(int size){
+        if (values.length < size){
+            values = Arrays.copyOf(values, Math.max(size, values.length * 2));
+        }
+    }
+
+    /**
+     * Make this vector an exact copy of another one
+     * @param other The vector to copy
+     */
+    void copyFrom(GameStateVector other){
+        ensureCapacity(other.length);
+        System.arraycopy(other.values, 0, values, 0, other.length);
+        length = other.length;
+    }
+
+    int getEnemyCount(){
+        return values[COLUMNS] * values[ROWS];
+    }
+
+    private int maskWords(){
+        return (getEnemyCount() + 31) / 32;
+    }
+
+    /**
+     * @param i The enemy's index, column * rows + row
+     * @return Whether or not the enemy is alive
+     */
+    boolean isEnemyAlive(int i){
+        return (values[MASK + i / 32] & (1 << (i % 32))) != 0;
+    }
+
+    int getEnemyX(int i){
+        return values[MASK + maskWords() + i * 2];
+    }
+
+    int getEnemyY(int i){
+        return values[MASK + maskWords() + i * 2 + 1];
+    }
+
+    private int pathsAt(){
+        return MASK + maskWords() + getEnemyCount() * 2;
+    }
+
+    int getPathCount(){
+        return values[pathsAt()];
+    }
+
+    /**
+     * Read one value of a swooping enemy's path record
+     * @param path Which path, in enemy order
+     * @param field 0 enemy index, 1 progress, 2 travel distance, 3 to 8 control point x/y pairs
+     * @return The value
+     */
+    int getPathValue(int path, int field){
+        return values[pathsAt() + 1 + path * PATH_STRIDE + field];
+    }
+
+    private int shotsAt(){
+        return pathsAt() + 1 + getPathCount() * PATH_STRIDE;
+    }
+
+    int getShotCount(){
+        return values[shotsAt()];
+    }
+
+    /**
+     * Read one value of a shot record
+     * @param shot Which shot, in firing order
+     * @param field 0 x, 1 y, 2 y momentum
+     * @return The value
+     */
+    int getShotValue(int shot, int field){
+        return values[shotsAt() + 1 + shot * SHOT_STRIDE + field];
+    }
+}
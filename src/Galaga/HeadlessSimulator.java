@@ -0,0 +1,252 @@
+package Galaga;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The batch entry point: plays seeded games headless, with scripted or recorded input, and prints one summary line per
+ * game. Meant to be started thousands of times, so it is kept fit for GraalVM native-image and AppCDS: nothing on its
+ * path is looked up by reflection, method handles or service loading (NarrowPhase.create and SessionHost are not
+ * reached), and nothing touches the AWT toolkit, Java2D or Swing. The game model uses its own Galaga.Point and
+ * Galaga.Dimension rather than java.awt's, so the simulator loads no java.desktop classes at all.
+ *
+ * Usage: HeadlessSimulator [--seed n] [--games n] [--ticks n] [--size WxH] [--script sweep|idle|random]
+ *                          [--input file] [--waves file] [--launched epoch nanos]
+ *
+ * A recorded input file has one line per tick, or "count keys" for the same keys held over several ticks; keys are any
+ * of F (fire), R and L, or "-" for none. Lines starting with # are skipped, and ticks past the end are idle.
+ *
+ * Summaries go to standard out; startup and time to first tick go to standard error, measured from --launched (e.g.
+ * `date +%s%N` in the launching script), or only from the start of main without it.
+ *
+ * Native executable (GraalVM), with the options in META-INF/native-image/Galaga/headless:
+ *   javac -d out src/Galaga/*.java && cp -r src/META-INF out/
+ *   native-image -cp out
+ * AppCDS archive for the regular JVM, recorded from one representative run (CDS needs the classes in a jar):
+ *   jar cf galaga.jar -C out .
+ *   java -XX:ArchiveClassesAtExit=galaga-sim.jsa -cp galaga.jar Galaga.HeadlessSimulator --games 4
+ *   java -XX:SharedArchiveFile=galaga-sim.jsa -XX:TieredStopAtLevel=1 -cp galaga.jar Galaga.HeadlessSimulator ...
+ * Short games finish before C2 pays off, so stopping at C1 helps them on top of the archive.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public final class HeadlessSimulator {
+
+    private static final int FIRE = 1;
+    private static final int RIGHT = 2;
+    private static final int LEFT = 4;
+
+    private long seed = 1;
+    private int games = 1;
+    private int maxTicks = 20_000;
+    private int width = 400;
+    private int height = 600;
+    private String script = "sweep";
+    private byte[] recorded; // keys per tick, or null to use the script
+    private WaveBook waves; // or null for the standard ones
+    private long launchedNanos = -1; // epoch nanos, or -1 to time from main
+
+    private final SavedState state = new SavedState(4096);
+    private long firstTickNanos = -1; // epoch nanos
+
+    public static void main(String[] args){
+        long mainNanos = epochNanos();
+        System.setProperty("java.awt.headless", "true");
+        HeadlessSimulator simulator = new HeadlessSimulator();
+        boolean parsed;
+        try {
+            parsed = simulator.parse(args);
+        } catch (NoSuchFileException nsfe) {
+            System.err.println("HeadlessSimulator: no such file: " + nsfe.getMessage());
+            System.exit(2);
+            return;
+        } catch (IOException ioe) {
+            System.err.println("HeadlessSimulator: " + ioe.getMessage());
+            System.exit(2);
+            return;
+        } catch (NumberFormatException nfe) {
+            parsed = false; // a number option that isn't one
+        }
+        if (!parsed) {
+            System.err.println("Usage: HeadlessSimulator [--seed n] [--games n] [--ticks n] [--size WxH] "
+                    + "[--script sweep|idle|random] [--input file] [--waves file] [--launched epoch nanos]");
+            System.exit(2);
+        }
+
+        StringBuilder out = new StringBuilder();
+        for (int g = 0; g < simulator.games; g++) {
+            simulator.play(simulator.seed + g, out);
+        }
+        System.out.print(out);
+        System.out.flush();
+
+        long doneNanos = epochNanos();
+        if (simulator.launchedNanos >= 0) {
+            long launched = simulator.launchedNanos;
+            System.err.printf("startup %.1f ms, first tick %.1f ms, total %.1f ms%n", (mainNanos - launched) / 1e6,
+                    (simulator.firstTickNanos - launched) / 1e6, (doneNanos - launched) / 1e6);
+        } else {
+            System.err.printf("from main: first tick %.1f ms, total %.1f ms%n",
+                    (simulator.firstTickNanos - mainNanos) / 1e6, (doneNanos - mainNanos) / 1e6);
+        }
+    }
+
+    private boolean parse(String[] args) throws IOException {
+        for (int i = 0; i < args.length; i++) {
+            if (i + 1 == args.length) {
+                return false;
+            }
+            String value = args[++i];
+            switch (args[i - 1]) {
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--games":
+                    games = Integer.parseInt(value);
+                    break;
+                case "--ticks":
+                    maxTicks = Integer.parseInt(value);
+                    break;
+                case "--size":
+                    int x = value.indexOf('x');
+                    if (x < 0) {
+                        return false;
+                    }
+                    width = Integer.parseInt(value.substring(0, x));
+                    height = Integer.parseInt(value.substring(x + 1));
+                    break;
+                case "--script":
+                    if (!value.equals("sweep") && !value.equals("idle") && !value.equals("random")) {
+                        return false;
+                    }
+                    script = value;
+                    break;
+                case "--input":
+                    recorded = readInput(Path.of(value));
+                    break;
+                case "--waves":
+                    waves = WaveBook.load(Path.of(value));
+                    break;
+                case "--launched":
+                    launchedNanos = Long.parseLong(value);
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Play one game to its end or the tick limit and append its summary
+     */
+    private void play(long gameSeed, StringBuilder out){
+        GalagaGame game = new GalagaGame(width, height, gameSeed);
+        game.setSnapshotPublishing(false);
+        if (waves != null) {
+            game.setWaves(waves);
+        }
+        SplittableRandom bot = new SplittableRandom(gameSeed);
+
+        int tick = 0;
+        while (game.isRunning() && tick < maxTicks) {
+            int keys = keys(tick, bot);
+            game.handleTick(tick, (keys & FIRE) != 0, (keys & RIGHT) != 0, (keys & LEFT) != 0);
+            if (firstTickNanos < 0) {
+                firstTickNanos = epochNanos();
+            }
+            tick++;
+        }
+
+        game.saveState(state);
+        out.append("seed=").append(gameSeed)
+                .append(" ticks=").append(tick)
+                .append(" score=").append(game.getScore())
+                .append(" level=").append(game.getLevel())
+                .append(" lives=").append(game.getPlayerLives())
+                .append(" state=").append(Integer.toHexString(stateHash()))
+                .append('\n');
+    }
+
+    private int keys(int tick, SplittableRandom bot){
+        if (recorded != null) {
+            return tick < recorded.length ? recorded[tick] : 0;
+        }
+        if (script.equals("idle")) {
+            return 0;
+        } else if (script.equals("random")) {
+            return bot.nextInt(8);
+        }
+        return FIRE | (tick % 40 < 20 ? RIGHT : LEFT); // sweep back and forth, always firing
+    }
+
+    /**
+     * A hash of the game's whole saved state, so runs can be compared (e.g. JVM against native) with a glance
+     */
+    private int stateHash(){
+        return Arrays.hashCode(Arrays.copyOf(state.values, state.length));
+    }
+
+    /**
+     * Read a recorded input file into keys per tick
+     */
+    static byte[] readInput(Path file) throws IOException {
+        byte[] keys = new byte[1024];
+        int ticks = 0;
+        try (BufferedReader in = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int count = 1;
+                int space = line.indexOf(' ');
+                if (space > 0) {
+                    try {
+                        count = Integer.parseInt(line.substring(0, space));
+                    } catch (NumberFormatException nfe) {
+                        throw new IOException("Bad repeat count '" + line.substring(0, space) + "' in " + file);
+                    }
+                    line = line.substring(space + 1).trim();
+                }
+                byte tickKeys = 0;
+                for (int c = 0; c < line.length(); c++) {
+                    switch (Character.toUpperCase(line.charAt(c))) {
+                        case 'F':
+                            tickKeys |= FIRE;
+                            break;
+                        case 'R':
+                            tickKeys |= RIGHT;
+                            break;
+                        case 'L':
+                            tickKeys |= LEFT;
+                            break;
+                        case '-':
+                            break;
+                        default:
+                            throw new IOException("Unknown key '" + line.charAt(c) + "' in " + file);
+                    }
+                }
+                if (ticks + count > keys.length) {
+                    keys = Arrays.copyOf(keys, Math.max(keys.length * 2, ticks + count));
+                }
+                Arrays.fill(keys, ticks, ticks + count, tickKeys);
+                ticks += count;
+            }
+        }
+        return Arrays.copyOf(keys, ticks);
+    }
+
+    private static long epochNanos(){
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+}
@@ -18,7 +18,9 @@ class HighScore {
     private static char[][] scoreNameTable;
     private static int[] scoreValueTable;
     private static final int MAX_SCORES = 5;
+    private static final Font DRAW_FONT = new Font("Arial", Font.PLAIN, 20);
     private int scoreInsertionPoint = -1;
+    private String rankLine = null;
 
     public HighScore(int score){
         if (canPostScore(score)) {
@@ -28,6 +30,16 @@ class HighScore {
         }
     }
 
+    /**
+     * Show where the game ranks among every game in the score history
+     * @param topPercent The share of games that scored at least as much
+     * @param games How many games there have been
+     */
+    void setRank(double topPercent, long games){
+        String share = topPercent < 1 ? String.format("%.1f", topPercent) : String.valueOf((int) Math.ceil(topPercent));
+        rankLine = "That's the top " + share + "% of " + games + " games";
+    }
+
     private static void loadScores() {
 
         scoreNameTable = new char[MAX_SCORES][];
@@ -140,20 +152,22 @@ class HighScore {
     /**
      * Draw the frame for the panel
      * @param g The graphics object to use
+     * @param frame The size of the area to draw in
      */
-    public void draw(Graphics g){
-        Dimension frame = GalagaGame.getLevelSize();
+    public void draw(Graphics g, java.awt.Dimension frame){
         g.setColor(Color.BLACK);
         g.fillRect(0, 0, frame.width, frame.height);
 
-        Font drawFont = new Font("Arial", Font.PLAIN, 20);
-        g.setFont(drawFont);
+        g.setFont(DRAW_FONT);
         g.setColor(Color.GREEN);
         if (scoreInsertionPoint != -1) {
             g.drawString("Enter your initials for your high score!", 20, 40);
             g.drawString("Use the arrow keys to enter information!", 20, 60);
         }
         g.drawString("Enter to finish", 20, 80);
+        if (rankLine != null) {
+            g.drawString(rankLine, 20, 100);
+        }
 
         Point listCorner = new Point(20, 120);
         for(int i = 0; i < MAX_SCORES; i++){
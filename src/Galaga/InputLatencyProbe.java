@@ -0,0 +1,102 @@
+package Galaga;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures input-to-photon latency of the real window: a Robot presses a movement key at a random point in the tick
+ * cycle, and the time until the panel first paints a frame whose tick had seen that key press is recorded. Needs a
+ * display; on a headless machine run it under a virtual one, e.g. "xvfb-run java Galaga.InputLatencyProbe".
+ *
+ * Usage: InputLatencyProbe [samples]
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public class InputLatencyProbe {
+
+    private static final long TIMEOUT_NANOS = 1_000_000_000L;
+
+    private volatile long pressNanos = 0;   // when the key under test went down, 0 when nothing is being measured
+    private volatile long latencyNanos = 0; // set by the event thread once a frame showing the press was painted
+
+    /**
+     * Called by the panel after each game frame is painted
+     * @param inputStamp The newest key event time the painted tick had seen
+     * @param paintedNanos When the frame finished painting
+     */
+    void framePainted(long inputStamp, long paintedNanos){
+        long pressed = pressNanos;
+        if (pressed != 0 && inputStamp >= pressed) {
+            latencyNanos = paintedNanos - pressed;
+            pressNanos = 0;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int samples = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        InputLatencyProbe probe = new InputLatencyProbe();
+
+        GalagaWindow[] window = new GalagaWindow[1];
+        SwingUtilities.invokeAndWait(() -> {
+            window[0] = new GalagaWindow();
+            window[0].getPanel().setLatencyProbe(probe);
+        });
+        Robot robot = new Robot();
+        robot.waitForIdle();
+        SwingUtilities.invokeAndWait(() -> window[0].requestFocus());
+        tap(robot, KeyEvent.VK_ENTER);
+        Thread.sleep(500);
+
+        long[] latencies = new long[samples];
+        int measured = 0;
+        int missed = 0;
+        Random phase = new Random(1);
+        for (int i = 0; i < samples; i++) {
+            // land the press anywhere in the tick cycle, and zig-zag so the fighter stays on screen
+            Thread.sleep(60 + phase.nextInt(60));
+            int key = (i / 4) % 2 == 0 ? KeyEvent.VK_RIGHT : KeyEvent.VK_LEFT;
+
+            probe.latencyNanos = 0;
+            probe.pressNanos = System.nanoTime();
+            robot.keyPress(key);
+            long deadline = System.nanoTime() + TIMEOUT_NANOS;
+            while (probe.latencyNanos == 0 && System.nanoTime() < deadline) {
+                LockSupport.parkNanos(100_000L);
+            }
+            robot.keyRelease(key);
+
+            if (probe.latencyNanos != 0) {
+                latencies[measured++] = probe.latencyNanos;
+            } else {
+                // most likely the game ended: get through the high score screen and start another
+                probe.pressNanos = 0;
+                missed++;
+                tap(robot, KeyEvent.VK_ENTER);
+                Thread.sleep(200);
+                tap(robot, KeyEvent.VK_ENTER);
+                Thread.sleep(500);
+            }
+        }
+
+        Arrays.sort(latencies, 0, measured);
+        if (measured > 0) {
+            System.out.printf("%d samples (%d missed): min %.1f ms, p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                    measured, missed, latencies[0] / 1e6, latencies[measured / 2] / 1e6,
+                    latencies[measured * 9 / 10] / 1e6, latencies[measured * 99 / 100] / 1e6,
+                    latencies[measured - 1] / 1e6);
+        } else {
+            System.out.println("No samples measured; is the window receiving key events?");
+        }
+        System.exit(0);
+    }
+
+    private static void tap(Robot robot, int key){
+        robot.keyPress(key);
+        robot.keyRelease(key);
+    }
+}
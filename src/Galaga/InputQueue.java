@@ -0,0 +1,169 @@
+package Galaga;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Key presses and releases stamped with the time they happened, passed from the event thread to the simulation
+ * thread without locks. The simulation drains it at the start of each tick and replays the events against the tick's
+ * time span, so a key held for a third of a tick counts for a third of a move and a tap between two ticks still fires,
+ * rather than only seeing whatever the keys happened to be when the timer fired.
+ *
+ * While no game is ticking (the title screen, a pause, after game over) nothing is queued: the queue only keeps up with
+ * which keys are down, and restart() hands that state over in one go, starting the next tick's span from then. So a
+ * long pause can't overflow the queue and lose a release, and the first tick after it isn't measured across it.
+ *
+ * Single producer (the event thread), single consumer (the simulation thread).
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+final class InputQueue {
+
+    static final int LEFT = 0;
+    static final int RIGHT = 1;
+    static final int FIRE = 2;
+    private static final int CONTROLS = 3;
+    private static final int RESTART = CONTROLS; // not a key: the drained span starts over at this event
+
+    private final int mask;
+    private final long[] stamps;
+    private final int[] events;  // control << 1 | pressed
+    private final AtomicLong head = new AtomicLong(); // next slot to drain, only written by the consumer
+    private final AtomicLong tail = new AtomicLong(); // next slot to fill, only written by the producer
+    private long dropped = 0;
+
+    // producer side: the keys as the event thread last saw them, and whether events are queued at all
+    private final boolean[] down = new boolean[CONTROLS];
+    private boolean paused = true;
+
+    // consumer side: what is held as of lastDrain
+    private final boolean[] held = new boolean[CONTROLS];
+    private final long[] heldNanos = new long[CONTROLS];
+    private long lastDrain;
+
+    /**
+     * Create an empty queue
+     * @param capacity How many undrained events to keep, rounded up to a power of two; more are dropped
+     */
+    InputQueue(int capacity){
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        mask = size - 1;
+        stamps = new long[size];
+        events = new int[size];
+        lastDrain = System.nanoTime();
+    }
+
+    /**
+     * Record a key event (event thread only)
+     * @param control LEFT, RIGHT or FIRE
+     * @param pressed Whether the key went down or up
+     * @param nanos When it happened, from System.nanoTime
+     * @return False if the queue was full and the event was dropped
+     */
+    boolean offer(int control, boolean pressed, long nanos){
+        down[control] = pressed;
+        return paused || enqueue(control << 1 | (pressed ? 1 : 0), nanos);
+    }
+
+    /**
+     * Stop queueing events until the next restart, e.g. for a pause (event thread only)
+     */
+    void pause(){
+        paused = true;
+    }
+
+    /**
+     * Start queueing again: the next drain counts time from this moment, with the keys that are down now (event thread
+     * only). Call it before the first tick of a game and when resuming from a pause.
+     * @param nanos Now, from System.nanoTime
+     */
+    void restart(long nanos){
+        paused = false;
+        enqueue(RESTART << 1, nanos);
+        for (int c = 0; c < CONTROLS; c++) {
+            enqueue(c << 1 | (down[c] ? 1 : 0), nanos);
+        }
+    }
+
+    private boolean enqueue(int event, long nanos){
+        long t = tail.get();
+        if (t - head.get() > mask) {
+            dropped++;
+            return false;
+        }
+        int slot = (int) t & mask;
+        stamps[slot] = nanos;
+        events[slot] = event;
+        tail.lazySet(t + 1); // publishes the slot
+        return true;
+    }
+
+    /**
+     * Apply every event up to now and summarise the time since the previous drain (simulation thread only)
+     * @param now The end of the span, from System.nanoTime; events stamped later are left for the next drain
+     * @param out Filled in with the summary
+     */
+    void drain(long now, InputSample out){
+        long start = Math.min(lastDrain, now);
+        long cursor = start;
+        boolean tapped = false;
+        for (int c = 0; c < CONTROLS; c++) {
+            heldNanos[c] = 0;
+        }
+
+        long h = head.get();
+        long t = tail.get();
+        for (; h < t; h++) {
+            int slot = (int) h & mask;
+            long stamp = stamps[slot];
+            if (stamp > now) {
+                break;
+            }
+            // events stamped before the span (a late drain, a pause) take effect at its start
+            long at = Math.max(stamp, cursor);
+            accumulate(at - cursor);
+            cursor = at;
+
+            int control = events[slot] >> 1;
+            boolean pressed = (events[slot] & 1) != 0;
+            if (control == RESTART) {
+                // nothing before this counts: not the time, not a tap
+                for (int c = 0; c < CONTROLS; c++) {
+                    heldNanos[c] = 0;
+                }
+                start = at;
+                tapped = false;
+                continue;
+            }
+            if (pressed && control == FIRE) {
+                tapped = true;
+            }
+            held[control] = pressed;
+            out.latestEventNanos = Math.max(out.latestEventNanos, stamp);
+        }
+        head.lazySet(h);
+        accumulate(now - cursor);
+
+        double span = now - start;
+        out.leftHeld = span > 0 ? heldNanos[LEFT] / span : held[LEFT] ? 1 : 0;
+        out.rightHeld = span > 0 ? heldNanos[RIGHT] / span : held[RIGHT] ? 1 : 0;
+        out.fire = held[FIRE] || tapped;
+        lastDrain = now;
+    }
+
+    private void accumulate(long nanos){
+        for (int c = 0; c < CONTROLS; c++) {
+            if (held[c]) {
+                heldNanos[c] += nanos;
+            }
+        }
+    }
+
+    /**
+     * How many events were dropped because the simulation fell too far behind
+     * @return The number of dropped events
+     */
+    long getDropped(){
+        return dropped;
+    }
+}
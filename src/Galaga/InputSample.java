@@ -0,0 +1,15 @@
+package Galaga;
+
+/**
+ * What the player did over one tick, as drained from an InputQueue
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+final class InputSample {
+
+    boolean fire;                // fire held at the end of the tick, or tapped at any point during it
+    double leftHeld;             // fraction of the tick (0 to 1) left was held
+    double rightHeld;            // fraction of the tick (0 to 1) right was held
+    long latestEventNanos;       // System.nanoTime of the newest event applied so far
+}
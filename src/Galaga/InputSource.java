@@ -0,0 +1,19 @@
+package Galaga;
+
+/**
+ * Where a hosted session gets its player's input from: a network connection, a cabinet's controls, a bot.
+ * Called on the session's own thread right before each tick.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public interface InputSource {
+
+    /**
+     * Fill in what the player did since the last tick
+     * @param tick The tick about to run
+     * @param nanos The current System.nanoTime
+     * @param out The sample to fill in
+     */
+    void sample(int tick, long nanos, InputSample out);
+}
@@ -0,0 +1,92 @@
+package Galaga;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds a game's next formation on a background thread while the current level is played, so a level change only
+ * has to swap the finished grid in. The enemies are built outside the collision library and handed over through a
+ * Future, which makes them safe to use on the game's thread. One builder thread serves every game.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+final class LevelPrebuilder {
+
+    private static final ExecutorService BUILDER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "galaga-level-builder");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    private final GalagaGame game;
+    private final int enemySize;
+    private Future<Enemy[][]> pending;
+    private int pendingCols;
+    private int pendingRows;
+
+    /**
+     * Create a builder for one game
+     * @param game The game the formations are for
+     * @param enemySize The size of every enemy
+     */
+    LevelPrebuilder(GalagaGame game, int enemySize){
+        this.game = game;
+        this.enemySize = enemySize;
+    }
+
+    /**
+     * Start building a formation in the background, replacing any unclaimed one
+     * @param cols Columns in the formation
+     * @param rows Rows in the formation
+     */
+    void prepare(int cols, int rows){
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        pendingCols = cols;
+        pendingRows = rows;
+        pending = BUILDER.submit(() -> build(game, enemySize, cols, rows));
+    }
+
+    /**
+     * Claim the prepared formation if it has the right shape and is finished. Never waits for the builder.
+     * @param cols Columns needed
+     * @param rows Rows needed
+     * @return The formation (enemies not yet placed or in the library), or null if there isn't a suitable one ready
+     */
+    Enemy[][] take(int cols, int rows){
+        Future<Enemy[][]> f = pending;
+        pending = null;
+        if (f == null || cols != pendingCols || rows != pendingRows || !f.isDone() || f.isCancelled()) {
+            if (f != null) {
+                f.cancel(false);
+            }
+            return null;
+        }
+        try {
+            return f.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException ee) {
+            return null;
+        }
+    }
+
+    /**
+     * Build a formation of fresh enemies outside the game's library
+     */
+    static Enemy[][] build(GalagaGame game, int enemySize, int cols, int rows){
+        Enemy[][] formation = new Enemy[cols][rows];
+        for (int x = 0; x < cols; x++) {
+            for (int y = 0; y < rows; y++) {
+                formation[x][y] = new Enemy(game, enemySize, new Point(0, 0), false);
+            }
+        }
+        return formation;
+    }
+}
@@ -0,0 +1,63 @@
+package Galaga;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares the cost of a tick that changes level with an ordinary tick, for the normal formation (which grows a row
+ * every other level, so alternates between a prebuilt and a recycled formation) and for a large stress formation.
+ *
+ * Usage: LevelTransitionBench [level changes] [ticks per level]
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public class LevelTransitionBench {
+
+    public static void main(String[] args){
+        int levels = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+        int ticksPerLevel = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        System.out.printf("%10s %12s %12s %12s %12s%n", "formation", "tick p50 ms", "tick max ms", "level p50 ms",
+                "level max ms");
+        run("normal", 400, 600, 0, 0, levels, ticksPerLevel);
+        run("swarm", 2000, 1200, 20, 50, levels, ticksPerLevel);
+    }
+
+    private static void run(String name, int width, int height, int rows, int cols, int levels, int ticksPerLevel){
+        GalagaGame game = new GalagaGame(width, height, 38L);
+        if (rows > 0) {
+            game.configureSwarm(rows, cols, 4, -1, 1);
+        }
+        game.getFighter().setCanCollide(false);
+        game.setSnapshotPublishing(false);
+
+        Random input = new Random(38);
+        long[] ticks = new long[levels * ticksPerLevel];
+        long[] changes = new long[levels];
+        int tick = 0;
+        int timed = 0;
+        for (int level = 0; level < levels; level++) {
+            for (int i = 0; i < ticksPerLevel; i++, tick++) {
+                long before = System.nanoTime();
+                game.handleTick(tick, true, input.nextInt(3) == 0, input.nextInt(3) == 0);
+                ticks[timed++] = System.nanoTime() - before;
+            }
+            // a level change happens inside a tick, so time it together with the tick it would be part of
+            long before = System.nanoTime();
+            game.advanceLevel();
+            game.handleTick(tick, true, false, false);
+            changes[level] = System.nanoTime() - before;
+            tick++;
+        }
+
+        // the first levels are still being compiled; leave the first half out
+        long[] steadyTicks = Arrays.copyOfRange(ticks, ticks.length / 2, ticks.length);
+        long[] steadyChanges = Arrays.copyOfRange(changes, levels / 2, levels);
+        Arrays.sort(steadyTicks);
+        Arrays.sort(steadyChanges);
+        System.out.printf("%10s %12.3f %12.3f %12.3f %12.3f%n", name, steadyTicks[steadyTicks.length / 2] / 1e6,
+                steadyTicks[steadyTicks.length - 1] / 1e6, steadyChanges[steadyChanges.length / 2] / 1e6,
+                steadyChanges[steadyChanges.length - 1] / 1e6);
+    }
+}
@@ -0,0 +1,135 @@
+package Galaga;
+
+import Galaga.Shape.Box;
+import Galaga.Shape.Circle;
+
+import java.util.Arrays;
+
+/**
+ * Tests one circle or box against a whole ShapeBatch, producing a bitmask per kind of the batch's shapes it overlaps
+ * (touching counts, as in Collisions, with the same closed-form tests). This class is the scalar kernel; create() hands
+ * out the Vector API one instead when the jdk.incubator.vector module is there and VectorNarrowPhase (built
+ * separately, from src-vector) is on the class path. ParallelTick uses it to find each mover's collisions.
+ *
+ * Kernels keep no state, so one instance can be shared by any number of threads.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+class NarrowPhase {
+
+    /**
+     * The fastest kernel this JVM can run
+     * @return The vector kernel if the incubator module is loaded and usable, otherwise the scalar one
+     */
+    static NarrowPhase create(){
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (NarrowPhase) Class.forName("Galaga.VectorNarrowPhase").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // the vector kernel wasn't built or can't link: stay scalar
+            }
+        }
+        return new NarrowPhase();
+    }
+
+    String getName(){
+        return "scalar";
+    }
+
+    /**
+     * Find every shape in the batch that overlaps a circle or a box
+     * @param query The shape to test
+     * @param batch The shapes to test against
+     * @param circleHits Receives bit k set when the batch's circle k overlaps; needs batch.maskWords() longs, of which
+     *                   only the first ShapeBatch.words(batch.circles) are written
+     * @param boxHits The same for the batch's boxes
+     * @return Whether the query could be tested: false, leaving the masks alone, for any other kind of shape
+     */
+    final boolean overlaps(Shape query, ShapeBatch batch, long[] circleHits, long[] boxHits){
+        if (query.kind() == Shape.CIRCLE) {
+            Circle c = (Circle) query;
+            float x = (float) c.centerX;
+            float y = (float) c.centerY;
+            float r = (float) c.radius;
+            circleCircles(x, y, r, batch, circleHits);
+            circleBoxes(x, y, r, batch, boxHits);
+            return true;
+        }
+        if (query.kind() == Shape.BOX) {
+            Box b = (Box) query;
+            boxCircles(b.left(), b.top(), b.right(), b.bottom(), batch, circleHits);
+            boxBoxes(b.left(), b.top(), b.right(), b.bottom(), batch, boxHits);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * A circle against the batch's circles
+     */
+    void circleCircles(float x, float y, float r, ShapeBatch batch, long[] hits){
+        Arrays.fill(hits, 0, ShapeBatch.words(batch.circles), 0L);
+        for (int k = 0; k < batch.circles; k++) {
+            float dx = x - batch.centerX[k];
+            float dy = y - batch.centerY[k];
+            float reach = r + batch.radius[k];
+            if (dx * dx + dy * dy <= reach * reach) {
+                hits[k >>> 6] |= 1L << k;
+            }
+        }
+    }
+
+    /**
+     * A circle against the batch's boxes: the distance from its centre to the nearest point of each
+     */
+    void circleBoxes(float x, float y, float r, ShapeBatch batch, long[] hits){
+        Arrays.fill(hits, 0, ShapeBatch.words(batch.boxes), 0L);
+        for (int k = 0; k < batch.boxes; k++) {
+            float dx = x - Math.max(batch.left[k], Math.min(x, batch.right[k]));
+            float dy = y - Math.max(batch.top[k], Math.min(y, batch.bottom[k]));
+            if (dx * dx + dy * dy <= r * r) {
+                hits[k >>> 6] |= 1L << k;
+            }
+        }
+    }
+
+    /**
+     * A box against the batch's circles
+     */
+    void boxCircles(float left, float top, float right, float bottom, ShapeBatch batch, long[] hits){
+        Arrays.fill(hits, 0, ShapeBatch.words(batch.circles), 0L);
+        for (int k = 0; k < batch.circles; k++) {
+            float x = batch.centerX[k];
+            float y = batch.centerY[k];
+            float r = batch.radius[k];
+            float dx = x - Math.max(left, Math.min(x, right));
+            float dy = y - Math.max(top, Math.min(y, bottom));
+            if (dx * dx + dy * dy <= r * r) {
+                hits[k >>> 6] |= 1L << k;
+            }
+        }
+    }
+
+    /**
+     * A box against the batch's boxes
+     */
+    void boxBoxes(float left, float top, float right, float bottom, ShapeBatch batch, long[] hits){
+        Arrays.fill(hits, 0, ShapeBatch.words(batch.boxes), 0L);
+        for (int k = 0; k < batch.boxes; k++) {
+            if (left <= batch.right[k] && batch.left[k] <= right && top <= batch.bottom[k] && batch.top[k] <= bottom) {
+                hits[k >>> 6] |= 1L << k;
+            }
+        }
+    }
+
+    /**
+     * Clear the bits a vector kernel set for the padding after the last shape, which may hold anything
+     * @param count How many shapes of the kind the mask is for
+     */
+    static void trim(long[] hits, int count){
+        if ((count & 63) != 0) {
+            hits[count >>> 6] &= (1L << count) - 1;
+        }
+    }
+}
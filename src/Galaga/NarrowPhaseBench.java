@@ -0,0 +1,169 @@
+package Galaga;
+
+import Galaga.Shape.Box;
+import Galaga.Shape.Circle;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Checks that both narrow phase kernels agree with Collisions on every pair, then times them at several batch sizes.
+ * The shapes are the game's own: enemy circles and projectile boxes scattered over a playfield, queried with shots
+ * (against the circles) and enemies (against the boxes), the two pairs ParallelTick batches.
+ *
+ * Usage: java --add-modules jdk.incubator.vector -cp out:out-vector Galaga.NarrowPhaseBench [parity rounds]
+ *                                                                                 [milliseconds per size]
+ * (see VectorNarrowPhase in src-vector for building it; without it, both columns time the scalar kernel)
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public class NarrowPhaseBench {
+
+    private static final int[] BATCH_SIZES = {16, 64, 256, 1024, 4096};
+    private static final int ENEMY_SIZE = 32;
+    private static final int SHOT_WIDTH = 3;
+    private static final int SHOT_HEIGHT = 10;
+    private static final int QUERIES = 64;
+
+    public static void main(String[] args){
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+
+        NarrowPhase scalar = new NarrowPhase();
+        NarrowPhase fast = NarrowPhase.create();
+        System.out.println("Kernel picked: " + fast.getName());
+
+        // parity: random batches and queries, both kernels' masks must match Collisions bit for bit
+        Random r = new Random(34);
+        long mismatches = 0;
+        long hitCount = 0;
+        for (int round = 0; round < rounds; round++) {
+            int size = 1 + r.nextInt(300);
+            Shape[] shapes = scatter(size, field(size), r);
+            ShapeBatch batch = new ShapeBatch(size);
+            for (int k = 0; k < size; k++) {
+                batch.add(shapes[k], k);
+            }
+            Shape query = randomQuery(shapes, r.nextBoolean(), r);
+            long[][] expected = expected(query, batch, shapes);
+            long[][] actual = new long[2][batch.maskWords()];
+            for (NarrowPhase kernel : new NarrowPhase[] {scalar, fast}) {
+                kernel.overlaps(query, batch, actual[0], actual[1]);
+                if (!Arrays.equals(expected[0], actual[0]) || !Arrays.equals(expected[1], actual[1])) {
+                    mismatches++;
+                }
+            }
+            for (long word : expected[0]) {
+                hitCount += Long.bitCount(word);
+            }
+            for (long word : expected[1]) {
+                hitCount += Long.bitCount(word);
+            }
+        }
+        System.out.printf("Parity: %d rounds, %d hits, %d mismatches%n", rounds, hitCount, mismatches);
+
+        System.out.printf("%8s %14s %14s %8s%n", "batch", "scalar ns/shape", "fast ns/shape", "speedup");
+        for (int size : BATCH_SIZES) {
+            // the playfield grows with the batch so the hit rate stays roughly the same
+            Shape[] shapes = scatter(size, field(size), r);
+            ShapeBatch batch = new ShapeBatch(size);
+            for (int k = 0; k < size; k++) {
+                batch.add(shapes[k], k);
+            }
+            Shape[] queries = new Shape[QUERIES];
+            for (int q = 0; q < QUERIES; q++) {
+                queries[q] = randomQuery(shapes, q % 2 == 0, r);
+            }
+            double scalarNanos = time(scalar, batch, queries, millis);
+            double fastNanos = time(fast, batch, queries, millis);
+            System.out.printf("%8d %14.2f %14.2f %7.1fx%n", size, scalarNanos, fastNanos, scalarNanos / fastNanos);
+        }
+    }
+
+    private static int field(int size){
+        return 20 * (int) Math.sqrt(size) + 200;
+    }
+
+    /**
+     * Scatter a mix of enemy circles and shot boxes over a square field
+     */
+    private static Shape[] scatter(int size, int field, Random r){
+        Shape[] shapes = new Shape[size];
+        for (int k = 0; k < size; k++) {
+            shapes[k] = r.nextBoolean() ? circle(r.nextInt(field), r.nextInt(field)) : box(r.nextInt(field),
+                    r.nextInt(field));
+        }
+        return shapes;
+    }
+
+    /**
+     * A shot or an enemy near a random shape of the batch, so a fair share of tests actually hit
+     */
+    private static Shape randomQuery(Shape[] shapes, boolean shot, Random r){
+        Shape near = shapes[r.nextInt(shapes.length)];
+        double[] corner = near.closestVertex(0, 0, new double[2]);
+        int x = (int) corner[0] + r.nextInt(ENEMY_SIZE + 20) - 10 - ENEMY_SIZE / 2;
+        int y = (int) corner[1] + r.nextInt(ENEMY_SIZE + 40) - 20 - ENEMY_SIZE / 2;
+        return shot ? box(x, y) : circle(x, y);
+    }
+
+    private static Circle circle(int left, int top){
+        Circle c = new Circle();
+        c.set(left + ENEMY_SIZE / 2.0, top + ENEMY_SIZE / 2.0, ENEMY_SIZE / 2.0);
+        return c;
+    }
+
+    private static Box box(int left, int top){
+        Box b = new Box();
+        b.set(left, top, SHOT_WIDTH, SHOT_HEIGHT);
+        return b;
+    }
+
+    /**
+     * The circle and box masks Collisions gives, testing the query against each shape in turn
+     */
+    private static long[][] expected(Shape query, ShapeBatch batch, Shape[] shapes){
+        long[][] masks = new long[2][batch.maskWords()];
+        int circles = 0;
+        int boxes = 0;
+        for (Shape shape : shapes) {
+            boolean circle = shape.kind() == Shape.CIRCLE;
+            int k = circle ? circles++ : boxes++;
+            if (Collisions.overlap(query, shape)) {
+                masks[circle ? 0 : 1][k >>> 6] |= 1L << k;
+            }
+        }
+        return masks;
+    }
+
+    /**
+     * Average cost of one shape test, after a warm-up of the same length
+     */
+    private static double time(NarrowPhase kernel, ShapeBatch batch, Shape[] queries, long millis){
+        long[] circleHits = new long[batch.maskWords()];
+        long[] boxHits = new long[batch.maskWords()];
+        long sink = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            long tests = 0;
+            long start = System.nanoTime();
+            long end = start + millis * 1_000_000L;
+            long now;
+            do {
+                for (Shape query : queries) {
+                    kernel.overlaps(query, batch, circleHits, boxHits);
+                    sink += circleHits[0] + boxHits[0];
+                }
+                tests += (long) queries.length * (batch.circles + batch.boxes);
+                now = System.nanoTime();
+            } while (now < end);
+            if (pass == 1) {
+                if (sink == 42) {
+                    System.out.print(""); // keep the results alive
+                }
+                return (now - start) / (double) tests;
+            }
+        }
+        return Double.NaN;
+    }
+}
@@ -0,0 +1,437 @@
+package Galaga;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs one movement phase of a tick (the cluster's step, or the shots') on a fork/join pool without changing its
+ * outcome. The serial loops move the actors one after another, each checking for collisions against the library as it
+ * stands at that moment. Here the new positions, and for every mover the actors it will land on, are worked out in
+ * parallel, since both only read the game. Then, back on the game thread, the movers are placed in their original order
+ * and the collisions found for each are dispatched in library order with the same checks as Actor.setLocation, so
+ * deaths, scores and the random draws of finishing paths come out exactly as in the serial game.
+ *
+ * The actors that stay put during the phase are packed into a ShapeBatch when it starts, and the movers other than
+ * enemies into two more, once where they start and once where they're going, so each mover finds its collisions with a
+ * few NarrowPhase calls instead of a test per actor. Enemies, which enemy movers skip anyway, and shapes the batches
+ * don't take are still tested one by one.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+final class ParallelTick {
+
+    static final int MIN_MOVERS = 64; // smaller phases are quicker to run serially than to split
+    private static final int GRAIN = 32; // movers per fork/join task
+    private static final int STEP = 0; // the parallel passes
+    private static final int FIND = 1;
+
+    private final ForkJoinPool pool;
+    private final NarrowPhase narrowPhase = NarrowPhase.create();
+    private final ThreadLocal<long[][]> masks = ThreadLocal.withInitial(() -> new long[2][0]); // circle and box hits
+
+    private int count = 0;
+    private Actor[] movers = new Actor[MIN_MOVERS];
+    private TravelingPath[] paths = new TravelingPath[MIN_MOVERS];
+    private int[] targetX = new int[MIN_MOVERS];
+    private int[] targetY = new int[MIN_MOVERS];
+    private Shape[] moved = new Shape[MIN_MOVERS]; // each mover's shape where it's going, null if it has none
+    private int[] libraryIndex = new int[MIN_MOVERS];
+    private int[][] hits = new int[MIN_MOVERS][]; // library indices each mover lands on, in library order
+    private int[] hitCount = new int[MIN_MOVERS];
+    private boolean[] fullScan = new boolean[MIN_MOVERS]; // movers without a shape check the library the old way
+
+    private Actor[] library = new Actor[0];
+    private int librarySize = 0;
+
+    // the live, collidable shapes of the library at the start of the phase: those that stay put, batched; the movers
+    // that aren't enemies, batched where they start and where they're going; and the rest by library index, enemies
+    // apart since enemy movers skip them
+    private ShapeBatch batch = new ShapeBatch(0);
+    private ShapeBatch startBatch = new ShapeBatch(0);
+    private ShapeBatch movedBatch = new ShapeBatch(0);
+    private int[] unbatched = new int[16];
+    private int unbatchedCount = 0;
+    private int[] unbatchedEnemies = new int[16];
+    private int unbatchedEnemyCount = 0;
+
+    // library indices tested live during the merge: actors without a shape, and travelers that jumped when their path
+    // finished (so what was found for them in parallel is out of date)
+    private int[] recheck = new int[16];
+    private int recheckCount = 0;
+
+    /**
+     * @param pool The pool to split phases across
+     */
+    ParallelTick(ForkJoinPool pool){
+        this.pool = pool;
+    }
+
+    /**
+     * Start collecting the movers of a new phase
+     */
+    void begin(){
+        count = 0;
+    }
+
+    /**
+     * Add an actor that moves to a given spot this phase
+     * @param mover The actor
+     * @param x Its new x coordinate
+     * @param y Its new y coordinate
+     */
+    void add(Actor mover, int x, int y){
+        int i = grow();
+        movers[i] = mover;
+        paths[i] = null;
+        targetX[i] = x;
+        targetY[i] = y;
+    }
+
+    /**
+     * Add an actor that takes the next step along its path this phase
+     * @param mover The actor
+     * @param path Its path
+     */
+    void addTraveler(Actor mover, TravelingPath path){
+        int i = grow();
+        movers[i] = mover;
+        paths[i] = path;
+    }
+
+    /**
+     * How many movers the phase has so far
+     */
+    int size(){
+        return count;
+    }
+
+    /**
+     * Move everything added since begin(), in the order added, with collisions against the given library
+     * @param collLibrary The game's collision library; must not change during the phase
+     */
+    void run(ActorLibrary collLibrary){
+        library = collLibrary.toArray(library);
+        librarySize = collLibrary.size();
+        for (int i = 0; i < count; i++) {
+            movers[i].tickSlot = i;
+        }
+        Arrays.fill(libraryIndex, 0, count, -1);
+        recheckCount = 0;
+        if (batch.capacity() < librarySize) {
+            batch = new ShapeBatch(librarySize * 2);
+            startBatch = new ShapeBatch(librarySize * 2);
+            movedBatch = new ShapeBatch(librarySize * 2);
+        }
+        batch.clear();
+        startBatch.clear();
+        movedBatch.clear();
+        unbatchedCount = 0;
+        unbatchedEnemyCount = 0;
+        for (int l = 0; l < librarySize; l++) {
+            Actor a = library[l];
+            if (a.tickSlot >= 0) {
+                libraryIndex[a.tickSlot] = l;
+            }
+            if (!a.canCollide() || !a.isAlive()) {
+                continue;
+            }
+            boolean enemy = a instanceof Enemy;
+            if (a.shape == null) {
+                addRecheck(l);
+            } else if (a.tickSlot < 0 ? !batch.add(a.shape, l) : enemy || !startBatch.add(a.shape, l)) {
+                addUnbatched(l, enemy);
+            }
+        }
+
+        pool.invoke(new Slice(STEP, 0, count));
+        // moving keeps a shape's kind, so the new shapes land at the same indices as the old ones
+        for (int k = 0; k < startBatch.circles; k++) {
+            movedBatch.add(moved[library[startBatch.circleTags[k]].tickSlot], startBatch.circleTags[k]);
+        }
+        for (int k = 0; k < startBatch.boxes; k++) {
+            movedBatch.add(moved[library[startBatch.boxTags[k]].tickSlot], startBatch.boxTags[k]);
+        }
+        pool.invoke(new Slice(FIND, 0, count));
+        merge();
+
+        for (int i = 0; i < count; i++) {
+            movers[i].tickSlot = -1;
+        }
+        // don't keep the phase's actors reachable after they're gone from the game
+        Arrays.fill(movers, 0, count, null);
+        Arrays.fill(paths, 0, count, null);
+        Arrays.fill(library, 0, librarySize, null);
+    }
+
+    /**
+     * Work out where mover i goes, and its shape there
+     */
+    private void step(int i){
+        Actor a = movers[i];
+        TravelingPath path = paths[i];
+        if (path != null) {
+            path.step();
+            targetX[i] = path.getNextX();
+            targetY[i] = path.getNextY();
+        }
+        if (a.shape == null) {
+            moved[i] = null;
+        } else {
+            Point p = a.getPos();
+            moved[i] = a.shape.translated(targetX[i] - p.x, targetY[i] - p.y, moved[i]);
+        }
+    }
+
+    /**
+     * Find everything mover i will overlap once it has moved: the movers before it at their new spots, the rest where
+     * they are now. Anything dead or ghostly at the start of the phase is skipped, since nothing in a phase revives.
+     * @param circleHits Scratch for the narrow phase's circle mask
+     * @param boxHits Scratch for its box mask
+     */
+    private void find(int i, long[] circleHits, long[] boxHits){
+        Actor a = movers[i];
+        hitCount[i] = 0;
+        fullScan[i] = false;
+        if (!a.canCollide() || !a.isAlive()) {
+            return;
+        }
+        Shape shape = moved[i];
+        if (shape == null) {
+            fullScan[i] = true;
+            return;
+        }
+        boolean enemy = a instanceof Enemy;
+        find(i, a, enemy, shape, batch, 0, circleHits, boxHits);
+        find(i, a, enemy, shape, movedBatch, -1, circleHits, boxHits);
+        find(i, a, enemy, shape, startBatch, 1, circleHits, boxHits);
+        for (int u = 0; u < unbatchedCount; u++) {
+            test(i, a, enemy, shape, unbatched[u]);
+        }
+        if (!enemy) {
+            for (int u = 0; u < unbatchedEnemyCount; u++) {
+                test(i, a, enemy, shape, unbatchedEnemies[u]);
+            }
+        }
+        // each batch's kinds and the unbatched actors come in library order, but not all together
+        if (hitCount[i] > 1) {
+            Arrays.sort(hits[i], 0, hitCount[i]);
+        }
+    }
+
+    /**
+     * Find what mover i lands on among one batch's shapes
+     * @param side 0 for the batch of actors that stay put; for the movers' batches, which movers its hits count for:
+     *             -1 for those before i (the batch has their new shapes), 1 for those after it (their current ones)
+     */
+    private void find(int i, Actor a, boolean enemy, Shape shape, ShapeBatch b, int side, long[] circleHits,
+                      long[] boxHits){
+        if (narrowPhase.overlaps(shape, b, circleHits, boxHits)) {
+            addHits(i, enemy, side, circleHits, b.circleTags, b.circles);
+            addHits(i, enemy, side, boxHits, b.boxTags, b.boxes);
+        } else if (side <= 0) {
+            // a kind the kernels don't take: one by one, which picks each mover's new or old shape by itself
+            for (int k = 0; k < b.circles; k++) {
+                test(i, a, enemy, shape, b.circleTags[k]);
+            }
+            for (int k = 0; k < b.boxes; k++) {
+                test(i, a, enemy, shape, b.boxTags[k]);
+            }
+        }
+    }
+
+    /**
+     * Record the batched shapes a narrow phase mask says mover i lands on
+     */
+    private void addHits(int i, boolean enemy, int side, long[] mask, int[] tags, int count){
+        for (int w = 0; w < ShapeBatch.words(count); w++) {
+            long bits = mask[w];
+            while (bits != 0) {
+                int l = tags[(w << 6) + Long.numberOfTrailingZeros(bits)];
+                bits &= bits - 1;
+                Actor other = library[l];
+                int slot = other.tickSlot;
+                if (side != 0 && (slot == i || slot < i != side < 0)) {
+                    continue;
+                }
+                if (!(enemy && other instanceof Enemy)) {
+                    addHit(i, l);
+                }
+            }
+        }
+    }
+
+    /**
+     * Test mover i's new shape against one actor of the library, using the actor's new shape if it has already moved
+     */
+    private void test(int i, Actor a, boolean enemy, Shape shape, int l){
+        Actor other = library[l];
+        if (other == a || (enemy && other instanceof Enemy)) {
+            return;
+        }
+        int slot = other.tickSlot;
+        Shape otherShape = slot >= 0 && slot < i ? moved[slot] : other.shape;
+        if (Collisions.overlap(shape, otherShape)) {
+            addHit(i, l);
+        }
+    }
+
+    private void addHit(int i, int l){
+        int[] found = hits[i];
+        if (found == null || hitCount[i] == found.length) {
+            hits[i] = found = found == null ? new int[4] : Arrays.copyOf(found, found.length * 2);
+        }
+        found[hitCount[i]++] = l;
+    }
+
+    /**
+     * Place the movers in order and dispatch their collisions, as the serial loop would have
+     */
+    private void merge(){
+        for (int i = 0; i < count; i++) {
+            Actor a = movers[i];
+            a.place(targetX[i], targetY[i]);
+            if (fullScan[i]) {
+                a.collide();
+            } else if (a.canCollide() && a.isAlive()) {
+                dispatch(i, a);
+            }
+            TravelingPath path = paths[i];
+            if (path != null && path.isFinished()) {
+                path.finished();
+                addRecheck(libraryIndex[i]);
+            }
+        }
+    }
+
+    /**
+     * Dispatch mover i's collisions: what was found in parallel, and live tests against the recheck list, interleaved
+     * in library order
+     */
+    private void dispatch(int i, Actor a){
+        int[] found = hits[i];
+        int foundCount = hitCount[i];
+        boolean enemy = a instanceof Enemy;
+        int f = 0;
+        int r = 0;
+        while (f < foundCount || r < recheckCount) {
+            int l;
+            boolean live;
+            if (r < recheckCount && (f == foundCount || recheck[r] <= found[f])) {
+                l = recheck[r++];
+                live = true;
+                if (f < foundCount && found[f] == l) {
+                    f++; // stale, the live test decides
+                }
+            } else {
+                l = found[f++];
+                live = false;
+            }
+            Actor other = library[l];
+            if (other == a || !other.isAlive() || !other.canCollide() || (enemy && other instanceof Enemy)) {
+                continue;
+            }
+            if (live && !a.collidesWith(other)) {
+                continue;
+            }
+            a.handleCollision(other);
+            other.handleCollision(a);
+        }
+    }
+
+    /**
+     * Add a library index to the (sorted) recheck list
+     */
+    private void addRecheck(int l){
+        if (l < 0) {
+            return;
+        }
+        int at = Arrays.binarySearch(recheck, 0, recheckCount, l);
+        if (at >= 0) {
+            return;
+        }
+        at = -at - 1;
+        if (recheckCount == recheck.length) {
+            recheck = Arrays.copyOf(recheck, recheck.length * 2);
+        }
+        System.arraycopy(recheck, at, recheck, at + 1, recheckCount - at);
+        recheck[at] = l;
+        recheckCount++;
+    }
+
+    /**
+     * Add a library index to the actors tested one by one
+     */
+    private void addUnbatched(int l, boolean enemy){
+        if (enemy) {
+            if (unbatchedEnemyCount == unbatchedEnemies.length) {
+                unbatchedEnemies = Arrays.copyOf(unbatchedEnemies, unbatchedEnemies.length * 2);
+            }
+            unbatchedEnemies[unbatchedEnemyCount++] = l;
+        } else {
+            if (unbatchedCount == unbatched.length) {
+                unbatched = Arrays.copyOf(unbatched, unbatched.length * 2);
+            }
+            unbatched[unbatchedCount++] = l;
+        }
+    }
+
+    /**
+     * Make room for one more mover
+     * @return Its index
+     */
+    private int grow(){
+        if (count == movers.length) {
+            int size = movers.length * 2;
+            movers = Arrays.copyOf(movers, size);
+            paths = Arrays.copyOf(paths, size);
+            targetX = Arrays.copyOf(targetX, size);
+            targetY = Arrays.copyOf(targetY, size);
+            moved = Arrays.copyOf(moved, size);
+            libraryIndex = Arrays.copyOf(libraryIndex, size);
+            hits = Arrays.copyOf(hits, size);
+            hitCount = Arrays.copyOf(hitCount, size);
+            fullScan = Arrays.copyOf(fullScan, size);
+        }
+        return count++;
+    }
+
+    /**
+     * A range of movers for one of the parallel passes, split in halves down to GRAIN
+     */
+    private final class Slice extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int pass;
+        private final int from;
+        private final int to;
+
+        Slice(int pass, int from, int to){
+            this.pass = pass;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute(){
+            if (to - from > GRAIN) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Slice(pass, from, middle), new Slice(pass, middle, to));
+                return;
+            }
+            long[][] scratch = masks.get();
+            if (scratch[0].length < batch.maskWords()) {
+                scratch[0] = new long[batch.maskWords()];
+                scratch[1] = new long[batch.maskWords()];
+            }
+            for (int i = from; i < to; i++) {
+                if (pass == STEP) {
+                    step(i);
+                } else {
+                    find(i, scratch[0], scratch[1]);
+                }
+            }
+        }
+    }
+}
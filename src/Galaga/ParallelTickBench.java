@@ -0,0 +1,76 @@
+package Galaga;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Plays the same big swarm twice in lockstep, once with the serial loops and once with the parallel tick phases, and
+ * compares the full saved state after every tick. Reports whether the two ever differed and how long ticks took
+ * each way.
+ *
+ * Usage: ParallelTickBench [ticks per size] [threads] [swoop concurrency as % of enemies]
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public class ParallelTickBench {
+
+    private static final int[] SIZES = {500, 2000, 8000};
+    private static final int CELL = 36; // enemy size plus spacing
+
+    public static void main(String[] args){
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int swoopPercent = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        System.out.printf("%d worker threads, %d cores%n", threads, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%8s %8s %12s %12s %10s %10s%n", "enemies", "score", "serial ms", "parallel ms", "speedup",
+                "states");
+        for (int size : SIZES) {
+            int rows = Math.max(1, (int) Math.sqrt(size / 2.0));
+            int cols = (size + rows - 1) / rows;
+            GalagaGame serial = create(rows, cols, swoopPercent, size);
+            GalagaGame parallel = create(rows, cols, swoopPercent, size);
+            parallel.setParallelTicks(pool);
+
+            SavedState serialState = new SavedState(1 << 16);
+            SavedState parallelState = new SavedState(1 << 16);
+            Random input = new Random(size);
+            long serialNanos = 0;
+            long parallelNanos = 0;
+            int firstDifference = -1;
+            for (int tick = 0; tick < ticks; tick++) {
+                boolean right = input.nextInt(3) == 0;
+                boolean left = input.nextInt(3) == 0;
+                long before = System.nanoTime();
+                serial.handleTick(tick, true, right, left);
+                long middle = System.nanoTime();
+                parallel.handleTick(tick, true, right, left);
+                parallelNanos += System.nanoTime() - middle;
+                serialNanos += middle - before;
+
+                serial.saveState(serialState);
+                parallel.saveState(parallelState);
+                if (firstDifference < 0 && !serialState.sameAs(parallelState)) {
+                    firstDifference = tick;
+                }
+            }
+            System.out.printf("%8d %8d %12.3f %12.3f %9.2fx %10s%n", rows * cols, serial.getScore(),
+                    serialNanos / 1e6 / ticks, parallelNanos / 1e6 / ticks, serialNanos / (double) parallelNanos,
+                    firstDifference < 0 ? "identical" : "differ@" + firstDifference);
+        }
+        pool.shutdown();
+    }
+
+    /**
+     * A swarm game on a playfield big enough for the formation, with a fighter that can't be hit
+     */
+    private static GalagaGame create(int rows, int cols, int swoopPercent, long seed){
+        GalagaGame game = new GalagaGame(cols * CELL + 80, rows * CELL + 400, seed);
+        game.configureSwarm(rows, cols, Math.max(1, rows * cols * swoopPercent / 100), 2, 4);
+        game.getFighter().setCanCollide(false);
+        game.setSnapshotPublishing(false);
+        return game;
+    }
+}
@@ -0,0 +1,141 @@
+package Galaga;
+
+import com.sun.management.ThreadMXBean;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Worst case for explosions: a whole formation shot down in the same tick. Times the frames after the wave clear (the
+ * snapshot and drawing it) with no particle budget and with smaller ones, and checks that moving and copying the
+ * particles allocates nothing. First checks that real shot kills explode, in a seeded game.
+ *
+ * Usage: ParticleBench [enemies] [frames after the clear]
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public class ParticleBench {
+
+    private static final double TICK_MILLIS = 23;
+
+    public static void main(String[] args){
+        System.setProperty("java.awt.headless", "true");
+        int enemies = args.length > 0 ? Integer.parseInt(args[0]) : 600;
+        int frames = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+
+        // every tick that shoots an enemy down should start an explosion
+        GalagaGame played = new GalagaGame(400, 600, 5);
+        int kills = 0;
+        int exploding = 0;
+        for (int tick = 0; tick < 3000 && played.isRunning(); tick++) {
+            played.getParticles().clear();
+            int score = played.getScore();
+            int alive = livingEnemies(played);
+            played.handleTick(tick, true, tick % 40 < 20, tick % 40 >= 20);
+            if (played.getScore() > score && livingEnemies(played) < alive) {
+                kills++;
+                exploding += played.getParticles().count > 0 ? 1 : 0;
+            }
+        }
+        System.out.printf("Seed 5: %d of %d ticks with a shot kill started an explosion%n", exploding, kills);
+
+        int[] budgets = {ParticlePool.DEFAULT_CAPACITY, GalagaGame.DEFAULT_PARTICLE_BUDGET, 256};
+        System.out.printf("%d enemies cleared at once, %d frames after; a tick is %.0f ms%n", enemies, frames,
+                TICK_MILLIS);
+        System.out.printf("%8s %10s %12s %12s %12s %10s%n", "budget", "particles", "before ms", "worst ms", "mean ms",
+                "shrunk");
+        for (int round = 0; round < 3; round++) {
+            // the first rounds only warm up
+            for (int budget : budgets) {
+                run(enemies, frames, budget, round == 2);
+            }
+        }
+
+        // moving the particles and copying them into a snapshot must not allocate
+        GalagaGame game = new GalagaGame(400, 600, 1);
+        ParticlePool pool = game.getParticles();
+        RenderSnapshot snapshot = new RenderSnapshot();
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocated = 0;
+        for (int i = 0; i < 20_000; i++) {
+            if (i == 10_000) {
+                allocated = threads.getCurrentThreadAllocatedBytes();
+            }
+            if (i % 20 == 0) {
+                game.explode(game.getFighter(), PlayerFighter.COLOR, 2);
+            }
+            pool.update();
+            snapshot.setParticles(pool, 0, 0, 400, 600, GalagaGame.DEFAULT_PARTICLE_BUDGET);
+        }
+        allocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+        System.out.printf("10000 updates and copies: %d bytes allocated%n", allocated);
+    }
+
+    /**
+     * Shoot down a whole formation in one tick and time the frames that follow
+     */
+    private static void run(int enemies, int frames, int budget, boolean print){
+        int rows = Math.max(1, (int) Math.sqrt(enemies / 2.0));
+        int cols = (enemies + rows - 1) / rows;
+        int width = Math.max(400, cols * 36 + 80);
+        int height = Math.max(600, rows * 36 + 400);
+
+        GalagaGame game = new GalagaGame(width, height, enemies);
+        game.configureSwarm(rows, cols, 0, 1 << 12, 0);
+        game.getFighter().setCanCollide(false);
+        game.setParticleBudget(budget);
+        GalagaPanel panel = new GalagaPanel(game);
+        BufferedImage frame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = frame.createGraphics();
+
+        int tick = 0;
+        double before = 0;
+        for (; tick < 30; tick++) {
+            before = Math.max(before, frame(game, panel, g, tick, width, height));
+        }
+        for (Actor a : game.collLibrary) {
+            if (a instanceof Enemy && a.isAlive()) {
+                a.setAlive(false);
+                game.explode(a, 0xFF0000, 1);
+            }
+        }
+        int peak = game.getParticles().count;
+        double worst = 0;
+        double total = 0;
+        for (int i = 0; i < frames; i++, tick++) {
+            double millis = frame(game, panel, g, tick, width, height);
+            worst = Math.max(worst, millis);
+            total += millis;
+        }
+        g.dispose();
+        if (print) {
+            System.out.printf("%8d %10d %12.3f %12.3f %12.3f %10d%n", budget, peak, before, worst, total / frames,
+                    game.getParticles().getShrunk());
+        }
+    }
+
+    private static int livingEnemies(GalagaGame game){
+        int alive = 0;
+        for (Actor a : game.collLibrary) {
+            if (a instanceof Enemy && a.isAlive()) {
+                alive++;
+            }
+        }
+        return alive;
+    }
+
+    /**
+     * Run one tick and draw it
+     * @return The render cost: publishing the snapshot and drawing it, in milliseconds
+     */
+    private static double frame(GalagaGame game, GalagaPanel panel, Graphics2D g, int tick, int width, int height){
+        game.handleTick(tick, false, false, false);
+        long start = System.nanoTime();
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, width, height);
+        panel.drawSnapshot(game.getSnapshots().latest(), g);
+        return (System.nanoTime() - start + game.getPhaseNanos(GalagaGame.PHASE_PUBLISH)) / 1e6;
+    }
+}
@@ -0,0 +1,150 @@
+package Galaga;
+
+/**
+ * The sparks and debris of explosions, stored like BulletField as parallel arrays of a fixed capacity, so spawning,
+ * moving and expiring them is a few tight loops that never allocate. Purely for show: nothing in the simulation reads
+ * them, and they draw from their own generator so they never disturb the game's random sequence.
+ *
+ * When the pool fills up, explosions shrink instead of stopping: each burst gets a share of what it asked for in
+ * proportion to the room left, so a whole wave dying at once still shows every explosion, just thinner.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+final class ParticlePool {
+
+    static final int DEFAULT_CAPACITY = 4096;
+    static final int SPARK_COLOR = 0xFFFFAA;
+
+    private static final int DIRECTIONS = 64;
+    private static final float[] DIR_X = new float[DIRECTIONS];
+    private static final float[] DIR_Y = new float[DIRECTIONS];
+    private static final float DRAG = 0.94f;
+    private static final float GRAVITY = 0.05f; // debris only; sparks just fade
+
+    static {
+        for (int i = 0; i < DIRECTIONS; i++) {
+            DIR_X[i] = (float) Math.cos(2 * Math.PI * i / DIRECTIONS);
+            DIR_Y[i] = (float) Math.sin(2 * Math.PI * i / DIRECTIONS);
+        }
+    }
+
+    final float[] x;
+    final float[] y;
+    final float[] vx;
+    final float[] vy;
+    final float[] fall;
+    final int[] life; // ticks left
+    final int[] color;
+    final byte[] size;
+    int count = 0;
+    private int noise = 0x9E3779B9; // xorshift state
+    private int shrunk = 0;
+
+    /**
+     * Create an empty pool
+     * @param capacity The most particles that can be alive at once
+     */
+    ParticlePool(int capacity){
+        x = new float[capacity];
+        y = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        fall = new float[capacity];
+        life = new int[capacity];
+        color = new int[capacity];
+        size = new byte[capacity];
+    }
+
+    /**
+     * Throw particles out in every direction from a point
+     * @param cx The centre x
+     * @param cy The centre y
+     * @param rgb Their colour, as 0xRRGGBB
+     * @param requested How many, with the pool empty
+     * @param speed The fastest initial speed, in pixels per tick
+     * @param ticks The longest they live
+     * @param debris Whether they are heavier debris (bigger, falling) rather than sparks
+     */
+    void burst(float cx, float cy, int rgb, int requested, float speed, int ticks, boolean debris){
+        int free = x.length - count;
+        int n = Math.min(free, (requested * free + x.length - 1) / x.length);
+        if (n < requested) {
+            shrunk += requested - n;
+        }
+        byte particleSize = (byte) (debris ? 2 : 1);
+        float gravity = debris ? GRAVITY : 0;
+        for (int i = count; i < count + n; i++) {
+            int r = next();
+            int direction = r & (DIRECTIONS - 1);
+            float v = speed * (0.25f + 0.75f * ((r >>> 8) & 0xFF) / 255f);
+            x[i] = cx;
+            y[i] = cy;
+            vx[i] = DIR_X[direction] * v;
+            vy[i] = DIR_Y[direction] * v;
+            fall[i] = gravity;
+            life[i] = ticks / 2 + ((r >>> 16) & 0xFFFF) % (ticks / 2 + 1);
+            color[i] = rgb;
+            size[i] = particleSize;
+        }
+        count += n;
+    }
+
+    /**
+     * Move every particle one tick and drop the ones that burnt out, keeping the rest in order (so each burst stays
+     * together, one colour change to draw it)
+     */
+    void update(){
+        int n = count;
+        for (int i = 0; i < n; i++) {
+            x[i] += vx[i];
+            y[i] += vy[i];
+            vx[i] *= DRAG;
+            vy[i] = vy[i] * DRAG + fall[i];
+            life[i]--;
+        }
+
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            if (life[i] > 0) {
+                if (kept != i) {
+                    x[kept] = x[i];
+                    y[kept] = y[i];
+                    vx[kept] = vx[i];
+                    vy[kept] = vy[i];
+                    fall[kept] = fall[i];
+                    life[kept] = life[i];
+                    color[kept] = color[i];
+                    size[kept] = size[i];
+                }
+                kept++;
+            }
+        }
+        count = kept;
+    }
+
+    /**
+     * Drop every particle, e.g. when the game jumps to a saved state
+     */
+    void clear(){
+        count = 0;
+    }
+
+    int getCapacity(){
+        return x.length;
+    }
+
+    /**
+     * How many particles bursts asked for but didn't get because the pool was filling up
+     */
+    int getShrunk(){
+        return shrunk;
+    }
+
+    private int next(){
+        noise ^= noise << 13;
+        noise ^= noise >>> 17;
+        noise ^= noise << 5;
+        return noise;
+    }
+}
@@ -1,7 +1,5 @@
 package Galaga;
 
-import java.awt.*;
-
 /**
  * The Actor controlled by the user. Fights. Is green. Can fire weapon.
  *
@@ -10,18 +8,17 @@ import java.awt.*;
  */
 class PlayerFighter extends Actor {
 
+    static final int COLOR = 0x00FF00;
+
     /**
-     * Draw the playerFighter with some graphics
-     * @param g The graphics to draw with
+     * Record the playerFighter as a triangle pointing up within its bounds
+     * @param snapshot The snapshot to record into
      */
     @Override
-    void drawActor(Graphics g) {
-        // generate the new points if necessary
-        //generateRepresentation();
-        g.setColor(Color.GREEN);
-        g.fillPolygon(xVals,
-                yVals,
-                3);
+    void recordSnapshot(RenderSnapshot snapshot) {
+        Point p = getPos();
+        Dimension s = getSize();
+        snapshot.add(RenderSnapshot.SHAPE_TRIANGLE, COLOR, p.x, p.y, s.width, s.height);
     }
 
     /**
@@ -30,17 +27,13 @@ class PlayerFighter extends Actor {
     @Override
     void generateRepresentation() {
 
-        // set the easy-to-read points of a triangle
+        // the easy-to-read points of a triangle, offset by the actual position of the actor
+        if (shape == null) {
+            shape = new Shape.Triangle();
+        }
         Dimension s = getSize();
         Point p = this.getPos();
-        xVals = new int[]{s.width / 2, s.width, 0};
-        yVals = new int[]{0, s.height, s.height};
-
-        // now offset all those points by the actual position of the actor
-        for (int i = 0; i < xVals.length; i++) {
-            xVals[i] += p.x;
-            yVals[i] += p.y;
-        }
+        ((Shape.Triangle) shape).set(p.x + s.width / 2, p.y, p.x + s.width, p.y + s.height, p.x, p.y + s.height);
     }
 
     /**
@@ -0,0 +1,38 @@
+package Galaga;
+
+/**
+ * A location in level coordinates. The game model uses this rather than java.awt.Point so that simulating a game never
+ * loads AWT (see HeadlessSimulator); only the drawing code deals in AWT types.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+final class Point {
+
+    int x;
+    int y;
+
+    Point(int x, int y){
+        this.x = x;
+        this.y = y;
+    }
+
+    Point(Point other){
+        this(other.x, other.y);
+    }
+
+    @Override
+    public boolean equals(Object o){
+        return o instanceof Point && ((Point) o).x == x && ((Point) o).y == y;
+    }
+
+    @Override
+    public int hashCode(){
+        return 31 * x + y;
+    }
+
+    @Override
+    public String toString(){
+        return "(" + x + ", " + y + ")";
+    }
+}
@@ -1,7 +1,5 @@
 package Galaga;
 
-import java.awt.*;
-
 /**
  * A moving actor 'fired' between other actors to collide with them.
  *
@@ -13,6 +11,7 @@ class Projectile extends Actor{
 
     private static final int width = 2;
     static final int height = 8;
+    private static final int COLOR = 0xFFFFFF;
 
     private int momentumX = 0;
     private int momentumY = 0;
@@ -25,10 +24,22 @@ class Projectile extends Actor{
      * @param modY The amount to move in Y distance per move
      */
     public Projectile(GalagaGame parent, int x, int y, int modX, int modY){
+        this(parent, x, y, modX, modY, false);
+    }
+
+    /**
+     * Create a new projectile (shot), optionally without checking for collisions where it appears
+     * @param quiet Place the projectile without colliding, e.g. when restoring a saved game
+     */
+    Projectile(GalagaGame parent, int x, int y, int modX, int modY, boolean quiet){
         // appease the super in case
         super(parent);
-        this.setLocation(x, y);
-        this.setSize(new Dimension(width, height));
+        this.setSize(new Dimension(width, height)); // before placing it, so the grid knows how far it reaches
+        if (quiet) {
+            this.place(x, y);
+        } else {
+            this.setLocation(x, y);
+        }
         this.momentumX = modX;
         this.momentumY = modY;
 
@@ -39,33 +50,40 @@ class Projectile extends Actor{
      * Move the projectile its given momentum/distance.
      */
     public void move(){
-        Point previousLocation = this.getPos();
-        setLocation(previousLocation.x + momentumX, previousLocation.y + momentumY);
+        setLocation(getX() + momentumX, getY() + momentumY);
+    }
+
+    int getMomentumX(){
+        return momentumX;
+    }
+
+    /**
+     * Get the vertical distance the projectile moves per step (negative is up, toward the enemies)
+     * @return The y momentum
+     */
+    int getMomentumY(){
+        return momentumY;
     }
 
     /**
-     * Draw the projectile as necessary
-     * @param g The graphics object to draw with
+     * Record the projectile as a white bar
+     * @param snapshot The snapshot to record into
      */
     @Override
-    void drawActor(Graphics g) {
-        g.setColor(Color.WHITE);
+    void recordSnapshot(RenderSnapshot snapshot) {
         Point currentLocation = this.getPos();
-        g.fillRect(currentLocation.x, currentLocation.y, width, height);
+        snapshot.add(RenderSnapshot.SHAPE_RECT, COLOR, currentLocation.x, currentLocation.y, width, height);
     }
 
     /**
-     * Create the individual X and Y arrays to represent the actor
+     * Place the projectile's collision box
      */
     @Override
     void generateRepresentation() {
-        Point p = this.getPos();
-        this.xVals = new int[] { 0, width, width , 0};
-        this.yVals = new int[] { 0, 0, height, height };
-        for (int i = 0; i < xVals.length; i++) {
-            xVals[i] += p.x;
-            yVals[i] += p.y;
+        if (shape == null) {
+            shape = new Shape.Box();
         }
+        ((Shape.Box) shape).set(getX(), getY(), width, height);
     }
 
     /**
@@ -74,7 +92,11 @@ class Projectile extends Actor{
      */
     @Override
     void handleCollision(Actor other) {
-        other.setAlive(false);
+        if (other instanceof Enemy) {
+            ((Enemy) other).destroy();
+        } else {
+            other.setAlive(false);
+        }
         setAlive(false);
     }
 }
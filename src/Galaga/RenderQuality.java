@@ -0,0 +1,157 @@
+package Galaga;
+
+import java.util.Arrays;
+
+/**
+ * Picks how nicely GalagaPanel draws, from the paint times of recent frames. Each tier gives up one more thing:
+ *
+ *   0  antialiased, quality-hinted sprites; the score redrawn every frame
+ *   1  sprites without antialiasing or quality hints
+ *   2  plain primitives instead of sprites; the score redrawn every 4th frame; every other explosion particle
+ *   3  as 2, drawn at 3/4 resolution and scaled up; the score every 8th frame
+ *   4  as 3, at half resolution; every 4th explosion particle
+ *
+ * Frames are judged a window at a time by their 90th percentile paint time. A window over DOWN_AT of the budget
+ * drops a tier at once. Going back up takes several windows in a row under UP_AT, and twice as many each time a
+ * tier that was just climbed back to proves too slow again, so the controller settles instead of flip-flopping.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+final class RenderQuality {
+
+    static final int TIERS = 5;
+    private static final boolean[] ANTIALIAS = {true, false, false, false, false};
+    private static final boolean[] SPRITES = {true, true, false, false, false};
+    private static final int[] HUD_INTERVAL = {1, 1, 4, 8, 8};
+    private static final double[] SCALE = {1, 1, 1, 0.75, 0.5};
+    private static final int[] PARTICLE_STRIDE = {1, 1, 2, 2, 4};
+
+    private static final int WINDOW = 30; // frames per decision
+    private static final double DOWN_AT = 0.9; // of the budget
+    private static final double UP_AT = 0.5;
+    private static final int UP_WINDOWS = 4;
+    private static final int MAX_UP_WINDOWS = 64;
+
+    private final long budgetNanos;
+    private GameMetrics metrics;
+    private int tier = 0;
+    private final long[] frames = new long[WINDOW];
+    private final long[] sorted = new long[WINDOW];
+    private int frameCount = 0;
+    private int comfortable = 0; // windows in a row under UP_AT
+    private final int[] upWindows = new int[TIERS]; // comfortable windows needed to climb to each tier
+    private boolean climbed = false; // whether the last change was a step up
+
+    /**
+     * @param budgetNanos How long painting a frame may take
+     * @param metrics Where to report tiers and decisions, or null
+     */
+    RenderQuality(long budgetNanos, GameMetrics metrics){
+        this.budgetNanos = budgetNanos;
+        this.metrics = metrics;
+        Arrays.fill(upWindows, UP_WINDOWS);
+    }
+
+    /**
+     * Report to a different metrics object (e.g. a new game's), starting with the current tier
+     */
+    void setMetrics(GameMetrics metrics){
+        this.metrics = metrics;
+        if (metrics != null) {
+            metrics.recordFrames(tier, 0, 0);
+        }
+    }
+
+    /**
+     * Record one frame's paint time, possibly changing tier
+     * @param nanos How long the frame took to paint
+     */
+    void frameRendered(long nanos){
+        frames[frameCount++] = nanos;
+        if (frameCount == WINDOW) {
+            frameCount = 0;
+            decide();
+        }
+    }
+
+    private void decide(){
+        System.arraycopy(frames, 0, sorted, 0, WINDOW);
+        Arrays.sort(sorted);
+        long total = 0;
+        for (long frame : sorted) {
+            total += frame;
+        }
+        long worst = sorted[WINDOW * 9 / 10];
+        if (metrics != null) {
+            metrics.recordFrames(tier, total / 1e6 / WINDOW, worst / 1e6);
+        }
+
+        if (worst > budgetNanos * DOWN_AT) {
+            comfortable = 0;
+            if (tier < TIERS - 1) {
+                if (climbed) {
+                    // this tier was too slow before we climbed back to it: wait longer next time
+                    upWindows[tier] = Math.min(upWindows[tier] * 2, MAX_UP_WINDOWS);
+                }
+                change(tier + 1, String.format("p90 %.2f ms over %.0f%% of the %.2f ms budget", worst / 1e6,
+                        DOWN_AT * 100, budgetNanos / 1e6), false);
+            }
+        } else if (worst < budgetNanos * UP_AT && tier > 0) {
+            if (++comfortable >= upWindows[tier - 1]) {
+                comfortable = 0;
+                change(tier - 1, String.format("p90 %.2f ms under %.0f%% of the budget for %d windows", worst / 1e6,
+                        UP_AT * 100, upWindows[tier - 1]), true);
+            }
+        } else {
+            comfortable = 0;
+        }
+    }
+
+    private void change(int to, String reason, boolean up){
+        if (metrics != null) {
+            metrics.recordTierChange(tier, to, reason);
+        }
+        tier = to;
+        climbed = up;
+    }
+
+    int getTier(){
+        return tier;
+    }
+
+    /**
+     * Whether to antialias and ask for quality rendering
+     */
+    boolean antialias(){
+        return ANTIALIAS[tier];
+    }
+
+    /**
+     * Whether to draw enemies and fighters as pre-rendered sprites rather than filled primitives
+     */
+    boolean useSprites(){
+        return SPRITES[tier];
+    }
+
+    /**
+     * Redraw the score only every this many frames
+     */
+    int getHudInterval(){
+        return HUD_INTERVAL[tier];
+    }
+
+    /**
+     * Draw only every this many explosion particles
+     */
+    int getParticleStride(){
+        return PARTICLE_STRIDE[tier];
+    }
+
+    /**
+     * The internal render resolution, as a fraction of the panel's
+     */
+    double getScale(){
+        return SCALE[tier];
+    }
+}
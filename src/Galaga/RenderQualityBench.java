@@ -0,0 +1,71 @@
+package Galaga;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Drives the render quality controller headlessly: paints a big swarm until the controller has turned quality down
+ * far enough to fit the budget, then switches to a normal game and watches it climb back up. Prints the tier and
+ * paint times as they go, and the controller's decisions from the game metrics.
+ *
+ * Usage: RenderQualityBench [budget ms] [swarm enemies] [frames per phase]
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public class RenderQualityBench {
+
+    private static final int CELL = 36; // enemy size plus spacing
+
+    public static void main(String[] args){
+        System.setProperty("java.awt.headless", "true");
+        double budgetMillis = args.length > 0 ? Double.parseDouble(args[0]) : 4;
+        int enemies = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int frames = args.length > 2 ? Integer.parseInt(args[2]) : 1500;
+
+        RenderQuality quality = new RenderQuality((long) (budgetMillis * 1_000_000), null);
+        int rows = Math.max(1, (int) Math.sqrt(enemies / 2.0));
+        int cols = (enemies + rows - 1) / rows;
+        GalagaGame swarm = new GalagaGame(cols * CELL + 80, rows * CELL + 400, 11);
+        swarm.configureSwarm(rows, cols, Math.max(1, rows * cols / 20), 5, 4);
+        swarm.getFighter().setCanCollide(false);
+        System.out.printf("Swarm of %d, budget %.1f ms:%n", rows * cols, budgetMillis);
+        run(swarm, quality, frames);
+
+        GalagaGame classic = new GalagaGame(400, 600, 11);
+        classic.getFighter().setCanCollide(false);
+        System.out.println("Normal game:");
+        run(classic, quality, frames * 2);
+
+        for (String decision : classic.getMetrics().getDecisions()) {
+            System.out.println("  " + decision);
+        }
+    }
+
+    /**
+     * Tick and paint a game, printing a line each time the tier changes and once at the end
+     */
+    private static void run(GalagaGame game, RenderQuality quality, int frames){
+        Dimension size = game.getLevelSize();
+        GalagaPanel panel = new GalagaPanel(game);
+        panel.setSize(size.width, size.height);
+        panel.setStatus(GalagaWindow.WindowStatus.GAME);
+        panel.setRenderQuality(quality);
+        quality.setMetrics(game.getMetrics());
+        BufferedImage frame = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_RGB);
+
+        GameMetrics metrics = game.getMetrics();
+        int tier = quality.getTier();
+        for (int i = 0; i < frames; i++) {
+            game.handleTick(i, true, i % 40 < 20, i % 40 >= 20);
+            Graphics2D g = frame.createGraphics();
+            panel.paintComponent(g);
+            g.dispose();
+            if (quality.getTier() != tier || i == frames - 1) {
+                tier = quality.getTier();
+                System.out.printf("  frame %5d: tier %d, last window average %.2f ms, p90 %.2f ms%n", i, tier,
+                        metrics.getFrameMillis(), metrics.getWorstFrameMillis());
+            }
+        }
+    }
+}
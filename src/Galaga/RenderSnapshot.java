@@ -0,0 +1,170 @@
+package Galaga;
+
+import java.util.Arrays;
+
+/**
+ * A flat, primitive picture of everything visible in the game at the end of one tick. The simulation fills one of
+ * these per tick and hands it to the renderer, so drawing never has to touch the live actors.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+final class RenderSnapshot {
+
+    static final int SHAPE_OVAL = 0;
+    static final int SHAPE_TRIANGLE = 1;
+    static final int SHAPE_RECT = 2;
+    static final int SHAPE_SCORE = 3;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    int count = 0;
+    int[] shape = new int[INITIAL_CAPACITY];
+    int[] color = new int[INITIAL_CAPACITY];
+    int[] x = new int[INITIAL_CAPACITY];
+    int[] y = new int[INITIAL_CAPACITY];
+    int[] width = new int[INITIAL_CAPACITY];
+    int[] height = new int[INITIAL_CAPACITY];
+
+    int bulletCount = 0;
+    float[] bulletX = new float[0];
+    float[] bulletY = new float[0];
+
+    int particleCount = 0;
+    float[] particleX = new float[0];
+    float[] particleY = new float[0];
+    int[] particleColor = new int[0];
+    byte[] particleSize = new byte[0];
+
+    int tick = 0;
+    int score = 0;
+    int lives = 0;
+    boolean running = true;
+    long inputStamp = 0; // System.nanoTime of the newest key event the tick had seen, for latency measurement
+
+    /**
+     * Forget every recorded shape so the snapshot can be refilled
+     */
+    void clear(){
+        count = 0;
+    }
+
+    /**
+     * Record one shape to be drawn
+     * @param shapeId One of the SHAPE_ constants
+     * @param rgb The colour to draw with, as 0xRRGGBB
+     * @param x The x coordinate of the shape's upper left corner
+     * @param y The y coordinate of the shape's upper left corner
+     * @param w The width of the shape
+     * @param h The height of the shape
+     */
+    void add(int shapeId, int rgb, int x, int y, int w, int h){
+        if (count == shape.length){
+            grow();
+        }
+        this.shape[count] = shapeId;
+        this.color[count] = rgb;
+        this.x[count] = x;
+        this.y[count] = y;
+        this.width[count] = w;
+        this.height[count] = h;
+        count++;
+    }
+
+    /**
+     * Shift the shapes recorded since a given one, e.g. from level into viewport coordinates
+     * @param from The index of the first shape to shift
+     * @param dx How far to shift them right
+     * @param dy How far to shift them down
+     */
+    void translate(int from, int dx, int dy){
+        for (int i = from; i < count; i++){
+            x[i] += dx;
+            y[i] += dy;
+        }
+    }
+
+    /**
+     * Copy the positions of the pattern bullets in flight inside a view of the level, relative to the view
+     * @param bullets The bullet field, or null if there is none
+     * @param left The left edge of the view in the level
+     * @param top The top edge of the view in the level
+     * @param w The width of the view
+     * @param h The height of the view
+     */
+    void setBullets(BulletField bullets, int left, int top, int w, int h){
+        bulletCount = 0;
+        if (bullets == null){
+            return;
+        }
+        if (bulletX.length < bullets.count){
+            bulletX = new float[bullets.x.length];
+            bulletY = new float[bullets.y.length];
+        }
+        float minX = left - BulletField.RADIUS;
+        float minY = top - BulletField.RADIUS;
+        float maxX = left + w + BulletField.RADIUS;
+        float maxY = top + h + BulletField.RADIUS;
+        for (int i = 0; i < bullets.count; i++){
+            float bx = bullets.x[i];
+            float by = bullets.y[i];
+            if (bx >= minX && bx <= maxX && by >= minY && by <= maxY){
+                bulletX[bulletCount] = bx - left;
+                bulletY[bulletCount] = by - top;
+                bulletCount++;
+            }
+        }
+    }
+
+    /**
+     * Copy the particles inside a view of the level, relative to the view, but no more than a budget: past it, only
+     * every so many particles are copied, so every explosion still shows, just thinner
+     * @param particles The particle pool
+     * @param left The left edge of the view in the level
+     * @param top The top edge of the view in the level
+     * @param w The width of the view
+     * @param h The height of the view
+     * @param budget The most particles to copy
+     */
+    void setParticles(ParticlePool particles, int left, int top, int w, int h, int budget){
+        particleCount = 0;
+        int n = particles.count;
+        if (n == 0 || budget <= 0){
+            return;
+        }
+        if (particleX.length < Math.min(n, budget)){
+            int size = Math.min(budget, particles.getCapacity());
+            particleX = new float[size];
+            particleY = new float[size];
+            particleColor = new int[size];
+            particleSize = new byte[size];
+        }
+        int stride = (n + budget - 1) / budget;
+        int right = left + w;
+        int bottom = top + h;
+        for (int i = 0; i < n; i += stride){
+            float px = particles.x[i];
+            float py = particles.y[i];
+            if (px >= left && px <= right && py >= top && py <= bottom){
+                particleX[particleCount] = px - left;
+                particleY[particleCount] = py - top;
+                particleColor[particleCount] = particles.color[i];
+                particleSize[particleCount] = particles.size[i];
+                particleCount++;
+            }
+        }
+    }
+
+    /**
+     * Double the capacity of every shape array. Only ever happens on the simulation side, before publishing.
+     */
+    private void grow(){
+        int size = shape.length * 2;
+        shape = Arrays.copyOf(shape, size);
+        color = Arrays.copyOf(color, size);
+        x = Arrays.copyOf(x, size);
+        y = Arrays.copyOf(y, size);
+        width = Arrays.copyOf(width, size);
+        height = Arrays.copyOf(height, size);
+    }
+}
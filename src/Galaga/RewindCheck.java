@@ -0,0 +1,76 @@
+package Galaga;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Checks that a game rewound through a RewindRing plays on exactly as it did the first time, and times saving and
+ * restoring.
+ *
+ * Usage: RewindCheck [ticks] [ticks to rewind]
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public class RewindCheck {
+
+    public static void main(String[] args){
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+        int back = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+
+        boolean[][] inputs = new boolean[ticks][3];
+        Random r = new Random(37);
+        for (boolean[] input : inputs) {
+            input[0] = r.nextInt(4) != 0;
+            input[1] = r.nextInt(3) == 0;
+            input[2] = r.nextInt(3) == 0;
+        }
+
+        GalagaGame game = new GalagaGame(400, 600, 37L);
+        RewindRing ring = new RewindRing(back + 1);
+        game.addTickObserver(ring);
+        SavedState first = new SavedState(1024);
+        GameStateVector firstVisible = new GameStateVector();
+        long saveNanos = 0;
+        SavedState timing = new SavedState(1024);
+        int tick = 0;
+        for (; tick < ticks && game.isRunning(); tick++) {
+            game.handleTick(tick, inputs[tick][0], inputs[tick][1], inputs[tick][2]);
+            long before = System.nanoTime();
+            game.saveState(timing);
+            saveNanos += System.nanoTime() - before;
+        }
+        int end = tick;
+        game.saveState(first);
+        firstVisible.capture(game);
+
+        // go back, play the same inputs again, and compare
+        game.removeTickObserver(ring);
+        long before = System.nanoTime();
+        int restored = ring.rewind(game, back);
+        long restoreNanos = System.nanoTime() - before;
+        for (tick = restored + 1; tick < end; tick++) {
+            game.handleTick(tick, inputs[tick][0], inputs[tick][1], inputs[tick][2]);
+        }
+        SavedState second = new SavedState(1024);
+        game.saveState(second);
+        GameStateVector secondVisible = new GameStateVector();
+        secondVisible.capture(game);
+
+        boolean visibleSame = Arrays.equals(firstVisible.values, 0, firstVisible.length,
+                secondVisible.values, 0, secondVisible.length);
+        System.out.printf("Played %d ticks (score %d, level %d), rewound to tick %d and replayed: %s%n", end,
+                game.getScore(), game.getLevel(), restored,
+                first.sameAs(second) && visibleSame ? "identical" : "DIFFERENT");
+        System.out.printf("State size %d ints, save %.2f us average, one restore %.2f us%n", first.length,
+                saveNanos / 1e3 / end, restoreNanos / 1e3);
+
+        // restore cost once warm
+        int rounds = 2000;
+        before = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            game.restoreState(first);
+        }
+        System.out.printf("Warm restore %.2f us average%n", (System.nanoTime() - before) / 1e3 / rounds);
+    }
+}
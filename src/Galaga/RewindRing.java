@@ -0,0 +1,67 @@
+package Galaga;
+
+/**
+ * Saves the game's full state after every tick into a fixed ring of preallocated states, so the last few seconds can
+ * be rewound at any time without pausing the game to take a snapshot. Call rewind from the thread that ticks the game,
+ * or while it is known to be idle.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+class RewindRing implements TickObserver {
+
+    private final SavedState[] slots;
+    private int newest = -1;
+    private int size = 0;
+
+    /**
+     * Create a ring
+     * @param ticks How many ticks of history to keep (43 is about a second)
+     */
+    RewindRing(int ticks){
+        slots = new SavedState[ticks];
+        for (int i = 0; i < ticks; i++) {
+            slots[i] = new SavedState(1024);
+        }
+    }
+
+    @Override
+    public void tickFinished(GalagaGame game, int tick){
+        newest = (newest + 1) % slots.length;
+        slots[newest].tick = tick;
+        game.saveState(slots[newest]);
+        size = Math.min(size + 1, slots.length);
+    }
+
+    /**
+     * Put the game back the way it was some ticks ago, forgetting everything newer, and tell its observers. Asking for
+     * more than the ring holds goes back as far as it can.
+     * @param game The game the ring has been recording
+     * @param ticks How many ticks to go back
+     * @return The tick the game is now at (the next tick to run is one after it), or -1 if nothing was recorded
+     */
+    int rewind(GalagaGame game, int ticks){
+        if (size == 0) {
+            return -1;
+        }
+        int steps = Math.min(ticks, size - 1);
+        newest = Math.floorMod(newest - steps, slots.length);
+        size -= steps;
+        SavedState state = slots[newest];
+        game.restoreState(state);
+        game.rewound(state.tick);
+        return state.tick;
+    }
+
+    /**
+     * Forget all history, e.g. for a new game
+     */
+    void clear(){
+        newest = -1;
+        size = 0;
+    }
+
+    int size(){
+        return size;
+    }
+}
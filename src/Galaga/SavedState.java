@@ -0,0 +1,101 @@
+package Galaga;
+
+import java.util.Arrays;
+
+/**
+ * Everything needed to put a game back exactly as it was, as a flat run of ints written and read in order by
+ * GalagaGame.saveState and restoreState. Unlike GameStateVector this is not meant to be read by anyone else: it
+ * includes timers, the random generator and what kind of path every swooping enemy is on, and its layout may change
+ * with the game.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+final class SavedState {
+
+    int[] values;
+    int length = 0;
+    int tick = -1;
+    private int cursor = 0;
+
+    /**
+     * Create an empty state
+     * @param capacity How many ints to allocate up front; it grows if a game needs more
+     */
+    SavedState(int capacity){
+        values = new int[capacity];
+    }
+
+    /**
+     * Start writing from the beginning
+     */
+    void clear(){
+        length = 0;
+        cursor = 0;
+    }
+
+    /**
+     * Start reading from the beginning
+     */
+    void rewind(){
+        cursor = 0;
+    }
+
+    void put(int value){
+        if (length == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[length++] = value;
+    }
+
+    void putLong(long value){
+        put((int) (value >>> 32));
+        put((int) value);
+    }
+
+    void putDouble(double value){
+        putLong(Double.doubleToRawLongBits(value));
+    }
+
+    void putFloat(float value){
+        put(Float.floatToRawIntBits(value));
+    }
+
+    int get(){
+        return values[cursor++];
+    }
+
+    long getLong(){
+        long high = get();
+        return high << 32 | (get() & 0xFFFFFFFFL);
+    }
+
+    double getDouble(){
+        return Double.longBitsToDouble(getLong());
+    }
+
+    float getFloat(){
+        return Float.intBitsToFloat(get());
+    }
+
+    /**
+     * Make this state an exact copy of another one
+     * @param other The state to copy
+     */
+    void copyFrom(SavedState other){
+        if (values.length < other.length) {
+            values = Arrays.copyOf(values, other.length);
+        }
+        System.arraycopy(other.values, 0, values, 0, other.length);
+        length = other.length;
+        tick = other.tick;
+        cursor = 0;
+    }
+
+    /**
+     * Whether two states hold exactly the same values
+     */
+    boolean sameAs(SavedState other){
+        return Arrays.equals(values, 0, length, other.values, 0, other.length);
+    }
+}
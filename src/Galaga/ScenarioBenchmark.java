@@ -0,0 +1,260 @@
+package Galaga;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Plays whole scripted multi-level games, headless and rendering offscreen through the panel's drawing code, and
+ * reports total time, tick and frame time percentiles and allocation per level. Results can be recorded as a baseline
+ * and later runs compared against it, failing (exit code 1) when anything got worse by more than a threshold.
+ *
+ * Usage: ScenarioBenchmark [baseline file] [record|compare] [threshold %] [runs]
+ *
+ * Each scenario is played once to warm up and then several times, keeping the best of each timing (the runs differ
+ * only by noise from the rest of the machine). Baselines only mean something on the machine they were recorded on.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public class ScenarioBenchmark {
+
+    private static final String[] METRICS = {"totalMs", "tickP99Ms", "frameP99Ms", "allocPerLevelKb"};
+
+    /**
+     * One scripted game: how it is set up and how far it goes
+     */
+    abstract static class Scenario {
+        final String name;
+        final int width;
+        final int height;
+        final int levels;
+        final int levelTicks; // the level is skipped if not cleared within this many ticks
+
+        Scenario(String name, int width, int height, int levels, int levelTicks){
+            this.name = name;
+            this.width = width;
+            this.height = height;
+            this.levels = levels;
+            this.levelTicks = levelTicks;
+        }
+
+        abstract void setUp(GalagaGame game);
+    }
+
+    private static final Scenario[] SCENARIOS = {
+            new Scenario("classic", 400, 600, 4, 3000) {
+                @Override
+                void setUp(GalagaGame game){
+                }
+            },
+            new Scenario("bullets", 400, 600, 3, 1500) {
+                @Override
+                void setUp(GalagaGame game){
+                    game.enableBulletPatterns(32 * 1024, 4);
+                }
+            },
+            new Scenario("swarm", 1200, 900, 3, 600) {
+                @Override
+                void setUp(GalagaGame game){
+                    game.configureSwarm(16, 32, 25, 5, 2);
+                }
+            },
+    };
+
+    /**
+     * What one run of one scenario measured
+     */
+    static final class Result {
+        double totalMs;
+        double tickP50Ms;
+        double tickP99Ms;
+        double tickMaxMs;
+        double frameP50Ms;
+        double frameP99Ms;
+        double frameMaxMs;
+        double allocPerLevelKb;
+
+        /**
+         * Keep whichever of this run's and another run's values is lower, metric by metric
+         */
+        void keepBest(Result other){
+            totalMs = Math.min(totalMs, other.totalMs);
+            tickP50Ms = Math.min(tickP50Ms, other.tickP50Ms);
+            tickP99Ms = Math.min(tickP99Ms, other.tickP99Ms);
+            tickMaxMs = Math.min(tickMaxMs, other.tickMaxMs);
+            frameP50Ms = Math.min(frameP50Ms, other.frameP50Ms);
+            frameP99Ms = Math.min(frameP99Ms, other.frameP99Ms);
+            frameMaxMs = Math.min(frameMaxMs, other.frameMaxMs);
+            allocPerLevelKb = Math.min(allocPerLevelKb, other.allocPerLevelKb);
+        }
+
+        double get(String metric){
+            switch (metric) {
+                case "totalMs": return totalMs;
+                case "tickP99Ms": return tickP99Ms;
+                case "frameP99Ms": return frameP99Ms;
+                default: return allocPerLevelKb;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        Path baselineFile = Paths.get(args.length > 0 ? args[0] : "scenario-baselines.properties");
+        boolean record = args.length > 1 && args[1].equals("record");
+        double threshold = (args.length > 2 ? Double.parseDouble(args[2]) : 10) / 100;
+        int runs = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+
+        Properties measured = new Properties();
+        System.out.printf("%-8s %-8s %9s %8s %8s %8s %8s %8s %8s %10s%n", "scenario", "mode", "total ms", "tick p50",
+                "p99", "max", "frame p50", "p99", "max", "KB/level");
+        for (Scenario scenario : SCENARIOS) {
+            for (boolean render : new boolean[] {false, true}) {
+                run(scenario, render); // warm-up, not measured
+                Result r = run(scenario, render);
+                for (int i = 1; i < runs; i++) {
+                    r.keepBest(run(scenario, render));
+                }
+                String mode = render ? "render" : "headless";
+                System.out.printf("%-8s %-8s %9.1f %8.3f %8.3f %8.3f %8.3f %8.3f %8.3f %10.1f%n", scenario.name, mode,
+                        r.totalMs, r.tickP50Ms, r.tickP99Ms, r.tickMaxMs, r.frameP50Ms, r.frameP99Ms, r.frameMaxMs,
+                        r.allocPerLevelKb);
+                for (String metric : METRICS) {
+                    if (render || !metric.equals("frameP99Ms")) {
+                        measured.setProperty(scenario.name + "." + mode + "." + metric,
+                                String.format("%.3f", r.get(metric)));
+                    }
+                }
+            }
+        }
+
+        if (record) {
+            try (OutputStream out = Files.newOutputStream(baselineFile)) {
+                measured.store(out, "ScenarioBenchmark baselines");
+            }
+            System.out.println("Baseline written to " + baselineFile);
+            return;
+        }
+        if (!Files.exists(baselineFile)) {
+            System.out.println("No baseline at " + baselineFile + "; run with 'record' to create one.");
+            return;
+        }
+
+        Properties baseline = new Properties();
+        try (InputStream in = Files.newInputStream(baselineFile)) {
+            baseline.load(in);
+        }
+        ArrayList<String> regressions = new ArrayList<>();
+        for (String key : new TreeSet<>(measured.stringPropertyNames())) {
+            String old = baseline.getProperty(key);
+            if (old == null) {
+                continue;
+            }
+            double before = Double.parseDouble(old);
+            double now = Double.parseDouble(measured.getProperty(key));
+            if (now > before * (1 + threshold) && now - before > 0.01) {
+                regressions.add(String.format("%s: %.3f -> %.3f (+%.0f%%)", key, before, now,
+                        100 * (now - before) / before));
+            }
+        }
+        if (regressions.isEmpty()) {
+            System.out.printf("No regressions beyond %.0f%% of the baseline.%n", threshold * 100);
+        } else {
+            System.out.printf("%d regressions beyond %.0f%% of the baseline:%n", regressions.size(), threshold * 100);
+            for (String regression : regressions) {
+                System.out.println("  " + regression);
+            }
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Play one scenario start to finish with the scripted input
+     */
+    static Result run(Scenario scenario, boolean render){
+        GalagaGame game = new GalagaGame(scenario.width, scenario.height, 40L);
+        scenario.setUp(game);
+        game.getFighter().setCanCollide(false); // the script can't dodge; it plays every level out instead
+        game.setSnapshotPublishing(render);
+
+        GalagaPanel panel = null;
+        Graphics2D g = null;
+        if (render) {
+            panel = new GalagaPanel(game);
+            g = new BufferedImage(scenario.width, scenario.height, BufferedImage.TYPE_INT_RGB).createGraphics();
+        }
+
+        long[] ticks = new long[scenario.levels * scenario.levelTicks];
+        long[] frames = new long[render ? ticks.length : 0];
+        int count = 0;
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        int tick = 0;
+        for (int level = 0; level < scenario.levels; level++) {
+            int startLevel = game.getLevel();
+            for (int i = 0; i < scenario.levelTicks && game.getLevel() == startLevel; i++, tick++) {
+                // sweep across the screen and back, firing all the while
+                boolean right = (tick / 60) % 2 == 0;
+                long before = System.nanoTime();
+                game.handleTick(tick, true, right, !right);
+                long after = System.nanoTime();
+                ticks[count] = after - before;
+                if (render) {
+                    g.setColor(Color.BLACK);
+                    g.fillRect(0, 0, scenario.width, scenario.height);
+                    panel.drawSnapshot(game.getSnapshots().latest(), g);
+                    frames[count] = System.nanoTime() - after;
+                }
+                count++;
+            }
+            if (game.getLevel() == startLevel) {
+                game.advanceLevel();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+        if (g != null) {
+            g.dispose();
+        }
+
+        Result r = new Result();
+        r.totalMs = elapsed / 1e6;
+        long[] sortedTicks = Arrays.copyOf(ticks, count);
+        Arrays.sort(sortedTicks);
+        r.tickP50Ms = sortedTicks[count / 2] / 1e6;
+        r.tickP99Ms = sortedTicks[count * 99 / 100] / 1e6;
+        r.tickMaxMs = sortedTicks[count - 1] / 1e6;
+        if (render) {
+            long[] sortedFrames = Arrays.copyOf(frames, count);
+            Arrays.sort(sortedFrames);
+            r.frameP50Ms = sortedFrames[count / 2] / 1e6;
+            r.frameP99Ms = sortedFrames[count * 99 / 100] / 1e6;
+            r.frameMaxMs = sortedFrames[count - 1] / 1e6;
+        }
+        r.allocPerLevelKb = allocated / 1024.0 / scenario.levels;
+        return r;
+    }
+
+    /**
+     * Bytes allocated so far by this thread, where the JVM can tell
+     */
+    private static long allocatedBytes(){
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,214 @@
+package Galaga;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Every game ever finished on this machine, for telling players how a score ranks ("top 12%"). Games are appended as
+ * fixed-size records to a memory-mapped log, and a ScoreSketch of all of them answers rank questions. The sketch is
+ * checkpointed next to the log every CHECKPOINT_EVERY games (and on close), together with how many records it covers,
+ * so opening the history only reads the records added since the last checkpoint.
+ *
+ * Log layout (little endian):
+ *  - header: magic, version (ints), then at COUNT_OFFSET the number of records (long), written after each record
+ *  - records of RECORD_SIZE bytes: finish time in epoch milliseconds (long), score, level, ticks played, unused (ints)
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public final class ScoreHistory implements Closeable {
+
+    static final int MAGIC = 0x474C4853; // "GLHS"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int COUNT_OFFSET = 8;
+    static final int RECORD_SIZE = 24;
+    static final int RECORD_TIME = 0;
+    static final int RECORD_SCORE = 8;
+    static final int RECORD_LEVEL = 12;
+    static final int RECORD_TICKS = 16;
+
+    private static final int SKETCH_MAGIC = 0x474C534B; // "GLSK"
+    private static final int CHECKPOINT_EVERY = 1024;
+    private static final int INITIAL_CAPACITY = 4096;
+
+    private final Path logFile;
+    private final Path sketchFile;
+    private final FileChannel channel;
+    private MappedByteBuffer log;
+    private long capacity;
+    private long count;
+    private final ScoreSketch sketch;
+    private long checkpointed; // records covered by the sketch file
+    private long replayed = 0;
+
+    /**
+     * Open (or create) the history in a directory
+     * @param directory Where the log and its sketch checkpoint live
+     */
+    public ScoreHistory(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        logFile = directory.resolve("scores.log");
+        sketchFile = directory.resolve("scores.sketch");
+        channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+
+        boolean fresh = channel.size() < HEADER_SIZE;
+        long existing = fresh ? 0 : readCount();
+        map(Math.max(INITIAL_CAPACITY, existing * 2));
+        if (fresh) {
+            log.putInt(0, MAGIC);
+            log.putInt(4, VERSION);
+            log.putLong(COUNT_OFFSET, 0);
+        } else if (log.getInt(0) != MAGIC || log.getInt(4) != VERSION) {
+            throw new IOException("Not a score history: " + logFile);
+        }
+        count = existing;
+
+        // start from the checkpoint and count only the records added after it; without a usable one, count them all
+        ScoreSketch loaded = readCheckpoint();
+        sketch = loaded == null ? new ScoreSketch() : loaded;
+        if (loaded == null) {
+            checkpointed = 0;
+        }
+        for (long i = checkpointed; i < count; i++) {
+            sketch.add(getScore(i));
+            replayed++;
+        }
+    }
+
+    /**
+     * Add a finished game
+     * @return Its rank: the percentage of all games (this one included) that scored at least as much
+     */
+    public double record(int score, int level, int ticks) throws IOException {
+        if (count == capacity) {
+            map(capacity * 2);
+        }
+        int at = recordOffset(count);
+        log.putLong(at + RECORD_TIME, System.currentTimeMillis());
+        log.putInt(at + RECORD_SCORE, score);
+        log.putInt(at + RECORD_LEVEL, level);
+        log.putInt(at + RECORD_TICKS, ticks);
+        // the count goes last, so a record is only part of the log once it's complete
+        count++;
+        log.putLong(COUNT_OFFSET, count);
+
+        sketch.add(score);
+        if (count - checkpointed >= CHECKPOINT_EVERY) {
+            checkpoint();
+        }
+        return sketch.topPercent(score);
+    }
+
+    /**
+     * The percentage of all games that scored at least about this much
+     */
+    public double topPercent(int score){
+        return sketch.topPercent(score);
+    }
+
+    /**
+     * Roughly the score a given share of all games fell below, e.g. 0.5 for the median
+     */
+    public int quantile(double q){
+        return sketch.quantile(q);
+    }
+
+    /**
+     * How many games are in the history
+     */
+    public long size(){
+        return count;
+    }
+
+    /**
+     * How many records opening the history had to read, i.e. those added since the last checkpoint
+     */
+    long getReplayedCount(){
+        return replayed;
+    }
+
+    int getScore(long record){
+        return log.getInt(recordOffset(record) + RECORD_SCORE);
+    }
+
+    /**
+     * Save the sketch, and how many records it covers, next to the log (replacing the old checkpoint in one step). If
+     * the machine goes down before the log reaches the disk, the checkpoint covers more than the log holds and is
+     * ignored on the next open.
+     */
+    void checkpoint() throws IOException {
+        Path temp = sketchFile.resolveSibling(sketchFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(SKETCH_MAGIC);
+            out.writeLong(count);
+            sketch.write(out);
+        }
+        Files.move(temp, sketchFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        checkpointed = count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (count != checkpointed) {
+            checkpoint();
+        }
+        log.force();
+        channel.close();
+    }
+
+    private ScoreSketch readCheckpoint(){
+        if (!Files.isRegularFile(sketchFile)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(sketchFile)))) {
+            if (in.readInt() != SKETCH_MAGIC) {
+                return null;
+            }
+            long covered = in.readLong();
+            if (covered > count) {
+                return null; // newer than the log (e.g. the log was replaced): don't trust it
+            }
+            ScoreSketch loaded = ScoreSketch.read(in);
+            if (loaded != null) {
+                checkpointed = covered;
+            }
+            return loaded;
+        } catch (IOException ioe) {
+            return null;
+        }
+    }
+
+    private long readCount() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(header, 0);
+        long records = header.getLong(COUNT_OFFSET);
+        // never trust a count that runs past the end of the file
+        return Math.max(0, Math.min(records, (channel.size() - HEADER_SIZE) / RECORD_SIZE));
+    }
+
+    /**
+     * Map the log with room for a given number of records (growing the file if needed)
+     */
+    private void map(long records) throws IOException {
+        long bytes = HEADER_SIZE + records * RECORD_SIZE;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IOException("Score history is full");
+        }
+        log = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        log.order(ByteOrder.LITTLE_ENDIAN);
+        capacity = records;
+    }
+
+    private static int recordOffset(long record){
+        return (int) (HEADER_SIZE + record * RECORD_SIZE);
+    }
+}
@@ -0,0 +1,64 @@
+package Galaga;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Fills a ScoreHistory with random games, reopens it, and checks the sketch's ranks against an exact count over the
+ * log, timing appends, reopening and rank queries.
+ *
+ * Usage: ScoreHistoryBench [directory] [games]
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public class ScoreHistoryBench {
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Path.of(args.length > 0 ? args[0] : "score-history-test");
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+
+        Random r = new Random(3);
+        long before = System.nanoTime();
+        try (ScoreHistory history = new ScoreHistory(directory)) {
+            for (int i = 0; i < games; i++) {
+                // roughly like real play: most games end early, a few go on for a long time
+                int level = 1 + (int) (-Math.log(1 - r.nextDouble()) * 1.5);
+                int score = level * 600 + r.nextInt(800) / 5 * 5;
+                history.record(score, level, level * 2000);
+            }
+            System.out.printf("Appended %d games in %d ms (%d in the history)%n", games,
+                    (System.nanoTime() - before) / 1_000_000, history.size());
+        }
+
+        before = System.nanoTime();
+        try (ScoreHistory history = new ScoreHistory(directory)) {
+            System.out.printf("Reopened %d games in %.2f ms, reading %d records past the checkpoint%n",
+                    history.size(), (System.nanoTime() - before) / 1e6, history.getReplayedCount());
+
+            int[] sample = {100, 700, 1500, 3000, 6000, 12000};
+            long[] atLeast = new long[sample.length];
+            for (long i = 0; i < history.size(); i++) {
+                int score = history.getScore(i);
+                for (int s = 0; s < sample.length; s++) {
+                    if (score >= sample[s]) {
+                        atLeast[s]++;
+                    }
+                }
+            }
+            before = System.nanoTime();
+            double sink = 0;
+            for (int i = 0; i < 1_000_000; i++) {
+                sink += history.topPercent(i & 0x3FFF);
+            }
+            double queryNanos = (System.nanoTime() - before) / 1e6;
+            for (int s = 0; s < sample.length; s++) {
+                System.out.printf("  score %6d: sketch top %6.2f%%, exact top %6.2f%%%n", sample[s],
+                        history.topPercent(sample[s]), 100.0 * atLeast[s] / history.size());
+            }
+            System.out.printf("Median about %d, 99th percentile about %d; %.0f ns per rank query%s%n",
+                    history.quantile(0.5), history.quantile(0.99), queryNanos, sink < 0 ? "!" : "");
+        }
+    }
+}
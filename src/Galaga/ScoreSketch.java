@@ -0,0 +1,148 @@
+package Galaga;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A compact histogram of scores for rank and quantile questions over any number of games. Scores below 64 each get
+ * their own bucket; above that every power of two is split into 64 buckets, so a bucket is never wider than about 1.6%
+ * of the scores in it. Counts sit in a Fenwick tree over the fixed set of buckets, so adding a score and asking how
+ * many scored at least some amount both take a handful of steps however many games were played. Two sketches merge by
+ * adding their counts.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+final class ScoreSketch {
+
+    private static final int SUB_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    static final int BUCKETS = SUB_BUCKETS + (31 - SUB_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private final long[] tree = new long[BUCKETS + 1]; // Fenwick tree over counts, 1-based
+    private long total = 0;
+
+    /**
+     * Count one more game
+     * @param score Its score (negative counts as 0)
+     */
+    void add(int score){
+        add(bucket(score), 1);
+    }
+
+    private void add(int bucket, long n){
+        counts[bucket] += n;
+        total += n;
+        for (int i = bucket + 1; i <= BUCKETS; i += i & -i) {
+            tree[i] += n;
+        }
+    }
+
+    /**
+     * Add all of another sketch's games to this one
+     */
+    void merge(ScoreSketch other){
+        for (int b = 0; b < BUCKETS; b++) {
+            if (other.counts[b] != 0) {
+                add(b, other.counts[b]);
+            }
+        }
+    }
+
+    /**
+     * How many games were counted
+     */
+    long getTotal(){
+        return total;
+    }
+
+    /**
+     * How many games scored at least about this much (games in the same bucket count as at least as good)
+     */
+    long countAtLeast(int score){
+        return total - countBelowBucket(bucket(score));
+    }
+
+    /**
+     * The share of games, in percent, that scored at least about this much: "top 12%"
+     */
+    double topPercent(int score){
+        return total == 0 ? 100 : 100.0 * countAtLeast(score) / total;
+    }
+
+    /**
+     * Roughly the score that a given share of games fell below
+     * @param q The share, from 0 to 1
+     * @return The lowest score of the bucket the quantile falls in
+     */
+    int quantile(double q){
+        long target = (long) Math.ceil(q * total);
+        // walk down the Fenwick tree to the first bucket whose running count reaches the target
+        int position = 0;
+        long below = 0;
+        for (int step = Integer.highestOneBit(BUCKETS); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= BUCKETS && below + tree[next] < target) {
+                position = next;
+                below += tree[next];
+            }
+        }
+        return lowest(Math.min(position, BUCKETS - 1));
+    }
+
+    private long countBelowBucket(int bucket){
+        long sum = 0;
+        for (int i = bucket; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    static int bucket(int score){
+        if (score < SUB_BUCKETS) {
+            return Math.max(score, 0);
+        }
+        int exponent = 31 - Integer.numberOfLeadingZeros(score); // >= SUB_BITS
+        int sub = (score >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BITS) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * The lowest score that lands in a bucket
+     */
+    static int lowest(int bucket){
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + SUB_BITS;
+        int sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(BUCKETS);
+        for (long count : counts) {
+            out.writeLong(count);
+        }
+    }
+
+    /**
+     * Read a sketch written by write
+     * @return The sketch, or null if it was written with a different bucket layout
+     */
+    static ScoreSketch read(DataInputStream in) throws IOException {
+        if (in.readInt() != BUCKETS) {
+            return null;
+        }
+        ScoreSketch sketch = new ScoreSketch();
+        for (int b = 0; b < BUCKETS; b++) {
+            long count = in.readLong();
+            if (count != 0) {
+                sketch.add(b, count);
+            }
+        }
+        return sketch;
+    }
+}
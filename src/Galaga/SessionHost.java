@@ -0,0 +1,127 @@
+package Galaga;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+
+/**
+ * Hosts many independent live games in one JVM, each ticking on its own schedule on its own thread, all woken by one
+ * shared TickScheduler. Session threads are virtual threads on JVMs that have them (looked up at run time, so this
+ * still runs on older ones, with ordinary threads instead).
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public class SessionHost implements AutoCloseable {
+
+    static final long DEFAULT_PERIOD_NANOS = 23_000_000L; // the window's timer: about 43 ticks a second
+
+    private static final MethodHandle START_VIRTUAL_THREAD = findStartVirtualThread();
+
+    private final long periodNanos;
+    private final boolean publishingSnapshots;
+    private final TickScheduler scheduler;
+    private final ArrayList<GameSession> sessions = new ArrayList<>();
+    private final ArrayList<Thread> threads = new ArrayList<>();
+    private boolean virtualThreads = START_VIRTUAL_THREAD != null;
+
+    /**
+     * Create a host
+     * @param periodNanos Time between ticks of every session
+     * @param spinNanos How long the scheduler spins before each deadline (see TickScheduler)
+     * @param publishingSnapshots Whether sessions publish render snapshots (off for purely headless farms)
+     */
+    public SessionHost(long periodNanos, long spinNanos, boolean publishingSnapshots){
+        this.periodNanos = periodNanos;
+        this.publishingSnapshots = publishingSnapshots;
+        this.scheduler = new TickScheduler(spinNanos);
+    }
+
+    /**
+     * Start a new session
+     * @param width The game's width
+     * @param height The game's height
+     * @param seed The seed of its first game (later games count up from it)
+     * @param input Where its input comes from
+     * @param startDelay How long to wait before its first tick, to spread sessions over the tick period
+     * @return The running session
+     */
+    public synchronized GameSession start(int width, int height, long seed, InputSource input, long startDelay){
+        GameSession session = new GameSession(this, width, height, seed, input, startDelay);
+        sessions.add(session);
+        threads.add(startThread(session::run, "galaga-session-" + sessions.size()));
+        return session;
+    }
+
+    /**
+     * Stop every session and wait for their threads to finish
+     */
+    @Override
+    public synchronized void close(){
+        for (GameSession session : sessions) {
+            session.stop();
+        }
+        scheduler.close();
+        for (Thread t : threads) {
+            try {
+                t.join();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private Thread startThread(Runnable task, String name){
+        if (virtualThreads) {
+            try {
+                return (Thread) START_VIRTUAL_THREAD.invokeExact(task);
+            } catch (UnsupportedOperationException uoe) {
+                // a JVM where virtual threads are still a preview that isn't switched on
+                virtualThreads = false;
+            } catch (Throwable t) {
+                throw new IllegalStateException("Could not start a session thread", t);
+            }
+        }
+        Thread t = new Thread(task, name);
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    private static MethodHandle findStartVirtualThread(){
+        try {
+            return MethodHandles.publicLookup().findStatic(Thread.class, "startVirtualThread",
+                    MethodType.methodType(Thread.class, Runnable.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Whether sessions run on virtual threads (otherwise on ordinary ones)
+     */
+    public boolean isUsingVirtualThreads(){
+        return virtualThreads;
+    }
+
+    long getPeriodNanos(){
+        return periodNanos;
+    }
+
+    boolean isPublishingSnapshots(){
+        return publishingSnapshots;
+    }
+
+    TickScheduler getScheduler(){
+        return scheduler;
+    }
+
+    /**
+     * The sessions started so far
+     */
+    public synchronized ArrayList<GameSession> getSessions(){
+        return new ArrayList<>(sessions);
+    }
+}
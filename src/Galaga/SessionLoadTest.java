@@ -0,0 +1,99 @@
+package Galaga;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Local load generator for SessionHost: runs ever more sessions, each played by a simple bot, and reports whether
+ * every session kept its tick rate, how late ticks started, and how many were late or dropped.
+ *
+ * Usage: SessionLoadTest [seconds per step] [spin microseconds] [session counts...]
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public class SessionLoadTest {
+
+    private static final int[] DEFAULT_COUNTS = {50, 100, 200, 400, 800};
+
+    public static void main(String[] args) throws InterruptedException {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        long spinNanos = (args.length > 1 ? Long.parseLong(args[1]) : 0) * 1000;
+        int[] counts = DEFAULT_COUNTS;
+        if (args.length > 2) {
+            counts = new int[args.length - 2];
+            for (int i = 2; i < args.length; i++) {
+                counts[i - 2] = Integer.parseInt(args[i]);
+            }
+        }
+
+        double target = 1e9 / SessionHost.DEFAULT_PERIOD_NANOS;
+        System.out.printf("Target %.1f ticks/sec per session, %d cores%n", target,
+                Runtime.getRuntime().availableProcessors());
+        System.out.printf("%9s %9s %10s %10s %8s %8s %12s %12s%n", "sessions", "threads", "avg t/s", "min t/s",
+                "late %", "drop %", "p99 wake ms", "max wake ms");
+        for (int count : counts) {
+            run(count, seconds, spinNanos, target);
+        }
+    }
+
+    private static void run(int count, int seconds, long spinNanos, double target) throws InterruptedException {
+        SessionHost host = new SessionHost(SessionHost.DEFAULT_PERIOD_NANOS, spinNanos, true);
+        for (int i = 0; i < count; i++) {
+            // spread the sessions evenly over one tick period
+            host.start(400, 600, i, bot(i), SessionHost.DEFAULT_PERIOD_NANOS * i / count);
+        }
+        Thread.sleep(seconds * 1000L);
+        host.close();
+
+        ArrayList<GameSession> sessions = host.getSessions();
+        long[] lateness = new long[GameSession.LATENESS_BUCKETS + 1];
+        long ticks = 0;
+        long late = 0;
+        long skipped = 0;
+        long maxWake = 0;
+        double rates = 0;
+        double minRate = Double.MAX_VALUE;
+        for (GameSession s : sessions) {
+            ticks += s.ticks;
+            late += s.lateTicks;
+            skipped += s.skippedTicks;
+            maxWake = Math.max(maxWake, s.maxLatenessNanos);
+            rates += s.getTickRate();
+            minRate = Math.min(minRate, s.getTickRate());
+            for (int b = 0; b < lateness.length; b++) {
+                lateness[b] += s.lateness[b];
+            }
+        }
+
+        // p99 of tick start lateness, to the bucket
+        long seen = 0;
+        int p99 = 0;
+        for (; p99 < lateness.length; p99++) {
+            seen += lateness[p99];
+            if (seen >= ticks * 99 / 100) {
+                break;
+            }
+        }
+        System.out.printf("%9d %9s %10.2f %10.2f %8.2f %8.2f %12.1f %12.1f %s%n", count,
+                host.isUsingVirtualThreads() ? "virtual" : "platform", rates / count, minRate,
+                100.0 * late / Math.max(1, ticks), 100.0 * skipped / Math.max(1, ticks + skipped),
+                (p99 + 1) * GameSession.LATENESS_BUCKET_NANOS / 1e6, maxWake / 1e6,
+                minRate >= target * 0.98 ? "steady" : "FELL BEHIND");
+    }
+
+    /**
+     * A bot that sweeps back and forth at random and fires most of the time
+     */
+    private static InputSource bot(long seed){
+        Random r = new Random(seed);
+        return (tick, nanos, out) -> {
+            if (tick % 20 == 0) {
+                int move = r.nextInt(3);
+                out.leftHeld = move == 0 ? 1 : 0;
+                out.rightHeld = move == 1 ? 1 : 0;
+            }
+            out.fire = r.nextInt(4) != 0;
+        };
+    }
+}
@@ -0,0 +1,265 @@
+package Galaga;
+
+/**
+ * An actor's collision outline. Kept analytic (a circle is a centre and a radius, not a 16-gon) so that the common
+ * pairs can be tested with a few arithmetic operations; see Collisions. Shapes are updated in place as actors move.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+abstract class Shape {
+
+    static final int CIRCLE = 0;
+    static final int BOX = 1;
+    static final int TRIANGLE = 2;
+    static final int POLYGON = 3;
+    static final int KINDS = 4;
+
+    /**
+     * Which kind of shape this is, to index the dispatch table
+     */
+    abstract int kind();
+
+    /**
+     * How many axes this shape contributes to the general separating axis test
+     */
+    abstract int axisCount();
+
+    /**
+     * One of this shape's separating axes (need not be normalised)
+     * @param i The axis number
+     * @param other The shape being tested against (a circle's only axis points at it)
+     * @return The axis as {x, y}, written into out
+     */
+    abstract double[] axis(int i, Shape other, double[] out);
+
+    /**
+     * Project the shape onto an axis
+     * @return The {min, max} of the projection, written into out
+     */
+    abstract double[] project(double nx, double ny, double[] out);
+
+    /**
+     * The corner closest to a point, for a circle's axis; circles answer with their centre
+     * @return The corner as {x, y}, written into out
+     */
+    abstract double[] closestVertex(double px, double py, double[] out);
+
+    /**
+     * A copy of this shape moved by a whole number of pixels, e.g. to test where an actor is about to be
+     * @param reuse A shape from an earlier call to fill in instead of allocating, or null
+     * @return The moved copy (reuse, if it was of the same kind)
+     */
+    abstract Shape translated(int dx, int dy, Shape reuse);
+
+    /**
+     * A circle
+     */
+    static final class Circle extends Shape {
+        double centerX;
+        double centerY;
+        double radius;
+
+        void set(double centerX, double centerY, double radius){
+            this.centerX = centerX;
+            this.centerY = centerY;
+            this.radius = radius;
+        }
+
+        @Override
+        int kind(){
+            return CIRCLE;
+        }
+
+        @Override
+        int axisCount(){
+            return 1;
+        }
+
+        @Override
+        double[] axis(int i, Shape other, double[] out){
+            other.closestVertex(centerX, centerY, out);
+            out[0] -= centerX;
+            out[1] -= centerY;
+            return out;
+        }
+
+        @Override
+        double[] project(double nx, double ny, double[] out){
+            double c = centerX * nx + centerY * ny;
+            double r = radius * Math.sqrt(nx * nx + ny * ny);
+            out[0] = c - r;
+            out[1] = c + r;
+            return out;
+        }
+
+        @Override
+        double[] closestVertex(double px, double py, double[] out){
+            out[0] = centerX;
+            out[1] = centerY;
+            return out;
+        }
+
+        @Override
+        Shape translated(int dx, int dy, Shape reuse){
+            Circle copy = reuse instanceof Circle ? (Circle) reuse : new Circle();
+            copy.set(centerX + dx, centerY + dy, radius);
+            return copy;
+        }
+    }
+
+    /**
+     * A convex polygon given by its corners in order. Also the base of the fixed-size shapes below.
+     */
+    static class Polygon extends Shape {
+        int[] x;
+        int[] y;
+
+        Polygon(int[] x, int[] y){
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        int kind(){
+            return POLYGON;
+        }
+
+        @Override
+        int axisCount(){
+            return x.length;
+        }
+
+        @Override
+        double[] axis(int i, Shape other, double[] out){
+            int next = (i + 1) % x.length;
+            out[0] = y[i] - y[next];
+            out[1] = x[next] - x[i];
+            return out;
+        }
+
+        @Override
+        double[] project(double nx, double ny, double[] out){
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < x.length; i++) {
+                double p = x[i] * nx + y[i] * ny;
+                min = Math.min(min, p);
+                max = Math.max(max, p);
+            }
+            out[0] = min;
+            out[1] = max;
+            return out;
+        }
+
+        @Override
+        double[] closestVertex(double px, double py, double[] out){
+            double best = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < x.length; i++) {
+                double dx = x[i] - px;
+                double dy = y[i] - py;
+                if (dx * dx + dy * dy < best) {
+                    best = dx * dx + dy * dy;
+                    out[0] = x[i];
+                    out[1] = y[i];
+                }
+            }
+            return out;
+        }
+
+        @Override
+        Shape translated(int dx, int dy, Shape reuse){
+            Polygon copy = reuse != null && reuse.kind() == kind() && ((Polygon) reuse).x.length == x.length
+                    ? (Polygon) reuse : blank();
+            for (int i = 0; i < x.length; i++) {
+                copy.x[i] = x[i] + dx;
+                copy.y[i] = y[i] + dy;
+            }
+            return copy;
+        }
+
+        /**
+         * An empty shape of the same kind and corner count
+         */
+        Polygon blank(){
+            return new Polygon(new int[x.length], new int[y.length]);
+        }
+    }
+
+    /**
+     * An axis-aligned rectangle, stored as its four corners clockwise from the top left
+     */
+    static final class Box extends Polygon {
+
+        Box(){
+            super(new int[4], new int[4]);
+        }
+
+        void set(int left, int top, int width, int height){
+            x[0] = x[3] = left;
+            x[1] = x[2] = left + width;
+            y[0] = y[1] = top;
+            y[2] = y[3] = top + height;
+        }
+
+        int left(){
+            return x[0];
+        }
+
+        int right(){
+            return x[1];
+        }
+
+        int top(){
+            return y[0];
+        }
+
+        int bottom(){
+            return y[2];
+        }
+
+        @Override
+        int kind(){
+            return BOX;
+        }
+
+        @Override
+        int axisCount(){
+            return 2; // the other two edges are parallel to these
+        }
+
+        @Override
+        Polygon blank(){
+            return new Box();
+        }
+    }
+
+    /**
+     * A triangle
+     */
+    static final class Triangle extends Polygon {
+
+        Triangle(){
+            super(new int[3], new int[3]);
+        }
+
+        void set(int x0, int y0, int x1, int y1, int x2, int y2){
+            x[0] = x0;
+            y[0] = y0;
+            x[1] = x1;
+            y[1] = y1;
+            x[2] = x2;
+            y[2] = y2;
+        }
+
+        @Override
+        int kind(){
+            return TRIANGLE;
+        }
+
+        @Override
+        Polygon blank(){
+            return new Triangle();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package Galaga;
+
+import Galaga.Shape.Box;
+import Galaga.Shape.Circle;
+
+/**
+ * Circles and boxes packed for the batched narrow phase: one array per coordinate, so the same coordinate of many
+ * neighbouring shapes sits in consecutive floats and can be loaded as a single vector. Each kind fills its own arrays
+ * from index 0, and every shape carries a tag for the caller (ParallelTick stores its library index). Triangles and
+ * general polygons aren't batched; test those one by one with Collisions.
+ *
+ * Floats are enough here: coordinates are whole pixels and radii half pixels, so everything the kernels work out is a
+ * multiple of a quarter, which a float holds exactly below 2^22. A squared distance that big is far beyond any radius,
+ * so rounding it can't change a result, and the kernels agree with Collisions bit for bit.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+final class ShapeBatch {
+
+    static final int LANE_ALIGNMENT = 16; // the widest float vector (512 bits), so kernels never need a tail loop
+
+    final int stride;
+
+    final float[] centerX;
+    final float[] centerY;
+    final float[] radius;
+    final int[] circleTags;
+    int circles = 0;
+
+    final float[] left;
+    final float[] top;
+    final float[] right;
+    final float[] bottom;
+    final int[] boxTags;
+    int boxes = 0;
+
+    /**
+     * Create an empty batch
+     * @param capacity The most shapes of each kind it can hold
+     */
+    ShapeBatch(int capacity){
+        stride = Math.max(1, (capacity + LANE_ALIGNMENT - 1) / LANE_ALIGNMENT) * LANE_ALIGNMENT;
+        centerX = new float[stride];
+        centerY = new float[stride];
+        radius = new float[stride];
+        circleTags = new int[stride];
+        left = new float[stride];
+        top = new float[stride];
+        right = new float[stride];
+        bottom = new float[stride];
+        boxTags = new int[stride];
+    }
+
+    /**
+     * Append a shape
+     * @param shape The shape, as it is now (later changes to it aren't seen)
+     * @param tag Anything the caller wants back for it
+     * @return Whether it went in: false if it isn't a circle or a box, or its kind is full
+     */
+    boolean add(Shape shape, int tag){
+        if (shape.kind() == Shape.CIRCLE && circles < stride) {
+            Circle c = (Circle) shape;
+            centerX[circles] = (float) c.centerX;
+            centerY[circles] = (float) c.centerY;
+            radius[circles] = (float) c.radius;
+            circleTags[circles++] = tag;
+            return true;
+        }
+        if (shape.kind() == Shape.BOX && boxes < stride) {
+            Box b = (Box) shape;
+            left[boxes] = b.left();
+            top[boxes] = b.top();
+            right[boxes] = b.right();
+            bottom[boxes] = b.bottom();
+            boxTags[boxes++] = tag;
+            return true;
+        }
+        return false;
+    }
+
+    void clear(){
+        circles = 0;
+        boxes = 0;
+    }
+
+    int capacity(){
+        return stride;
+    }
+
+    /**
+     * How many longs a hit mask for this batch needs
+     */
+    int maskWords(){
+        return words(stride);
+    }
+
+    /**
+     * How many longs of a hit mask the kernels fill in for a kind with this many shapes
+     */
+    static int words(int count){
+        return (count + 63) >>> 6;
+    }
+}
@@ -0,0 +1,163 @@
+package Galaga;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Publishes every tick's state into a memory-mapped file laid out as a ring of fixed-size frames, so other processes
+ * on the same machine can follow the game by mapping the same file. One game writes; any number of readers poll.
+ *
+ * File layout (little endian):
+ *  - header: magic, version, frame size, frame capacity, max actors (ints), then at WRITE_SEQUENCE the number of
+ *    frames published so far (long)
+ *  - frames: sequence (long, -1 while being written), tick, score, lives, level, actor count, padding (ints), then per
+ *    actor its kind, x, y and size (shorts)
+ *
+ * A reader checks a frame's sequence before and after reading it; if the two don't match the writer lapped it.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public class SharedStateExporter implements TickObserver, AutoCloseable {
+
+    static final int MAGIC = 0x474C4741; // "GLGA"
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 64;
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int FRAME_SIZE_OFFSET = 8;
+    static final int CAPACITY_OFFSET = 12;
+    static final int MAX_ACTORS_OFFSET = 16;
+    static final int WRITE_SEQUENCE = 32;
+
+    static final int FRAME_SEQUENCE = 0;
+    static final int FRAME_TICK = 8;
+    static final int FRAME_SCORE = 12;
+    static final int FRAME_LIVES = 16;
+    static final int FRAME_LEVEL = 20;
+    static final int FRAME_ACTOR_COUNT = 24;
+    static final int FRAME_ACTORS = 32;
+    static final int ACTOR_SIZE = 8;
+
+    public static final short KIND_FIGHTER = 1;
+    public static final short KIND_ENEMY = 2;
+    public static final short KIND_DIVING_ENEMY = 3;
+    public static final short KIND_FIGHTER_SHOT = 4;
+    public static final short KIND_ENEMY_SHOT = 5;
+
+    // ordered (release/acquire) access to the sequence numbers that tie the frames together
+    static final VarHandle LONG_VIEW = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int maxActors;
+    private final int frameSize;
+    private long sequence = 0;
+
+    /**
+     * Create (or overwrite) the shared file and map it
+     * @param file Where to put the shared file
+     * @param capacity How many frames the ring holds before the oldest is overwritten
+     * @param maxActors The most actors a frame can describe; extra actors are left out
+     * @throws IOException If the file can't be created or mapped
+     */
+    public SharedStateExporter(Path file, int capacity, int maxActors) throws IOException {
+        this.capacity = capacity;
+        this.maxActors = maxActors;
+        this.frameSize = align(FRAME_ACTORS + maxActors * ACTOR_SIZE);
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * frameSize);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putInt(FRAME_SIZE_OFFSET, frameSize);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        buffer.putInt(MAX_ACTORS_OFFSET, maxActors);
+        LONG_VIEW.setRelease(buffer, WRITE_SEQUENCE, 0L);
+        for (int i = 0; i < capacity; i++) {
+            LONG_VIEW.setRelease(buffer, HEADER_SIZE + i * frameSize + FRAME_SEQUENCE, -1L);
+        }
+        // magic goes in last, so a reader never sees a half-initialised header as valid
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+    }
+
+    /**
+     * Write the finished tick into the next frame of the ring
+     * @param game The game that ticked
+     * @param tick The tick number that was just processed
+     */
+    @Override
+    public void tickFinished(GalagaGame game, int tick) {
+        int frame = HEADER_SIZE + (int) (sequence % capacity) * frameSize;
+
+        // mark the frame as in progress, fill it in, then stamp it with its sequence number
+        LONG_VIEW.setRelease(buffer, frame + FRAME_SEQUENCE, -1L);
+        VarHandle.storeStoreFence();
+        buffer.putInt(frame + FRAME_TICK, tick + game.getRewoundTicks()); // going forward through rewinds
+        buffer.putInt(frame + FRAME_SCORE, game.getScore());
+        buffer.putInt(frame + FRAME_LIVES, game.getPlayerLives());
+        buffer.putInt(frame + FRAME_LEVEL, game.getLevel());
+
+        int count = 0;
+        PlayerFighter fighter = game.getFighter();
+        if (fighter.isAlive()) {
+            count = putActor(frame, count, KIND_FIGHTER, fighter);
+        }
+        for (Enemy[] column : game.getEnemies()) {
+            for (Enemy e : column) {
+                if (e.isAlive()) {
+                    count = putActor(frame, count, e.getPath() == null ? KIND_ENEMY : KIND_DIVING_ENEMY, e);
+                }
+            }
+        }
+        for (Projectile shot : game.getShots()) {
+            if (shot.isAlive()) {
+                count = putActor(frame, count, shot.getMomentumY() < 0 ? KIND_FIGHTER_SHOT : KIND_ENEMY_SHOT, shot);
+            }
+        }
+        buffer.putInt(frame + FRAME_ACTOR_COUNT, count);
+
+        LONG_VIEW.setRelease(buffer, frame + FRAME_SEQUENCE, sequence);
+        sequence++;
+        LONG_VIEW.setRelease(buffer, WRITE_SEQUENCE, sequence);
+    }
+
+    /**
+     * Write one actor into a frame, if there's room
+     * @return The new actor count
+     */
+    private int putActor(int frame, int count, short kind, Actor actor) {
+        if (count >= maxActors) {
+            return count;
+        }
+        Point p = actor.getPos();
+        int at = frame + FRAME_ACTORS + count * ACTOR_SIZE;
+        buffer.putShort(at, kind);
+        buffer.putShort(at + 2, (short) p.x);
+        buffer.putShort(at + 4, (short) p.y);
+        buffer.putShort(at + 6, (short) actor.getSize().width);
+        return count + 1;
+    }
+
+    /**
+     * Round a frame size up so every frame's sequence number is 8-byte aligned
+     */
+    private static int align(int size) {
+        return (size + 7) & ~7;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
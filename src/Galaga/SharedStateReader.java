@@ -0,0 +1,156 @@
+package Galaga;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import static Galaga.SharedStateExporter.*;
+
+/**
+ * Follows a game published by a SharedStateExporter, possibly from another process. Values are read straight out of
+ * the mapped file; nothing is copied. Because the writer never waits, a value read from the current frame must be
+ * confirmed with isCurrentFrameIntact before trusting it.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public class SharedStateReader implements AutoCloseable {
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int frameSize;
+    private final int capacity;
+
+    private long nextSequence = 0;
+    private long currentSequence = -1;
+    private int frame = -1;
+    private long skipped = 0;
+
+    /**
+     * Map a shared state file for reading
+     * @param file The file the exporter writes
+     * @throws IOException If the file can't be mapped or isn't a shared state file
+     */
+    public SharedStateReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(MAGIC_OFFSET) != MAGIC || buffer.getInt(VERSION_OFFSET) != VERSION) {
+            channel.close();
+            throw new IOException("Not a shared game state file: " + file);
+        }
+        frameSize = buffer.getInt(FRAME_SIZE_OFFSET);
+        capacity = buffer.getInt(CAPACITY_OFFSET);
+    }
+
+    /**
+     * Move on to the next published frame. A reader that fell more than a ring's worth behind jumps ahead to the
+     * oldest frame still available.
+     * @return Whether or not there was a new frame; if not, try again later
+     */
+    public boolean next() {
+        long published = (long) LONG_VIEW.getAcquire(buffer, WRITE_SEQUENCE);
+        if (nextSequence >= published) {
+            return false;
+        }
+        if (published - nextSequence > capacity - 1) {
+            long oldest = published - (capacity - 1);
+            skipped += oldest - nextSequence;
+            nextSequence = oldest;
+        }
+        currentSequence = nextSequence++;
+        frame = HEADER_SIZE + (int) (currentSequence % capacity) * frameSize;
+        return isCurrentFrameIntact();
+    }
+
+    /**
+     * Check that the writer hasn't started overwriting the current frame. Call after reading values to confirm them.
+     * @return Whether or not everything read from the frame so far is consistent
+     */
+    public boolean isCurrentFrameIntact() {
+        VarHandle.loadLoadFence();
+        return (long) LONG_VIEW.getAcquire(buffer, frame + FRAME_SEQUENCE) == currentSequence;
+    }
+
+    public int getTick() {
+        return buffer.getInt(frame + FRAME_TICK);
+    }
+
+    public int getScore() {
+        return buffer.getInt(frame + FRAME_SCORE);
+    }
+
+    public int getLives() {
+        return buffer.getInt(frame + FRAME_LIVES);
+    }
+
+    public int getLevel() {
+        return buffer.getInt(frame + FRAME_LEVEL);
+    }
+
+    public int getActorCount() {
+        return buffer.getInt(frame + FRAME_ACTOR_COUNT);
+    }
+
+    /**
+     * @param i Which actor of the current frame
+     * @return One of the SharedStateExporter.KIND_ constants
+     */
+    public short getActorKind(int i) {
+        return buffer.getShort(frame + FRAME_ACTORS + i * ACTOR_SIZE);
+    }
+
+    public short getActorX(int i) {
+        return buffer.getShort(frame + FRAME_ACTORS + i * ACTOR_SIZE + 2);
+    }
+
+    public short getActorY(int i) {
+        return buffer.getShort(frame + FRAME_ACTORS + i * ACTOR_SIZE + 4);
+    }
+
+    public short getActorSize(int i) {
+        return buffer.getShort(frame + FRAME_ACTORS + i * ACTOR_SIZE + 6);
+    }
+
+    /**
+     * How many frames were lapped by the writer before this reader got to them
+     * @return The number of skipped frames
+     */
+    public long getSkippedFrames() {
+        return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Follow a running game and print a line per frame
+     * @param args The shared state file
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        try (SharedStateReader reader = new SharedStateReader(Paths.get(args[0]))) {
+            while (true) {
+                if (!reader.next()) {
+                    Thread.sleep(1);
+                    continue;
+                }
+                int tick = reader.getTick();
+                int score = reader.getScore();
+                int lives = reader.getLives();
+                int level = reader.getLevel();
+                int actors = reader.getActorCount();
+                if (reader.isCurrentFrameIntact()) {
+                    System.out.printf("tick %d  level %d  score %d  lives %d  actors %d  (skipped %d)%n",
+                            tick, level, score, lives, actors, reader.getSkippedFrames());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package Galaga;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A lock-free triple buffer of render snapshots. The simulation always owns one snapshot to fill, the renderer always
+ * owns one to draw, and the third sits in the middle as the most recently published frame. Handing off is a single
+ * atomic swap on either side, so neither thread ever waits on the other.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+final class SnapshotBuffer {
+
+    // the middle index lives in the low bits, the high bit marks it as not yet seen by the renderer
+    private static final int INDEX_MASK = 0x3;
+    private static final int FRESH = 0x4;
+
+    private final RenderSnapshot[] buffers = {new RenderSnapshot(), new RenderSnapshot(), new RenderSnapshot()};
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;   // only touched by the simulation
+    private int front = 2;  // only touched by the renderer
+
+    /**
+     * Get the snapshot the simulation should fill next. It stays private to the simulation until published.
+     * @return The writable snapshot
+     */
+    RenderSnapshot back(){
+        return buffers[back];
+    }
+
+    /**
+     * Publish the back snapshot as the latest frame and take the old middle one to fill next.
+     */
+    void publish(){
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Get the most recently published snapshot. Returns the same one again if nothing new has been published.
+     * @return The snapshot to draw; it will not change until the next call from the renderer
+     */
+    RenderSnapshot latest(){
+        if ((middle.get() & FRESH) != 0){
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return buffers[front];
+    }
+}
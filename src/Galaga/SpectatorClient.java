@@ -0,0 +1,125 @@
+package Galaga;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import static Galaga.SpectatorServer.*;
+
+/**
+ * Follows a game streamed by a SpectatorServer. Non-blocking: call poll as often as convenient (e.g. once per frame of
+ * a lobby screen) and read the latest state when it says something new arrived.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public class SpectatorClient implements AutoCloseable {
+
+    private final SocketChannel channel;
+    private ByteBuffer in = ByteBuffer.allocate(64 * 1024);
+    private final ByteBuffer ack = ByteBuffer.allocate(4);
+
+    // decoded frames by sequence, so a delta against any recently acknowledged frame can be applied
+    private final GameStateVector[] history = new GameStateVector[HISTORY];
+    private final int[] historySequences = new int[HISTORY];
+    private GameStateVector latest;
+    private int latestSequence = -1;
+    private int latestTick = -1;
+    private long framesReceived = 0;
+
+    /**
+     * Connect to a spectator server
+     * @param address The server's address
+     * @throws IOException If the connection fails
+     */
+    public SpectatorClient(InetSocketAddress address) throws IOException {
+        channel = SocketChannel.open(address);
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        for (int i = 0; i < HISTORY; i++) {
+            history[i] = new GameStateVector();
+            historySequences[i] = -1;
+        }
+    }
+
+    /**
+     * Read whatever has arrived, decode complete frames and acknowledge the newest
+     * @return Whether or not a new frame was decoded
+     * @throws IOException If the connection was lost
+     */
+    public boolean poll() throws IOException {
+        if (channel.read(in) < 0) {
+            throw new IOException("Spectator server closed the connection");
+        }
+        in.flip();
+        boolean decoded = false;
+        while (in.remaining() >= 4 && in.remaining() >= 4 + in.getInt(in.position())) {
+            int length = in.getInt();
+            int end = in.position() + length;
+            byte type = in.get();
+            int sequence = in.getInt();
+            int baseSequence = in.getInt();
+            int tick = in.getInt();
+
+            GameStateVector target = history[sequence % HISTORY];
+            if (type == KEYFRAME) {
+                StateCodec.readKeyframe(in, target);
+            } else {
+                int b = baseSequence % HISTORY;
+                if (historySequences[b] != baseSequence) {
+                    // we no longer have the base; skip it and wait for the next frame
+                    in.position(end);
+                    continue;
+                }
+                if (target != history[b]) {
+                    target.copyFrom(history[b]);
+                }
+                StateCodec.readDelta(in, target);
+            }
+            in.position(end);
+            historySequences[sequence % HISTORY] = sequence;
+            latest = target;
+            latestSequence = sequence;
+            latestTick = tick;
+            framesReceived++;
+            decoded = true;
+        }
+        in.compact();
+        if (in.position() == in.capacity()) {
+            // a frame bigger than the buffer: make room for it
+            ByteBuffer bigger = ByteBuffer.allocate(in.capacity() * 2);
+            in.flip();
+            bigger.put(in);
+            in = bigger;
+        }
+
+        if (decoded) {
+            ack.clear();
+            ack.putInt(latestSequence).flip();
+            channel.write(ack);
+        }
+        return decoded;
+    }
+
+    /**
+     * The newest decoded state (reused as frames arrive)
+     * @return The state, or null if nothing arrived yet
+     */
+    public GameStateVector getLatest() {
+        return latest;
+    }
+
+    public int getLatestTick() {
+        return latestTick;
+    }
+
+    public long getFramesReceived() {
+        return framesReceived;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,109 @@
+package Galaga;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Shows that spectators don't slow the game down: runs a headless game at the normal tick rate with a spectator
+ * server attached, first with nobody watching and then with hundreds of local spectators (a few of which never read,
+ * to exercise dropping), and compares tick rate and tick times.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public class SpectatorLoadTest {
+
+    private static final long TICK_NANOS = 23_000_000L;
+
+    /**
+     * @param args [spectator count] [seconds per phase] [stalled spectator count]
+     */
+    public static void main(String[] args) throws IOException {
+        int spectators = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int stalled = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        try (SpectatorServer server = new SpectatorServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+
+            System.out.println("No spectators:");
+            runPhase(server, new ArrayList<>(), seconds);
+
+            ArrayList<SpectatorClient> clients = new ArrayList<>();
+            for (int i = 0; i < spectators + stalled; i++) {
+                clients.add(new SpectatorClient(address));
+            }
+            System.out.println(spectators + " spectators (+" + stalled + " that never read):");
+            // the stalled ones are simply never polled
+            runPhase(server, new ArrayList<>(clients.subList(0, spectators)), seconds);
+
+            long received = 0;
+            for (SpectatorClient client : clients) {
+                received += client.getFramesReceived();
+                client.close();
+            }
+            System.out.printf("  frames received per spectator: %.0f, spectators dropped for falling behind: %d%n",
+                    received / (double) spectators, server.getDroppedCount());
+        }
+    }
+
+    /**
+     * Tick a fresh game on this thread at the normal rate while a helper thread plays all the spectators
+     */
+    private static void runPhase(SpectatorServer server, ArrayList<SpectatorClient> clients, int seconds) {
+        GalagaGame game = new GalagaGame(400, 600, 42);
+        game.setSnapshotPublishing(false);
+        game.addTickObserver(server);
+
+        Thread watchers = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                for (SpectatorClient client : clients) {
+                    try {
+                        client.poll();
+                    } catch (IOException ioe) {
+                        // the server dropped it; nothing to do
+                    }
+                }
+                LockSupport.parkNanos(1_000_000L);
+            }
+        }, "spectator-load");
+        watchers.setDaemon(true);
+        watchers.start();
+
+        int ticks = (int) (seconds * 1_000_000_000L / TICK_NANOS);
+        long[] tickTimes = new long[ticks];
+        Random r = new Random(7);
+        long start = System.nanoTime();
+        long deadline = start;
+        int tick = 0;
+        for (; tick < ticks; tick++) {
+            if (!game.isRunning()) {
+                game.removeTickObserver(server);
+                game = new GalagaGame(400, 600, tick);
+                game.setSnapshotPublishing(false);
+                game.addTickObserver(server);
+            }
+            long before = System.nanoTime();
+            game.handleTick(tick, r.nextBoolean(), r.nextInt(3) == 0, r.nextInt(3) == 0);
+            tickTimes[tick] = System.nanoTime() - before;
+
+            deadline += TICK_NANOS;
+            long wait = deadline - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        watchers.interrupt();
+
+        Arrays.sort(tickTimes);
+        System.out.printf("  %.1f ticks/sec, tick time p50 %.3f ms, p99 %.3f ms, max %.3f ms, %d connected%n",
+                tick / elapsed, tickTimes[ticks / 2] / 1e6, tickTimes[ticks * 99 / 100] / 1e6,
+                tickTimes[ticks - 1] / 1e6, server.getSpectatorCount());
+    }
+}
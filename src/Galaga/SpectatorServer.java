@@ -0,0 +1,305 @@
+package Galaga;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Streams a live game to any number of spectators over TCP. The game only drops a copy of each tick's state into a
+ * slot and wakes the network thread; everything else (accepting, encoding, writing) happens on that thread with
+ * non-blocking sockets, so no spectator can ever hold up a tick.
+ *
+ * Each frame is sent as a delta against the last frame that spectator acknowledged, or as a keyframe if it hasn't
+ * acknowledged one recently. A spectator still busy receiving the previous frame simply misses frames; one that
+ * misses too many in a row is disconnected.
+ *
+ * Messages to spectators: length of the rest (int), type (byte), frame sequence (int), base sequence (int, -1 for
+ * keyframes), game tick (int), payload (see StateCodec). Messages from spectators: the sequence of a fully received
+ * frame (int). All big endian. Sequences keep counting up across games, unlike ticks.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public class SpectatorServer implements TickObserver, AutoCloseable {
+
+    static final byte KEYFRAME = 1;
+    static final byte DELTA = 2;
+    static final int MESSAGE_HEADER_SIZE = 17;
+    static final int HISTORY = 64;
+
+    private static final int MAX_MISSED_FRAMES = 43 * 5;
+
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final Thread network;
+    private final AtomicReference<Frame> latest = new AtomicReference<>();
+    private final GameStateVector scratch = new GameStateVector();
+    private volatile boolean open = true;
+    private int sequence = 0;
+
+    // only touched by the network thread
+    private final Frame[] history = new Frame[HISTORY];
+    private final HashMap<Integer, ByteBuffer> encodedByBase = new HashMap<>();
+    private Frame lastBroadcast = null;
+    private volatile int spectatorCount = 0;
+    private volatile int dropped = 0;
+
+    /**
+     * Start listening for spectators
+     * @param address Where to listen, e.g. the loopback or LAN address and a port
+     * @throws IOException If the port can't be bound
+     */
+    public SpectatorServer(InetSocketAddress address) throws IOException {
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(address);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+
+        network = new Thread(this::run, "galaga-spectators");
+        network.setDaemon(true);
+        network.start();
+    }
+
+    /**
+     * Hand a copy of the finished tick to the network thread
+     * @param game The game that ticked
+     * @param tick The tick number that was just processed
+     */
+    @Override
+    public void tickFinished(GalagaGame game, int tick) {
+        scratch.capture(game);
+        GameStateVector copy = new GameStateVector();
+        copy.copyFrom(scratch);
+        latest.set(new Frame(sequence++, tick + game.getRewoundTicks(), copy)); // going forward through rewinds
+        selector.wakeup();
+    }
+
+    /**
+     * The network thread: accept, read acknowledgements, broadcast new frames and finish partial writes
+     */
+    private void run() {
+        try {
+            while (open) {
+                selector.select(100);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        if (key.isReadable()) {
+                            readAcks(key);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            write(key);
+                        }
+                    }
+                }
+
+                Frame frame = latest.get();
+                if (frame != null && frame != lastBroadcast) {
+                    broadcast(frame);
+                    lastBroadcast = frame;
+                }
+            }
+        } catch (IOException ioe) {
+            System.err.println("Spectator server stopped: " + ioe.getMessage());
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        channel.register(selector, SelectionKey.OP_READ, new Spectator());
+        spectatorCount++;
+    }
+
+    private void readAcks(SelectionKey key) {
+        Spectator spectator = (Spectator) key.attachment();
+        try {
+            if (((SocketChannel) key.channel()).read(spectator.in) < 0) {
+                disconnect(key);
+                return;
+            }
+        } catch (IOException ioe) {
+            disconnect(key);
+            return;
+        }
+        spectator.in.flip();
+        while (spectator.in.remaining() >= 4) {
+            spectator.acked = spectator.in.getInt();
+        }
+        spectator.in.compact();
+    }
+
+    /**
+     * Send a frame to every spectator that is ready for one
+     */
+    private void broadcast(Frame frame) {
+        history[frame.sequence % HISTORY] = frame;
+        encodedByBase.clear();
+
+        for (SelectionKey key : selector.keys()) {
+            if (!(key.attachment() instanceof Spectator) || !key.isValid()) {
+                continue;
+            }
+            Spectator spectator = (Spectator) key.attachment();
+            if (spectator.out.hasRemaining()) {
+                // still sending an older frame: skip this one, and give up on spectators that never catch up
+                spectator.missed++;
+                if (spectator.missed > MAX_MISSED_FRAMES) {
+                    dropped++;
+                    disconnect(key);
+                }
+                continue;
+            }
+            spectator.missed = 0;
+
+            // spectators acknowledging the same frame share one encoding
+            Frame base = baseFor(spectator.acked, frame);
+            int baseSequence = base == null ? -1 : base.sequence;
+            ByteBuffer message = encodedByBase.get(baseSequence);
+            if (message == null) {
+                message = encode(frame, base);
+                encodedByBase.put(baseSequence, message);
+            }
+            spectator.out = message.duplicate();
+            write(key);
+        }
+    }
+
+    /**
+     * Find the frame a spectator acknowledged, if it's still in the history and older than the new frame
+     */
+    private Frame baseFor(int acked, Frame frame) {
+        if (acked < 0 || acked >= frame.sequence || frame.sequence - acked >= HISTORY) {
+            return null;
+        }
+        Frame base = history[acked % HISTORY];
+        return base != null && base.sequence == acked ? base : null;
+    }
+
+    private ByteBuffer encode(Frame frame, Frame base) {
+        int size = MESSAGE_HEADER_SIZE + (base == null ? StateCodec.maxKeyframeSize(frame.state)
+                : StateCodec.maxDeltaSize(frame.state));
+        ByteBuffer message = ByteBuffer.allocate(size).order(ByteOrder.BIG_ENDIAN);
+        message.putInt(0).put(base == null ? KEYFRAME : DELTA).putInt(frame.sequence)
+                .putInt(base == null ? -1 : base.sequence).putInt(frame.tick);
+        if (base == null) {
+            StateCodec.writeKeyframe(message, frame.state);
+        } else {
+            StateCodec.writeDelta(message, base.state, frame.state);
+        }
+        message.putInt(0, message.position() - 4);
+        message.flip();
+        return message.asReadOnlyBuffer();
+    }
+
+    /**
+     * Write as much of a spectator's pending frame as the socket takes right now, and ask to be told when it can take
+     * the rest
+     */
+    private void write(SelectionKey key) {
+        Spectator spectator = (Spectator) key.attachment();
+        try {
+            ((SocketChannel) key.channel()).write(spectator.out);
+        } catch (IOException ioe) {
+            disconnect(key);
+            return;
+        }
+        if (spectator.out.hasRemaining()) {
+            key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        } else {
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    private void disconnect(SelectionKey key) {
+        if (key.isValid()) {
+            spectatorCount--;
+        }
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+            // already gone
+        }
+    }
+
+    /**
+     * How many spectators are connected right now
+     * @return The spectator count
+     */
+    public int getSpectatorCount() {
+        return spectatorCount;
+    }
+
+    /**
+     * How many spectators were disconnected for falling too far behind
+     * @return The drop count
+     */
+    public int getDroppedCount() {
+        return dropped;
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        open = false;
+        selector.wakeup();
+        try {
+            network.join(1000);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+    }
+
+    /**
+     * One tick's state, never changed once handed to the network thread
+     */
+    private static final class Frame {
+        final int sequence;
+        final int tick;
+        final GameStateVector state;
+
+        Frame(int sequence, int tick, GameStateVector state) {
+            this.sequence = sequence;
+            this.tick = tick;
+            this.state = state;
+        }
+    }
+
+    /**
+     * A connected spectator's progress
+     */
+    private static final class Spectator {
+        final ByteBuffer in = ByteBuffer.allocate(64);
+        ByteBuffer out = ByteBuffer.allocate(0);
+        int acked = -1;
+        int missed = 0;
+    }
+}
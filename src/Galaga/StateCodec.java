@@ -0,0 +1,138 @@
+package Galaga;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compact binary encoding of game state vectors: keyframes hold every value, deltas only the values that changed
+ * since a base vector. Everything is written as variable-length integers, so small numbers and small changes cost a
+ * byte or two.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+final class StateCodec {
+
+    private StateCodec(){
+    }
+
+    /**
+     * The most bytes a keyframe of the given vector can take
+     * @param state The vector to be written
+     * @return An upper bound on the encoded size
+     */
+    static int maxKeyframeSize(GameStateVector state){
+        return 5 + state.length * 5;
+    }
+
+    /**
+     * The most bytes a delta to the given vector can take, whatever it is against
+     * @param state The vector to be written
+     * @return An upper bound on the encoded size
+     */
+    static int maxDeltaSize(GameStateVector state){
+        return 10 + state.length * 10;
+    }
+
+    /**
+     * Write every value of a vector
+     * @param out Where to write
+     * @param state The vector to write
+     */
+    static void writeKeyframe(ByteBuffer out, GameStateVector state){
+        putVarint(out, state.length);
+        for (int i = 0; i < state.length; i++){
+            putVarint(out, zigzag(state.values[i]));
+        }
+    }
+
+    /**
+     * Read a keyframe written by writeKeyframe
+     * @param in Where to read from
+     * @param into The vector to overwrite
+     */
+    static void readKeyframe(ByteBuffer in, GameStateVector into){
+        int length = getVarint(in);
+        into.ensureCapacity(length);
+        for (int i = 0; i < length; i++){
+            into.values[i] = unzigzag(getVarint(in));
+        }
+        into.length = length;
+    }
+
+    /**
+     * Write only what changed between two vectors, as (distance from the last changed index, difference) pairs
+     * @param out Where to write
+     * @param base The vector the reader will already have
+     * @param state The vector to write
+     */
+    static void writeDelta(ByteBuffer out, GameStateVector base, GameStateVector state){
+        putVarint(out, state.length);
+        int last = -1;
+        for (int i = 0; i < state.length; i++){
+            int old = i < base.length ? base.values[i] : 0;
+            int now = state.values[i];
+            if (old != now){
+                putVarint(out, i - last);
+                putVarint(out, zigzag(now - old));
+                last = i;
+            }
+        }
+        // a distance of zero can't happen otherwise, so it marks the end
+        putVarint(out, 0);
+    }
+
+    /**
+     * Apply a delta written by writeDelta to the vector it was written against
+     * @param in Where to read from
+     * @param into The base vector, which becomes the new state
+     */
+    static void readDelta(ByteBuffer in, GameStateVector into){
+        int length = getVarint(in);
+        into.ensureCapacity(length);
+        for (int i = into.length; i < length; i++){
+            into.values[i] = 0;
+        }
+        into.length = length;
+        int at = -1;
+        int gap;
+        while ((gap = getVarint(in)) != 0){
+            at += gap;
+            into.values[at] += unzigzag(getVarint(in));
+        }
+    }
+
+    /**
+     * Write an unsigned variable-length integer, 7 bits per byte
+     */
+    static void putVarint(ByteBuffer out, int value){
+        while ((value & ~0x7F) != 0){
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    /**
+     * Read an unsigned variable-length integer written by putVarint
+     */
+    static int getVarint(ByteBuffer in){
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    // map signed to unsigned so small negative numbers stay small
+    private static int zigzag(int value){
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value){
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,262 @@
+package Galaga;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Records the full state of a game every tick: a keyframe every so often, and deltas against the previous tick in
+ * between. Frames are packed into a small pool of buffers that a background thread writes out, so the tick only
+ * waits if the disk falls a whole pool behind. Closing the recorder appends an index of keyframes so a player can
+ * jump straight to any tick.
+ *
+ * A rewind doesn't take the recording back with it: its ticks keep counting up, so it shows the rewind as a jump to
+ * the earlier state (a keyframe) and stays in order for seeking.
+ *
+ * File layout (little endian):
+ *  - header: magic, version, keyframe interval, 0 (ints)
+ *  - frames: type (byte), tick (int), payload length (int), payload (see StateCodec)
+ *  - index: (tick int, file offset long) per keyframe
+ *  - footer: index offset (long), keyframe count (int), magic (int)
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public class StateRecorder implements TickObserver, AutoCloseable {
+
+    static final int MAGIC = 0x474C5243; // "GLRC"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int FRAME_HEADER_SIZE = 9;
+    static final int INDEX_ENTRY_SIZE = 12;
+    static final int FOOTER_SIZE = 16;
+    static final byte KEYFRAME = 1;
+    static final byte DELTA = 2;
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int BUFFER_COUNT = 8;
+
+    private final FileChannel channel;
+    private final int keyframeInterval;
+    private final BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(BUFFER_COUNT);
+    private final BlockingQueue<ByteBuffer> full = new ArrayBlockingQueue<>(BUFFER_COUNT + 1);
+    private final ByteBuffer endOfStream = ByteBuffer.allocate(0);
+    private final Thread writer;
+    private volatile IOException writeFailure;
+
+    private ByteBuffer current;
+    private long offset = HEADER_SIZE;
+    private GameStateVector previous = new GameStateVector();
+    private GameStateVector state = new GameStateVector();
+    private int framesSinceKeyframe = 0;
+    private boolean hasPrevious = false;
+    private int rewoundTicks = 0;
+    private int stalls = 0;
+
+    private int[] keyframeTicks = new int[256];
+    private long[] keyframeOffsets = new long[256];
+    private int keyframeCount = 0;
+
+    /**
+     * Start a new recording
+     * @param file The file to record to (overwritten)
+     * @param keyframeInterval Ticks between keyframes; also the most frames a seek has to decode
+     * @throws IOException If the file can't be created
+     */
+    public StateRecorder(Path file, int keyframeInterval) throws IOException {
+        this.keyframeInterval = keyframeInterval;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(keyframeInterval).putInt(0).flip();
+        writeFully(header);
+
+        for (int i = 0; i < BUFFER_COUNT; i++) {
+            free.add(ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN));
+        }
+        current = free.poll();
+
+        writer = new Thread(this::drain, "galaga-recorder");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Capture the finished tick and append it as a keyframe or a delta
+     * @param game The game that ticked
+     * @param tick The tick number that was just processed
+     */
+    @Override
+    public void tickFinished(GalagaGame game, int tick) {
+        state.capture(game);
+        tick += rewoundTicks;
+
+        boolean keyframe = !hasPrevious || framesSinceKeyframe >= keyframeInterval;
+        int worstCase = FRAME_HEADER_SIZE
+                + (keyframe ? StateCodec.maxKeyframeSize(state) : StateCodec.maxDeltaSize(state));
+        ByteBuffer out = reserve(worstCase);
+
+        if (keyframe) {
+            addIndexEntry(tick, offset);
+            framesSinceKeyframe = 0;
+        }
+
+        // frame header, with the payload length patched in once it's known
+        int start = out.position();
+        out.put(keyframe ? KEYFRAME : DELTA).putInt(tick).putInt(0);
+        if (keyframe) {
+            StateCodec.writeKeyframe(out, state);
+        } else {
+            StateCodec.writeDelta(out, previous, state);
+        }
+        out.putInt(start + 5, out.position() - start - FRAME_HEADER_SIZE);
+        offset += out.position() - start;
+        framesSinceKeyframe++;
+
+        // the state just written is the base for the next delta
+        GameStateVector swap = previous;
+        previous = state;
+        state = swap;
+        hasPrevious = true;
+    }
+
+    /**
+     * Keep the recorded ticks going up, and start over from a keyframe
+     */
+    @Override
+    public void rewound(GalagaGame game, int tick) {
+        rewoundTicks = game.getRewoundTicks();
+        hasPrevious = false;
+    }
+
+    /**
+     * Get a buffer with at least the given room, handing the current one to the writer if it's too full
+     * @param bytes The room needed
+     * @return The buffer to write into
+     */
+    private ByteBuffer reserve(int bytes) {
+        if (current.remaining() >= bytes) {
+            return current;
+        }
+        submit(current);
+        if (bytes > BUFFER_SIZE) {
+            // a huge formation: give this one frame a buffer of its own rather than growing the pool
+            current = ByteBuffer.allocateDirect(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            return current;
+        }
+        current = free.poll();
+        if (current == null) {
+            // the disk is a whole pool behind. wait for it rather than dropping part of the recording
+            stalls++;
+            try {
+                current = free.take();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                current = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Queue a filled buffer for the writer thread
+     */
+    private void submit(ByteBuffer buffer) {
+        buffer.flip();
+        try {
+            full.put(buffer);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Remember where a keyframe starts so the index can be written at the end
+     */
+    private void addIndexEntry(int tick, long at) {
+        if (keyframeCount == keyframeTicks.length) {
+            keyframeTicks = Arrays.copyOf(keyframeTicks, keyframeCount * 2);
+            keyframeOffsets = Arrays.copyOf(keyframeOffsets, keyframeCount * 2);
+        }
+        keyframeTicks[keyframeCount] = tick;
+        keyframeOffsets[keyframeCount] = at;
+        keyframeCount++;
+    }
+
+    /**
+     * The writer thread: write out full buffers in order and recycle them
+     */
+    private void drain() {
+        try {
+            while (true) {
+                ByteBuffer buffer = full.take();
+                if (buffer == endOfStream) {
+                    return;
+                }
+                if (writeFailure == null) {
+                    try {
+                        writeFully(buffer);
+                    } catch (IOException ioe) {
+                        writeFailure = ioe;
+                    }
+                }
+                if (buffer.capacity() == BUFFER_SIZE) {
+                    buffer.clear();
+                    free.offer(buffer);
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * How many times the tick had to wait for the writer because every buffer was full
+     * @return The number of stalls
+     */
+    public int getStalls() {
+        return stalls;
+    }
+
+    /**
+     * Flush everything, append the keyframe index and close the file
+     * @throws IOException If anything failed to write, now or in the background
+     */
+    @Override
+    public void close() throws IOException {
+        submit(current);
+        try {
+            full.put(endOfStream);
+            writer.join();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (writeFailure != null) {
+                throw writeFailure;
+            }
+            ByteBuffer index = ByteBuffer.allocate(keyframeCount * INDEX_ENTRY_SIZE + FOOTER_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < keyframeCount; i++) {
+                index.putInt(keyframeTicks[i]).putLong(keyframeOffsets[i]);
+            }
+            index.putLong(offset).putInt(keyframeCount).putInt(MAGIC).flip();
+            writeFully(index);
+        } finally {
+            channel.close();
+        }
+    }
+}
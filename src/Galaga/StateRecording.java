@@ -0,0 +1,199 @@
+package Galaga;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static Galaga.StateRecorder.*;
+
+/**
+ * Plays back a recording made by StateRecorder. Opening only reads the footer and keyframe index, and seeking reads
+ * one keyframe plus at most a keyframe interval of deltas, so recordings of any length open and seek instantly.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public class StateRecording implements AutoCloseable {
+
+    private final FileChannel channel;
+    private final int keyframeInterval;
+    private final int[] keyframeTicks;
+    private final long[] keyframeOffsets;
+    private final long framesEnd;
+
+    private final GameStateVector state = new GameStateVector();
+    private ByteBuffer chunk = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+    private long chunkOffset = 0;
+    private long nextFrameOffset = -1;
+    private int tick = -1;
+
+    /**
+     * Open a recording and load its index
+     * @param file The recording
+     * @throws IOException If the file can't be read or wasn't closed properly
+     */
+    public StateRecording(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+
+        ByteBuffer header = read(0, HEADER_SIZE);
+        ByteBuffer footer = read(channel.size() - FOOTER_SIZE, FOOTER_SIZE);
+        if (header.getInt() != MAGIC || header.getInt() != VERSION || footer.getInt(12) != MAGIC) {
+            channel.close();
+            throw new IOException("Not a complete state recording: " + file);
+        }
+        keyframeInterval = header.getInt();
+        framesEnd = footer.getLong();
+        int count = footer.getInt();
+
+        ByteBuffer index = read(framesEnd, count * INDEX_ENTRY_SIZE);
+        keyframeTicks = new int[count];
+        keyframeOffsets = new long[count];
+        for (int i = 0; i < count; i++) {
+            keyframeTicks[i] = index.getInt();
+            keyframeOffsets[i] = index.getLong();
+        }
+        // nothing loaded yet
+        chunk.limit(0);
+    }
+
+    public int getFirstTick() {
+        return keyframeTicks.length == 0 ? -1 : keyframeTicks[0];
+    }
+
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    /**
+     * Jump to the last recorded tick at or before the given one
+     * @param target The tick to go to
+     * @return The state at that tick (reused by later calls), or null if the recording starts after it
+     * @throws IOException If the recording can't be read
+     */
+    public GameStateVector seek(int target) throws IOException {
+        int k = Arrays.binarySearch(keyframeTicks, target);
+        if (k < 0) {
+            k = -k - 2;
+        }
+        if (k < 0) {
+            return null;
+        }
+        nextFrameOffset = keyframeOffsets[k];
+        tick = -1;
+        next();
+        while (hasNext() && peekTick() <= target) {
+            next();
+        }
+        return state;
+    }
+
+    /**
+     * Whether or not there's another frame after the current one
+     */
+    public boolean hasNext() {
+        return nextFrameOffset >= 0 && nextFrameOffset < framesEnd;
+    }
+
+    /**
+     * Step forward one frame
+     * @return The state at the next recorded tick (reused by later calls)
+     * @throws IOException If the recording can't be read
+     */
+    public GameStateVector next() throws IOException {
+        if (nextFrameOffset < 0) {
+            nextFrameOffset = HEADER_SIZE;
+        }
+        ByteBuffer frame = frameAt(nextFrameOffset);
+        byte type = frame.get();
+        tick = frame.getInt();
+        int length = frame.getInt();
+        if (type == KEYFRAME) {
+            StateCodec.readKeyframe(frame, state);
+        } else {
+            StateCodec.readDelta(frame, state);
+        }
+        nextFrameOffset += FRAME_HEADER_SIZE + length;
+        return state;
+    }
+
+    /**
+     * The tick of the frame most recently returned
+     */
+    public int getTick() {
+        return tick;
+    }
+
+    private int peekTick() throws IOException {
+        ByteBuffer frame = frameAt(nextFrameOffset);
+        return frame.getInt(frame.position() + 1);
+    }
+
+    /**
+     * Get a view of the whole frame starting at a file offset, reading the file a chunk at a time
+     */
+    private ByteBuffer frameAt(long at) throws IOException {
+        if (at < chunkOffset || at + FRAME_HEADER_SIZE > chunkOffset + chunk.limit()) {
+            loadChunk(at, FRAME_HEADER_SIZE);
+        }
+        int length = chunk.getInt((int) (at - chunkOffset) + 5);
+        if (at + FRAME_HEADER_SIZE + length > chunkOffset + chunk.limit()) {
+            loadChunk(at, FRAME_HEADER_SIZE + length);
+        }
+        ByteBuffer view = chunk.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        view.position((int) (at - chunkOffset));
+        return view;
+    }
+
+    private void loadChunk(long at, int minimum) throws IOException {
+        if (chunk.capacity() < minimum) {
+            chunk = ByteBuffer.allocate(minimum * 2).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        chunk.clear();
+        chunk.limit((int) Math.min(chunk.capacity(), framesEnd - at));
+        while (chunk.hasRemaining()) {
+            if (channel.read(chunk, at + chunk.position()) < 0) {
+                break;
+            }
+        }
+        chunk.flip();
+        chunkOffset = at;
+    }
+
+    private ByteBuffer read(long at, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, at + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of recording");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Print the state of a recording at a tick
+     * @param args The recording, then the tick
+     */
+    public static void main(String[] args) throws IOException {
+        try (StateRecording recording = new StateRecording(Paths.get(args[0]))) {
+            GameStateVector s = recording.seek(Integer.parseInt(args[1]));
+            if (s == null) {
+                System.out.println("The recording starts after that tick.");
+                return;
+            }
+            System.out.printf("tick %d  level %d  score %d  lives %d  formation %d  swooping %d  shots %d%n",
+                    recording.getTick(), s.values[GameStateVector.LEVEL], s.values[GameStateVector.SCORE],
+                    s.values[GameStateVector.LIVES], s.getEnemyCount(), s.getPathCount(), s.getShotCount());
+        }
+    }
+}
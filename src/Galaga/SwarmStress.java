@@ -0,0 +1,87 @@
+package Galaga;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Stress mode for scaling tests: builds ever bigger formations on a correspondingly big playfield, lets lots of them
+ * swoop and fire at an invulnerable fighter, and reports how collision, pathing and rendering hold up at each size.
+ *
+ * Usage: SwarmStress [ticks per size] [swoop concurrency as % of enemies] [fire delay] [shots per volley] [render]
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public class SwarmStress {
+
+    private static final int[] SIZES = {100, 250, 500, 1000, 2000, 4000, 8000};
+    private static final int CELL = 36; // enemy size plus spacing
+    private static final int ASPECT = 2; // formations twice as wide as they are tall
+
+    public static void main(String[] args){
+        System.setProperty("java.awt.headless", "true");
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int swoopPercent = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int fireDelay = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        int shots = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        boolean render = args.length > 4 && Boolean.parseBoolean(args[4]);
+
+        System.out.printf("%8s %8s %10s %10s %10s %10s%n", "enemies", "actors", "ticks/s", "p50 ms", "p99 ms",
+                "heap MB");
+        for (int size : SIZES) {
+            run(size, ticks, swoopPercent, fireDelay, shots, render);
+        }
+    }
+
+    /**
+     * Run one formation size and print its line of the scaling curve
+     */
+    private static void run(int enemies, int ticks, int swoopPercent, int fireDelay, int shots, boolean render){
+        int rows = Math.max(1, (int) Math.sqrt(enemies / (double) ASPECT));
+        int cols = (enemies + rows - 1) / rows;
+        int width = cols * CELL + 80;
+        int height = rows * CELL + 400;
+
+        GalagaGame game = new GalagaGame(width, height, enemies);
+        game.configureSwarm(rows, cols, Math.max(1, rows * cols * swoopPercent / 100), fireDelay, shots);
+        game.getFighter().setCanCollide(false);
+        game.setSnapshotPublishing(render);
+
+        GalagaPanel panel = null;
+        BufferedImage frame = null;
+        Graphics2D g = null;
+        if (render) {
+            panel = new GalagaPanel(game);
+            frame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            g = frame.createGraphics();
+        }
+
+        Random input = new Random(enemies);
+        long[] tickTimes = new long[ticks];
+        long start = System.nanoTime();
+        for (int tick = 0; tick < ticks; tick++) {
+            long before = System.nanoTime();
+            game.handleTick(tick, true, input.nextInt(3) == 0, input.nextInt(3) == 0);
+            if (render) {
+                g.setColor(Color.BLACK);
+                g.fillRect(0, 0, width, height);
+                panel.drawSnapshot(game.getSnapshots().latest(), g);
+            }
+            tickTimes[tick] = System.nanoTime() - before;
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        // live heap with the formation still reachable, not whatever garbage happens to be lying around
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        long heap = runtime.totalMemory() - runtime.freeMemory();
+        Arrays.sort(tickTimes);
+        System.out.printf("%8d %8d %10.1f %10.3f %10.3f %10.1f%n", rows * cols, game.collLibrary.size(),
+                ticks / elapsed, tickTimes[ticks / 2] / 1e6, tickTimes[ticks * 99 / 100] / 1e6, heap / 1e6);
+        if (g != null) {
+            g.dispose();
+        }
+    }
+}
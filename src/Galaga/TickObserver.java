@@ -0,0 +1,27 @@
+package Galaga;
+
+/**
+ * Something that wants to look at the game after every tick (exporting, recording, broadcasting...). Called on the
+ * simulation thread, so implementations should hand off anything slow.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public interface TickObserver {
+
+    /**
+     * Called once the game has fully processed a tick.
+     * @param game The game that ticked
+     * @param tick The tick number that was just processed
+     */
+    void tickFinished(GalagaGame game, int tick);
+
+    /**
+     * Called when the game was put back to an earlier tick (practice mode's rewind). Ticks count on from there: the
+     * next tickFinished is for tick + 1, and the ones reported after tick never happened.
+     * @param game The game that was rewound
+     * @param tick The tick it is back at
+     */
+    default void rewound(GalagaGame game, int tick){
+    }
+}
@@ -0,0 +1,121 @@
+package Galaga;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Wakes many session threads at their own tick deadlines from a single timing thread. The timing thread sleeps until
+ * shortly before the earliest deadline and spins the rest of the way, which is far more precise than each session
+ * sleeping on its own; the sessions just park until they are released. Uses a lock rather than synchronized so that
+ * waiting virtual threads don't pin their carriers.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+final class TickScheduler implements AutoCloseable {
+
+    private final long spinNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Waiter> queue = new PriorityQueue<>((a, b) -> Long.compare(a.deadline, b.deadline));
+    private final Thread thread;
+    private volatile boolean closed = false;
+
+    /**
+     * One thread's place in the schedule; reused for every deadline that thread waits for
+     */
+    static final class Waiter {
+        private final Thread thread;
+        private long deadline;
+        private volatile boolean released;
+
+        Waiter(Thread thread){
+            this.thread = thread;
+        }
+    }
+
+    /**
+     * Start the timing thread
+     * @param spinNanos How long before a deadline to stop sleeping and spin; 0 never spins (for machines with only a
+     *                  core or two, where spinning takes time away from the sessions)
+     */
+    TickScheduler(long spinNanos){
+        this.spinNanos = spinNanos;
+        thread = new Thread(this::run, "galaga-tick-scheduler");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Block the calling thread until a deadline passes (or the scheduler is closed)
+     * @param waiter The calling thread's waiter
+     * @param deadline The System.nanoTime to wake at
+     */
+    void awaitDeadline(Waiter waiter, long deadline){
+        waiter.deadline = deadline;
+        waiter.released = false;
+        boolean earliest;
+        lock.lock();
+        try {
+            queue.add(waiter);
+            earliest = queue.peek() == waiter;
+        } finally {
+            lock.unlock();
+        }
+        if (earliest) {
+            LockSupport.unpark(thread); // it may be asleep waiting for a later deadline
+        }
+        while (!waiter.released && !closed) {
+            LockSupport.park(this);
+        }
+    }
+
+    private void run(){
+        while (!closed) {
+            long next;
+            long now = System.nanoTime();
+            lock.lock();
+            try {
+                Waiter w;
+                while ((w = queue.peek()) != null && w.deadline - now <= 0) {
+                    queue.poll();
+                    w.released = true;
+                    LockSupport.unpark(w.thread);
+                }
+                next = w == null ? Long.MAX_VALUE : w.deadline;
+            } finally {
+                lock.unlock();
+            }
+
+            if (next == Long.MAX_VALUE) {
+                LockSupport.park(this);
+            } else {
+                long wait = next - System.nanoTime();
+                if (wait > spinNanos) {
+                    LockSupport.parkNanos(this, wait - spinNanos);
+                } else {
+                    Thread.onSpinWait();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop the timing thread and let every waiting thread go
+     */
+    @Override
+    public void close(){
+        closed = true;
+        LockSupport.unpark(thread);
+        lock.lock();
+        try {
+            for (Waiter w : queue) {
+                LockSupport.unpark(w.thread);
+            }
+            queue.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package Galaga;
 
-import java.awt.*;
 import java.util.Random;
 
 /**
@@ -13,7 +12,9 @@ public abstract class TravelingPath {
     private Actor traveler;
     private double position = 0;
     private Point[] p;
-    private static double travelDistance = 1.5;
+    private final double travelDistance;
+    private int nextX;
+    private int nextY;
 
     /**
      * Create a new path for an actor to follow to a point
@@ -21,22 +22,77 @@ public abstract class TravelingPath {
      * @param destination The destination of the path, the end of the journey.
      */
     public TravelingPath(Actor pathFollower, Point destination){
+        this(pathFollower, randomInfluence(pathFollower.getParent()), destination);
+    }
 
-        // tie the traveler to the window, pick a random bezier influence
+    /**
+     * Create a new path for an actor to follow to a point, bending toward a given influence point
+     * @param pathFollower The actor to follow a path
+     * @param influence The bezier influence point
+     * @param destination The destination of the path, the end of the journey.
+     */
+    TravelingPath(Actor pathFollower, Point influence, Point destination){
         this.traveler = pathFollower;
-        Random r = new Random();
-        Dimension window = GalagaGame.getLevelSize();
-
-        Point influence = new Point(r.nextInt(window.width), r.nextInt(window.height - 100));
+        this.travelDistance = pathFollower.getParent().getTravelDistance();
         p = new Point[] { pathFollower.getPos(), influence, destination };
     }
 
-    public static double getTravelDistance() {
+    /**
+     * A random bezier influence point in the window, from the game's own generator
+     */
+    private static Point randomInfluence(GalagaGame game){
+        Random r = game.getRandom();
+        Dimension window = game.getLevelSize();
+        return new Point(r.nextInt(window.width), r.nextInt(window.height - 100));
+    }
+
+    /**
+     * Recreate a path exactly as it was saved, without drawing a new influence point
+     * @param pathFollower The actor following the path
+     * @param travelDistance The per-step travel distance
+     * @param position How far along the curve the traveler is
+     * @param controls The three control points as x/y pairs: start, influence, destination
+     */
+    TravelingPath(Actor pathFollower, double travelDistance, double position, int[] controls){
+        this.traveler = pathFollower;
+        this.travelDistance = travelDistance;
+        this.position = position;
+        p = new Point[] { new Point(controls[0], controls[1]), new Point(controls[2], controls[3]),
+                new Point(controls[4], controls[5]) };
+    }
+
+    /**
+     * How far along the curve (in percent) the traveler moves per step. Fixed by the game's level when created.
+     * @return The per-step travel distance
+     */
+    public double getTravelDistance() {
         return travelDistance;
     }
 
-    public static void setTravelDistance(double travelDistance) {
-        TravelingPath.travelDistance = travelDistance;
+    /**
+     * How far along the curve the traveler is, from 0 to 100 (percent)
+     * @return The traveler's progress
+     */
+    double getProgress() {
+        return position;
+    }
+
+    /**
+     * The x coordinate of one of the curve's control points
+     * @param i 0 for the start, 1 for the bezier influence, 2 for the destination
+     * @return The x coordinate
+     */
+    int getControlX(int i) {
+        return p[i].x;
+    }
+
+    /**
+     * The y coordinate of one of the curve's control points
+     * @param i 0 for the start, 1 for the bezier influence, 2 for the destination
+     * @return The y coordinate
+     */
+    int getControlY(int i) {
+        return p[i].y;
     }
 
     /**
@@ -45,17 +101,53 @@ public abstract class TravelingPath {
      * @see <a href='https://en.wikipedia.org/wiki/B%C3%A9zier_curve'>"Primary" source</a>
      */
     public void move(){
-        position += travelDistance;
-        double t = position/100;
-        // plug the new position into the bezier formula, and move. if at 100%, finish.
-        int x = (int)Math.floor((1 - t) * (1 - t) * p[0].x + 2 * (1 - t) * t * p[1].x + t * t * p[2].x);
-        int y = (int)Math.floor((1 - t) * (1 - t) * p[0].y + 2 * (1 - t) * t * p[1].y + t * t * p[2].y);
-        traveler.setLocation(x, y);
-        if (position > 100){
+        step();
+        traveler.setLocation(nextX, nextY);
+        if (isFinished()){
             finished();
         }
     }
 
+    /**
+     * Advance along the curve and work out the traveler's next position, without moving it yet. Only touches this
+     * path, so different paths can be stepped on different threads.
+     */
+    void step(){
+        position += travelDistance;
+        double t = position/100;
+        // plug the new position into the bezier formula
+        nextX = (int)Math.floor((1 - t) * (1 - t) * p[0].x + 2 * (1 - t) * t * p[1].x + t * t * p[2].x);
+        nextY = (int)Math.floor((1 - t) * (1 - t) * p[0].y + 2 * (1 - t) * t * p[1].y + t * t * p[2].y);
+        stepped();
+    }
+
+    /**
+     * Hook run after every step, e.g. to follow a destination that keeps moving
+     */
+    void stepped(){
+    }
+
+    /**
+     * The x coordinate worked out by the last step
+     */
+    int getNextX(){
+        return nextX;
+    }
+
+    /**
+     * The y coordinate worked out by the last step
+     */
+    int getNextY(){
+        return nextY;
+    }
+
+    /**
+     * Whether or not the traveler has gone past the end of the curve (at 100%)
+     */
+    boolean isFinished(){
+        return position > 100;
+    }
+
     /**
      * Redefine the destination of the traveler in terms of a new bezier curve endpoint
      * @param update The new point to travel to
@@ -0,0 +1,84 @@
+package Galaga;
+
+/**
+ * Steps many independent Galaga environments in lock-step, writing every observation into one preallocated array so a
+ * trainer can hand the whole batch to its model without copying. Finished episodes restart on their own.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public class VectorGalagaEnvironment {
+
+    private final GalagaEnvironment[] environments;
+    private final float[] observations;
+    private final float[] rewards;
+    private final boolean[] dones;
+    private long nextSeed;
+
+    /**
+     * Create a batch of environments
+     * @param count How many games to run side by side
+     * @param width Width of each (virtual) galaga window
+     * @param height Height of each (virtual) galaga window
+     * @param maxSteps Steps after which an episode is cut off, or 0 to only end when the player is out of lives
+     */
+    public VectorGalagaEnvironment(int count, int width, int height, int maxSteps){
+        environments = new GalagaEnvironment[count];
+        for (int i = 0; i < count; i++){
+            environments[i] = new GalagaEnvironment(width, height, maxSteps);
+        }
+        observations = new float[count * GalagaEnvironment.OBSERVATION_SIZE];
+        rewards = new float[count];
+        dones = new boolean[count];
+    }
+
+    /**
+     * Start a fresh episode in every environment. Environment i uses seed + i; episodes started later by auto-reset
+     * carry on counting from there, so a whole run is reproducible from one seed.
+     * @param seed The base seed
+     * @return The observations of every environment, environment i at i * OBSERVATION_SIZE
+     */
+    public float[] reset(long seed){
+        nextSeed = seed;
+        for (int i = 0; i < environments.length; i++){
+            environments[i].reset(nextSeed++);
+            environments[i].observe(observations, i * GalagaEnvironment.OBSERVATION_SIZE);
+            dones[i] = false;
+            rewards[i] = 0f;
+        }
+        return observations;
+    }
+
+    /**
+     * Step every environment once. An environment whose episode ends reports done for this step and its observation is
+     * already the first one of the next episode.
+     * @param actions One action (combination of GalagaEnvironment.ACTION_ flags) per environment
+     */
+    public void step(int[] actions){
+        for (int i = 0; i < environments.length; i++){
+            GalagaEnvironment env = environments[i];
+            rewards[i] = env.step(actions[i]);
+            dones[i] = env.isDone();
+            if (dones[i]){
+                env.reset(nextSeed++);
+            }
+            env.observe(observations, i * GalagaEnvironment.OBSERVATION_SIZE);
+        }
+    }
+
+    public float[] getObservations(){
+        return observations;
+    }
+
+    public float[] getRewards(){
+        return rewards;
+    }
+
+    public boolean[] getDones(){
+        return dones;
+    }
+
+    public int size(){
+        return environments.length;
+    }
+}
@@ -0,0 +1,37 @@
+package Galaga;
+
+import java.util.Random;
+
+/**
+ * Measures the raw step throughput of a VectorGalagaEnvironment with random actions.
+ *
+ * Usage: VectorGalagaEnvironmentBench [environment count] [seconds]
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public class VectorGalagaEnvironmentBench {
+
+    public static void main(String[] args){
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        VectorGalagaEnvironment vec = new VectorGalagaEnvironment(count, 400, 600, 5000);
+        vec.reset(1);
+        int[] actions = new int[count];
+        Random r = new Random(1);
+
+        long steps = 0;
+        long start = System.nanoTime();
+        long end = start + seconds * 1_000_000_000L;
+        while (System.nanoTime() < end){
+            for (int i = 0; i < count; i++){
+                actions[i] = r.nextInt(GalagaEnvironment.ACTION_COUNT);
+            }
+            vec.step(actions);
+            steps += count;
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d environments: %.0f env-steps/sec%n", count, steps / elapsed);
+    }
+}
@@ -0,0 +1,293 @@
+package Galaga;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Records gameplay footage: every frame the panel draws is copied, in one bulk array copy, into one of a small pool of
+ * images, and a background thread encodes the pooled frames losslessly to disk. If the encoder is a whole pool
+ * behind, frames are dropped and counted rather than waited for, so recording never holds up a frame and never uses
+ * more memory than the pool.
+ *
+ * Two formats: a numbered PNG sequence in a directory (frame-000042.png, gaps where frames were dropped), or a single
+ * raw file run-length encoded, which is much cheaper to write and suits the mostly black playfield.
+ *
+ * Raw file layout (little endian):
+ *  - header: magic, version, width, height (ints)
+ *  - frames: sequence number, tick, payload length (ints), then the pixels row by row as runs of a length (unsigned
+ *    short, 1 to 65535) and a colour (3 bytes: red, green, blue)
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+final class VideoRecorder implements AutoCloseable {
+
+    static final int FORMAT_RAW = 0;
+    static final int FORMAT_PNG = 1;
+
+    static final int MAGIC = 0x474C5652; // "GLVR"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int FRAME_HEADER_SIZE = 12;
+    private static final int RUN_SIZE = 5;
+    private static final int MAX_RUN = 0xFFFF;
+
+    /**
+     * One pooled frame
+     */
+    private static final class Frame {
+        final BufferedImage image;
+        final int[] pixels;
+        int sequence;
+        int tick;
+
+        Frame(int width, int height){
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        }
+    }
+
+    /**
+     * Receives decoded frames from forEachFrame
+     */
+    interface FrameConsumer {
+        void frame(int sequence, int tick, int[] pixels);
+    }
+
+    private final Path target;
+    private final int format;
+    private final int width;
+    private final int height;
+    private final BlockingQueue<Frame> free;
+    private final BlockingQueue<Frame> full;
+    private final Frame endOfStream = new Frame(1, 1);
+    private final Thread encoder;
+    private volatile IOException writeFailure;
+    private volatile boolean awaited = false; // close() is waiting and will throw the failure itself
+
+    private FileChannel channel; // raw format only
+    private ByteBuffer out;
+    private int sequence = 0;
+    private volatile int dropped = 0;
+    private volatile int encoded = 0;
+    private boolean finished = false;
+
+    /**
+     * Start recording
+     * @param target The file (raw) or directory (PNG) to write to
+     * @param format FORMAT_RAW or FORMAT_PNG
+     * @param width The width of the frames
+     * @param height The height of the frames
+     * @param poolSize How many frames may wait for the encoder before new ones are dropped
+     * @throws IOException If the file or directory can't be created
+     */
+    VideoRecorder(Path target, int format, int width, int height, int poolSize) throws IOException {
+        this.target = target;
+        this.format = format;
+        this.width = width;
+        this.height = height;
+        free = new ArrayBlockingQueue<>(poolSize);
+        full = new ArrayBlockingQueue<>(poolSize + 1);
+        for (int i = 0; i < poolSize; i++) {
+            free.add(new Frame(width, height));
+        }
+
+        if (format == FORMAT_PNG) {
+            Files.createDirectories(target);
+        } else {
+            channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            // the worst case is a run for every pixel
+            out = ByteBuffer.allocateDirect(FRAME_HEADER_SIZE + width * height * RUN_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            out.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height).flip();
+            writeFully(out);
+        }
+
+        encoder = new Thread(this::drain, "galaga-video-encoder");
+        encoder.setDaemon(true);
+        encoder.setPriority(Thread.MIN_PRIORITY);
+        encoder.start();
+    }
+
+    int getWidth(){
+        return width;
+    }
+
+    int getHeight(){
+        return height;
+    }
+
+    /**
+     * Hand over a drawn frame. Copies it and returns at once; never waits for the encoder.
+     * @param frame A TYPE_INT_RGB image of the recorder's size
+     * @param tick The game tick the frame shows
+     * @return Whether the frame was kept (false if it was dropped)
+     */
+    boolean offer(BufferedImage frame, int tick){
+        int number = sequence++;
+        Frame slot = finished || frame.getWidth() != width || frame.getHeight() != height ? null : free.poll();
+        if (slot == null) {
+            dropped++;
+            return false;
+        }
+        int[] source = ((DataBufferInt) frame.getRaster().getDataBuffer()).getData();
+        System.arraycopy(source, 0, slot.pixels, 0, slot.pixels.length);
+        slot.sequence = number;
+        slot.tick = tick;
+        full.offer(slot); // always fits: there are never more frames in flight than the pool holds
+        return true;
+    }
+
+    /**
+     * How many frames were dropped because the encoder was behind
+     */
+    int getDropped(){
+        return dropped;
+    }
+
+    /**
+     * How many frames have been written out
+     */
+    int getEncoded(){
+        return encoded;
+    }
+
+    /**
+     * The encoder thread: encode waiting frames in order and put them back in the pool
+     */
+    private void drain(){
+        try {
+            while (true) {
+                Frame frame = full.take();
+                if (frame == endOfStream) {
+                    break;
+                }
+                if (writeFailure == null) {
+                    try {
+                        encode(frame);
+                        encoded++;
+                    } catch (IOException ioe) {
+                        writeFailure = ioe;
+                    }
+                }
+                free.offer(frame);
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException ioe) {
+            if (writeFailure == null) {
+                writeFailure = ioe;
+            }
+        }
+        if (writeFailure != null && !awaited) {
+            // after a plain finish() nobody else will ever see it
+            System.err.println("Error writing the video to " + target + ": " + writeFailure.getMessage());
+        }
+    }
+
+    private void encode(Frame frame) throws IOException {
+        if (format == FORMAT_PNG) {
+            ImageIO.write(frame.image, "png", target.resolve(String.format("frame-%06d.png", frame.sequence)).toFile());
+            return;
+        }
+        out.clear();
+        out.putInt(frame.sequence).putInt(frame.tick).putInt(0);
+        int[] pixels = frame.pixels;
+        int i = 0;
+        while (i < pixels.length) {
+            int colour = pixels[i];
+            int run = 1;
+            while (i + run < pixels.length && run < MAX_RUN && pixels[i + run] == colour) {
+                run++;
+            }
+            out.putShort((short) run).put((byte) (colour >> 16)).put((byte) (colour >> 8)).put((byte) colour);
+            i += run;
+        }
+        out.putInt(8, out.position() - FRAME_HEADER_SIZE);
+        out.flip();
+        writeFully(out);
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Stop taking frames and let the encoder finish the ones it has in the background
+     */
+    void finish(){
+        if (!finished) {
+            finished = true;
+            full.offer(endOfStream);
+        }
+    }
+
+    /**
+     * Stop taking frames and wait for the encoder to write out the ones it has
+     * @throws IOException If anything failed to write
+     */
+    @Override
+    public void close() throws IOException {
+        awaited = true;
+        finish();
+        try {
+            encoder.join();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        if (writeFailure != null) {
+            throw writeFailure;
+        }
+    }
+
+    /**
+     * Decode every frame of a raw recording, in order
+     * @param file The recording
+     * @param consumer Gets each frame's pixels (the same array every time)
+     * @return The frame size, width then height
+     */
+    static int[] forEachFrame(Path file, FrameConsumer consumer) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer data = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size()).order(ByteOrder.LITTLE_ENDIAN);
+            if (data.getInt() != MAGIC || data.getInt() != VERSION) {
+                throw new IOException("Not a video recording: " + file);
+            }
+            int w = data.getInt();
+            int h = data.getInt();
+            int[] pixels = new int[w * h];
+            while (data.remaining() >= FRAME_HEADER_SIZE) {
+                int number = data.getInt();
+                int tick = data.getInt();
+                int end = data.getInt() + data.position();
+                int i = 0;
+                while (data.position() < end) {
+                    int run = data.getShort() & 0xFFFF;
+                    int colour = (data.get() & 0xFF) << 16 | (data.get() & 0xFF) << 8 | (data.get() & 0xFF);
+                    Arrays.fill(pixels, i, i + run, colour);
+                    i += run;
+                }
+                consumer.frame(number, tick, pixels);
+            }
+            return new int[] {w, h};
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package Galaga;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Paints a busy game through the panel as fast as possible while a VideoRecorder records it, timing the offers, then
+ * checks every recorded frame against what was drawn.
+ *
+ * Usage: VideoRecorderBench [raw|png] [frames] [pool size] [output]
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public class VideoRecorderBench {
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        boolean png = args.length > 0 && args[0].equals("png");
+        int frames = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int pool = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        Path output = Path.of(args.length > 3 ? args[3] : png ? "video-test" : "video-test.grv");
+
+        GalagaGame game = new GalagaGame(400, 600, 7);
+        game.getFighter().setCanCollide(false);
+        GalagaPanel panel = new GalagaPanel(game);
+        panel.setSize(400, 600);
+        panel.setStatus(GalagaWindow.WindowStatus.GAME);
+        BufferedImage frame = new BufferedImage(400, 600, BufferedImage.TYPE_INT_RGB);
+        int[] drawn = ((DataBufferInt) frame.getRaster().getDataBuffer()).getData();
+        int[] hashes = new int[frames];
+
+        int format = png ? VideoRecorder.FORMAT_PNG : VideoRecorder.FORMAT_RAW;
+        VideoRecorder recorder = new VideoRecorder(output, format, 400, 600, pool);
+        long worst = 0;
+        long total = 0;
+        for (int i = 0; i < frames; i++) {
+            game.handleTick(i, true, i % 40 < 20, i % 40 >= 20);
+            Graphics2D g = frame.createGraphics();
+            panel.paintComponent(g);
+            g.dispose();
+            hashes[i] = Arrays.hashCode(drawn);
+            long before = System.nanoTime();
+            recorder.offer(frame, i);
+            long took = System.nanoTime() - before;
+            total += took;
+            worst = Math.max(worst, took);
+        }
+        recorder.close();
+        System.out.printf("%d frames: %d encoded, %d dropped; offer %.1f us average, %.1f us worst%n", frames,
+                recorder.getEncoded(), recorder.getDropped(), total / 1e3 / frames, worst / 1e3);
+
+        if (!png) {
+            int[] checked = new int[2];
+            VideoRecorder.forEachFrame(output, (number, tick, pixels) -> {
+                checked[Arrays.hashCode(pixels) == hashes[number] ? 0 : 1]++;
+            });
+            System.out.printf("%d bytes (%.1f KB a frame); decoded %d frames, %d matching what was drawn%n",
+                    Files.size(output), Files.size(output) / 1024.0 / Math.max(1, checked[0] + checked[1]),
+                    checked[0] + checked[1], checked[0]);
+        }
+    }
+}
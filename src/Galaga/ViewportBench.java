@@ -0,0 +1,86 @@
+package Galaga;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashSet;
+
+/**
+ * Shows that with a viewport, render cost follows what is on screen rather than the size of the level: plays ever
+ * bigger swarms on ever bigger levels, timing the snapshot and drawing it through a window-sized viewport against
+ * drawing the whole level, and checks ActorGrid queries against a scan of the library along the way. Kept apart from
+ * ActorGrid so the headless simulator never loads Java2D.
+ *
+ * Usage: ViewportBench [ticks per size] [viewport width] [viewport height]
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+public class ViewportBench {
+
+    public static void main(String[] args){
+        System.setProperty("java.awt.headless", "true");
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        int viewWidth = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        int viewHeight = args.length > 2 ? Integer.parseInt(args[2]) : 600;
+
+        System.out.printf("%8s %11s %8s %14s %14s %10s%n", "enemies", "level", "actors", "viewport ms", "whole ms",
+                "queries");
+        for (int enemies : new int[] {100, 500, 2000, 8000}) {
+            int rows = Math.max(1, (int) Math.sqrt(enemies / 2.0));
+            int cols = (enemies + rows - 1) / rows;
+            int width = Math.max(viewWidth, cols * 36 + 80);
+            int height = Math.max(viewHeight, rows * 36 + 400);
+
+            double[] millis = new double[2];
+            int[] checked = new int[2];
+            for (int whole = 0; whole < 2; whole++) {
+                GalagaGame game = new GalagaGame(width, height, enemies);
+                game.configureSwarm(rows, cols, Math.max(1, enemies / 20), 5, 4);
+                game.getFighter().setCanCollide(false);
+                int frameWidth = whole == 1 ? width : viewWidth;
+                int frameHeight = whole == 1 ? height : viewHeight;
+                if (whole == 0) {
+                    game.setViewport(viewWidth, viewHeight);
+                }
+                GalagaPanel panel = new GalagaPanel(game);
+                BufferedImage frame = new BufferedImage(frameWidth, frameHeight, BufferedImage.TYPE_INT_RGB);
+                Graphics2D g = frame.createGraphics();
+                long total = 0;
+                for (int tick = 0; tick < ticks; tick++) {
+                    game.handleTick(tick, true, tick % 200 < 100, tick % 200 >= 100);
+                    long before = System.nanoTime();
+                    g.setColor(Color.BLACK);
+                    g.fillRect(0, 0, frameWidth, frameHeight);
+                    panel.drawSnapshot(game.getSnapshots().latest(), g);
+                    total += System.nanoTime() - before + game.getPhaseNanos(GalagaGame.PHASE_PUBLISH);
+                    if (whole == 0 && tick % 10 == 0) {
+                        checked[check(game, tick * 37 % width, tick * 53 % height, viewWidth, viewHeight) ? 0 : 1]++;
+                    }
+                }
+                g.dispose();
+                millis[whole] = total / 1e6 / ticks;
+                if (whole == 1) {
+                    System.out.printf("%8d %11s %8d %14.3f %14.3f %4d/%d ok%n", rows * cols, width + "x" + height,
+                            game.collLibrary.size(), millis[0], millis[1], checked[0], checked[0] + checked[1]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether a grid query finds exactly the library actors whose bounds overlap the rectangle
+     */
+    private static boolean check(GalagaGame game, int x, int y, int w, int h){
+        ArrayList<Actor> found = new ArrayList<>();
+        game.collLibrary.getGrid().query(x, y, w, h, found);
+        HashSet<Actor> expected = new HashSet<>();
+        for (Actor a : game.collLibrary) {
+            if (a.hasPos() && a.getX() < x + w && a.getX() + a.getExtent() >= x && a.getY() < y + h
+                    && a.getY() + a.getExtent() >= y) {
+                expected.add(a);
+            }
+        }
+        return found.size() == expected.size() && expected.containsAll(found);
+    }
+}
@@ -0,0 +1,115 @@
+package Galaga;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Plays a throw-away game in the background while the title screen is up, so that by the time the player presses
+ * ENTER the classes are loaded and the tick and drawing code has been compiled by the JIT rather than hitching through
+ * the first waves. The game is seeded, fires constantly, and is bumped to the next level every so often so level
+ * transitions get compiled too. Run with -Dgalaga.warmUpReport=true to print how long it took and what it loaded.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+class WarmUpService {
+
+    private static final int LEVEL_TICKS = 1500; // long enough for plenty of swoops and shots in each level
+    private static final int DRAW_EVERY = 4;
+
+    private final int width;
+    private final int height;
+    private final int ticks;
+    private volatile boolean stopped = false;
+    private Thread thread;
+
+    /**
+     * Prepare a warm-up
+     * @param width The width of the real game
+     * @param height The height of the real game
+     * @param ticks How many ticks to run at most
+     */
+    WarmUpService(int width, int height, int ticks){
+        this.width = width;
+        this.height = height;
+        this.ticks = ticks;
+    }
+
+    /**
+     * Begin warming up on a low priority background thread
+     */
+    void start(){
+        thread = new Thread(this::run, "galaga-warm-up");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Stop warming up and wait for the background game to be let go
+     */
+    void stop(){
+        stopped = true;
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    private void run(){
+        ClassLoadingMXBean classes = ManagementFactory.getClassLoadingMXBean();
+        CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+        long classesBefore = classes.getTotalLoadedClassCount();
+        long compileBefore = compiler.isCompilationTimeMonitoringSupported() ? compiler.getTotalCompilationTime() : 0;
+        long start = System.nanoTime();
+
+        GalagaGame game = new GalagaGame(width, height, 36L);
+        GalagaPanel panel = new GalagaPanel(game);
+        BufferedImage frame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = frame.createGraphics();
+        InputQueue input = new InputQueue(64);
+        InputSample sample = new InputSample();
+        input.restart(System.nanoTime());
+
+        int tick = 0;
+        for (; tick < ticks && !stopped; tick++) {
+            if (!game.isRunning()) {
+                game = new GalagaGame(width, height, tick);
+                panel.setGameRef(game);
+            }
+            if (tick % LEVEL_TICKS == LEVEL_TICKS - 1) {
+                game.advanceLevel();
+            }
+
+            // sweep back and forth while firing, through the same input path the window uses
+            long now = System.nanoTime();
+            if (tick % 40 == 0) {
+                input.offer((tick / 40) % 2 == 0 ? InputQueue.RIGHT : InputQueue.LEFT, true, now);
+                input.offer((tick / 40) % 2 == 0 ? InputQueue.LEFT : InputQueue.RIGHT, false, now);
+                input.offer(InputQueue.FIRE, true, now);
+            }
+            input.drain(now, sample);
+            game.handleTick(tick, sample);
+
+            if (tick % DRAW_EVERY == 0) {
+                panel.drawSnapshot(game.getSnapshots().latest(), g);
+            }
+        }
+        g.dispose();
+
+        if (!Boolean.getBoolean("galaga.warmUpReport")) {
+            return;
+        }
+        long compileAfter = compiler.isCompilationTimeMonitoringSupported() ? compiler.getTotalCompilationTime() : 0;
+        System.out.printf("Warm-up: %d ticks in %d ms%s, %d classes loaded, %d ms of JIT compilation%n", tick,
+                (System.nanoTime() - start) / 1_000_000, stopped ? " (cut short)" : "",
+                classes.getTotalLoadedClassCount() - classesBefore, compileAfter - compileBefore);
+    }
+}
@@ -0,0 +1,392 @@
+package Galaga;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * The levels of a game, written down as data instead of code: what the formation looks like, how often and in which
+ * order enemies swoop, which paths they fly and how they shoot. Read once, then compiled into a WaveSchedule whenever a
+ * level starts.
+ *
+ * The format is a properties file of wave.&lt;first level&gt;.&lt;setting&gt; entries. A wave applies from its first
+ * level until the next wave starts, and settings it leaves out carry over from the wave before. Numbers are written
+ * "base [step] [min n] [max n]": the base at the level the setting was given for, plus the step for every level after
+ * it, clamped, and rounded down where a whole number is needed.
+ *
+ *  formation.rows, formation.cols  the grid (cols 0: as many as fit the level's width)
+ *  formation.shape                 full, checker, wedge or hollow: which cells of the grid get an enemy
+ *  dispatch.every                  ticks between swoops (1 is every tick)
+ *  dispatch.moving                 how many enemies may be swooping before no more are sent
+ *  dispatch.order                  random, bottom-up or outside-in
+ *  path.families                   the swoops to fly, with weights: "dive:3 loop:1 strafe:1"
+ *  path.speed                      how far along its path (in percent) a swooping enemy gets per tick
+ *  fire.every, fire.shots          ticks between volleys, and shots per volley
+ *  fire.pattern                    single, spread or aimed
+ *  level.bonus                     points for reaching the level
+ *  level.lifeEvery                 an extra life every this many levels (0 for never)
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+final class WaveBook {
+
+    static final int SHAPE_FULL = 0;
+    static final int SHAPE_CHECKER = 1;
+    static final int SHAPE_WEDGE = 2;
+    static final int SHAPE_HOLLOW = 3;
+    private static final String[] SHAPES = {"full", "checker", "wedge", "hollow"};
+
+    static final int ORDER_RANDOM = 0;
+    static final int ORDER_BOTTOM_UP = 1;
+    static final int ORDER_OUTSIDE_IN = 2;
+    private static final String[] ORDERS = {"random", "bottom-up", "outside-in"};
+
+    static final int FAMILY_DIVE = 0;
+    static final int FAMILY_LOOP = 1;
+    static final int FAMILY_STRAFE = 2;
+    private static final String[] FAMILIES = {"dive", "loop", "strafe"};
+
+    static final int PATTERN_SINGLE = 0;
+    static final int PATTERN_SPREAD = 1;
+    static final int PATTERN_AIMED = 2;
+    private static final String[] PATTERNS = {"single", "spread", "aimed"};
+
+    /**
+     * The classic difficulty curve
+     */
+    static final String STANDARD =
+            "wave.1.formation.rows = 6 +0.5\n" +
+            "wave.1.formation.cols = 0\n" +
+            "wave.1.formation.shape = full\n" +
+            "wave.1.dispatch.every = 40 -5 min 1\n" +
+            "wave.1.dispatch.moving = 2 +2\n" +
+            "wave.1.dispatch.order = random\n" +
+            "wave.1.path.families = dive\n" +
+            "wave.1.path.speed = 1.5 +0.3\n" +
+            "wave.1.fire.every = 40 -5 min 1\n" +
+            "wave.1.fire.shots = 1\n" +
+            "wave.1.fire.pattern = single\n" +
+            "wave.1.level.bonus = 0 +30\n" +
+            "wave.1.level.lifeEvery = 4\n";
+
+    private static final int MAX_EVERY = 4096; // ticks, so a level's action table stays small
+
+    private static WaveBook standard;
+
+    /**
+     * One wave's settings, each already carried over from the waves before if this one doesn't give it
+     */
+    private static final class Wave {
+        Term rows, cols, dispatchEvery, moving, speed, fireEvery, shots, bonus, lifeEvery;
+        int shape, order, pattern;
+        int[] familyWeights;
+
+        Wave copy(){
+            Wave w = new Wave();
+            w.rows = rows;
+            w.cols = cols;
+            w.dispatchEvery = dispatchEvery;
+            w.moving = moving;
+            w.speed = speed;
+            w.fireEvery = fireEvery;
+            w.shots = shots;
+            w.bonus = bonus;
+            w.lifeEvery = lifeEvery;
+            w.shape = shape;
+            w.order = order;
+            w.pattern = pattern;
+            w.familyWeights = familyWeights;
+            return w;
+        }
+    }
+
+    /**
+     * A number that changes from level to level: base + step * (levels since from), clamped
+     */
+    private static final class Term {
+        final int from;
+        final double base;
+        final double step;
+        final double min;
+        final double max;
+
+        Term(int from, double base, double step, double min, double max){
+            this.from = from;
+            this.base = base;
+            this.step = step;
+            this.min = min;
+            this.max = max;
+        }
+
+        double at(int level){
+            return Math.max(min, Math.min(max, base + step * (level - from)));
+        }
+
+        int intAt(int level){
+            return (int) Math.floor(at(level));
+        }
+    }
+
+    private final TreeMap<Integer, Wave> waves = new TreeMap<>();
+    private String text; // the settings as read, for recordings to carry along; null for the standard waves
+
+    private WaveBook(){
+    }
+
+    /**
+     * The standard waves, parsed once
+     */
+    static synchronized WaveBook standard(){
+        if (standard == null) {
+            try {
+                standard = parse(new StringReader(STANDARD), "standard waves");
+            } catch (IOException ioe) {
+                throw new IllegalStateException(ioe);
+            }
+        }
+        return standard;
+    }
+
+    /**
+     * Read waves from a file, on top of the standard ones: a file that only sets a few things changes only those
+     */
+    static WaveBook load(Path file) throws IOException {
+        return fromText(Files.readString(file), file.toString());
+    }
+
+    /**
+     * Read waves from settings in the file format (e.g. from getText), on top of the standard ones
+     * @param source What to call the settings in error messages
+     */
+    static WaveBook fromText(String text, String source) throws IOException {
+        standard();
+        WaveBook book = parse(new StringReader(text), source);
+        book.text = text;
+        return book;
+    }
+
+    /**
+     * The settings this book was read from, so fromText can rebuild it elsewhere
+     * @return The settings, or null for the standard waves
+     */
+    String getText(){
+        return text;
+    }
+
+    private static WaveBook parse(Reader in, String source) throws IOException {
+        Properties properties = new Properties();
+        properties.load(in);
+
+        // group the settings by wave, in level order, starting from the standard ones
+        TreeMap<Integer, Properties> byLevel = new TreeMap<>();
+        if (standard != null) {
+            byLevel.put(1, new Properties());
+        }
+        for (String key : properties.stringPropertyNames()) {
+            String[] parts = key.split("\\.", 3);
+            if (parts.length != 3 || !parts[0].equals("wave")) {
+                throw new IOException(source + ": not a wave setting: " + key);
+            }
+            int level;
+            try {
+                level = Integer.parseInt(parts[1]);
+            } catch (NumberFormatException nfe) {
+                throw new IOException(source + ": bad level in " + key);
+            }
+            if (level < 1) {
+                throw new IOException(source + ": levels start at 1: " + key);
+            }
+            byLevel.computeIfAbsent(level, l -> new Properties()).setProperty(parts[2], properties.getProperty(key));
+        }
+
+        WaveBook book = new WaveBook();
+        Wave previous = standard == null ? null : standard.waves.get(1);
+        for (int level : byLevel.keySet()) {
+            Wave wave = previous == null ? new Wave() : previous.copy();
+            Properties settings = byLevel.get(level);
+            for (String setting : settings.stringPropertyNames()) {
+                set(wave, level, setting, settings.getProperty(setting).trim(), source);
+            }
+            if (wave.rows == null || wave.cols == null || wave.dispatchEvery == null || wave.moving == null
+                    || wave.speed == null || wave.fireEvery == null || wave.shots == null || wave.bonus == null
+                    || wave.lifeEvery == null || wave.familyWeights == null) {
+                throw new IOException(source + ": wave " + level + " leaves settings out and has no wave before it");
+            }
+            book.waves.put(level, wave);
+            previous = wave;
+        }
+        if (!book.waves.containsKey(1)) {
+            throw new IOException(source + ": there is no wave for level 1");
+        }
+        return book;
+    }
+
+    private static void set(Wave wave, int level, String setting, String value, String source) throws IOException {
+        String where = source + ", wave " + level + ", " + setting;
+        switch (setting) {
+            case "formation.rows":
+                wave.rows = term(level, value, 1, where);
+                break;
+            case "formation.cols":
+                wave.cols = term(level, value, 0, where);
+                break;
+            case "formation.shape":
+                wave.shape = choice(SHAPES, value, where);
+                break;
+            case "dispatch.every":
+                wave.dispatchEvery = term(level, value, 1, where);
+                break;
+            case "dispatch.moving":
+                wave.moving = term(level, value, 0, where);
+                break;
+            case "dispatch.order":
+                wave.order = choice(ORDERS, value, where);
+                break;
+            case "path.families":
+                wave.familyWeights = weights(value, where);
+                break;
+            case "path.speed":
+                wave.speed = term(level, value, 0.01, where);
+                break;
+            case "fire.every":
+                wave.fireEvery = term(level, value, 1, where);
+                break;
+            case "fire.shots":
+                wave.shots = term(level, value, 0, where);
+                break;
+            case "fire.pattern":
+                wave.pattern = choice(PATTERNS, value, where);
+                break;
+            case "level.bonus":
+                wave.bonus = term(level, value, 0, where);
+                break;
+            case "level.lifeEvery":
+                wave.lifeEvery = term(level, value, 0, where);
+                break;
+            default:
+                throw new IOException(where + ": unknown setting");
+        }
+    }
+
+    /**
+     * Parse "base [step] [min n] [max n]"
+     * @param floor The smallest value that makes sense for the setting, whatever the min says
+     */
+    private static Term term(int level, String value, double floor, String where) throws IOException {
+        String[] tokens = value.split("\\s+");
+        try {
+            double base = Double.parseDouble(tokens[0]);
+            double step = 0;
+            double min = floor;
+            double max = Double.MAX_VALUE;
+            int i = 1;
+            if (i < tokens.length && (tokens[i].startsWith("+") || tokens[i].startsWith("-"))) {
+                step = Double.parseDouble(tokens[i++]);
+            }
+            while (i + 1 < tokens.length) {
+                double bound = Double.parseDouble(tokens[i + 1]);
+                if (tokens[i].equals("min")) {
+                    min = Math.max(floor, bound);
+                } else if (tokens[i].equals("max")) {
+                    max = bound;
+                } else {
+                    throw new IOException(where + ": expected min or max, not " + tokens[i]);
+                }
+                i += 2;
+            }
+            if (i != tokens.length) {
+                throw new IOException(where + ": can't make sense of \"" + value + "\"");
+            }
+            return new Term(level, base, step, min, max);
+        } catch (NumberFormatException nfe) {
+            throw new IOException(where + ": not a number in \"" + value + "\"");
+        }
+    }
+
+    private static int choice(String[] names, String value, String where) throws IOException {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(value)) {
+                return i;
+            }
+        }
+        throw new IOException(where + ": expected one of " + String.join(", ", names) + ", not " + value);
+    }
+
+    /**
+     * Parse "name[:weight] ..." into a weight per path family
+     */
+    private static int[] weights(String value, String where) throws IOException {
+        int[] weights = new int[FAMILIES.length];
+        int total = 0;
+        for (String token : value.split("\\s+")) {
+            int colon = token.indexOf(':');
+            int family = choice(FAMILIES, colon < 0 ? token : token.substring(0, colon), where);
+            try {
+                weights[family] += colon < 0 ? 1 : Integer.parseInt(token.substring(colon + 1));
+            } catch (NumberFormatException nfe) {
+                throw new IOException(where + ": bad weight in " + token);
+            }
+            total += weights[family];
+        }
+        if (total <= 0) {
+            throw new IOException(where + ": no path family has any weight");
+        }
+        return weights;
+    }
+
+    private Wave waveFor(int level){
+        return waves.floorEntry(level).getValue();
+    }
+
+    /**
+     * Rows in a level's formation
+     */
+    int rows(int level){
+        return waveFor(level).rows.intAt(level);
+    }
+
+    /**
+     * Columns in a level's formation, or 0 for as many as fit
+     */
+    int cols(int level){
+        return waveFor(level).cols.intAt(level);
+    }
+
+    /**
+     * Points for reaching a level
+     */
+    int bonus(int level){
+        return waveFor(level).bonus.intAt(level);
+    }
+
+    /**
+     * Whether reaching a level is worth an extra life
+     */
+    boolean extraLife(int level){
+        int every = waveFor(level).lifeEvery.intAt(level);
+        return every > 0 && level % every == 0;
+    }
+
+    /**
+     * Work out everything a level does tick by tick, so playing it is only table lookups
+     * @param level The level
+     * @param cols Columns in the formation (after any overrides)
+     * @param rows Rows in the formation (after any overrides)
+     * @param fireEvery Ticks between volleys, or -1 for the wave's
+     * @param levelSize The size of the level, for the paths
+     * @param seed Where the level's random orders and paths come from; the same seed compiles the same schedule
+     */
+    WaveSchedule compile(int level, int cols, int rows, int fireEvery, Dimension levelSize, long seed){
+        Wave wave = waveFor(level);
+        int dispatchEvery = Math.min(wave.dispatchEvery.intAt(level), MAX_EVERY);
+        fireEvery = Math.min(fireEvery >= 0 ? Math.max(1, fireEvery) : wave.fireEvery.intAt(level), MAX_EVERY);
+        return new WaveSchedule(cols, rows, wave.shape, wave.order, dispatchEvery, wave.moving.intAt(level),
+                wave.familyWeights, wave.speed.at(level), fireEvery, wave.shots.intAt(level), wave.pattern, levelSize,
+                seed);
+    }
+}
@@ -0,0 +1,166 @@
+package Galaga;
+
+/**
+ * One level of a WaveBook, worked out ahead of time. What happens on each tick is a repeating table of action bits,
+ * so a tick reads one entry instead of testing intervals; who swoops next, which column fires next and which path comes
+ * next are each a precomputed order the game walks with a cursor, instead of drawing random enemies until it finds a
+ * living one. Everything random in here comes from the seed, so the same seed always compiles the same schedule and a
+ * saved game only needs the seed and the cursors.
+ *
+ * @author chschleif
+ * Last modified: 2026 October 19
+ */
+final class WaveSchedule {
+
+    static final byte MOVE_CLUSTER = 1;
+    static final byte DISPATCH = 2;
+    static final byte FIRE = 4;
+
+    private static final int PATHS = 64; // entries in the path table before it repeats
+    private static final int MAX_PERIOD = 1 << 16;
+
+    final int cols;
+    final int rows;
+    final boolean[][] formation; // [col][row]: whether the cell starts with a living enemy
+    final int maxMoving;
+    final double travelDistance;
+    final int shots;
+    final int firePattern;
+
+    final byte[] actions; // what to do on each tick of the level, repeating
+    final int[] dispatchCols; // the order enemies are sent swooping in
+    final int[] dispatchRows;
+    final int[] fireCols; // the order columns take turns firing in
+    final byte[] pathFamily; // the swoops to fly, in order, with their bezier influence points
+    final int[] pathX;
+    final int[] pathY;
+
+    WaveSchedule(int cols, int rows, int shape, int order, int dispatchEvery, int maxMoving, int[] familyWeights,
+                 double travelDistance, int fireEvery, int shots, int firePattern, Dimension levelSize, long seed){
+        this.cols = cols;
+        this.rows = rows;
+        this.maxMoving = maxMoving;
+        this.travelDistance = travelDistance;
+        this.shots = shots;
+        this.firePattern = firePattern;
+        GameRandom r = new GameRandom(seed);
+
+        formation = new boolean[cols][rows];
+        for (int x = 0; x < cols; x++) {
+            for (int y = 0; y < rows; y++) {
+                formation[x][y] = inShape(shape, x, y);
+            }
+        }
+
+        // the cluster moves every other tick; swoops and volleys come at their own intervals. one period of the table
+        // covers all three, unless that would be huge: then the volley interval restarts with each period
+        int period = lcm(2, dispatchEvery);
+        if ((long) period / gcd(period, fireEvery) * fireEvery <= MAX_PERIOD) {
+            period = lcm(period, fireEvery);
+        }
+        actions = new byte[period];
+        for (int t = 0; t < period; t++) {
+            actions[t] = (byte) ((t % 2 == 0 ? MOVE_CLUSTER : 0) | (t % dispatchEvery == 0 ? DISPATCH : 0)
+                    | (t % fireEvery == 0 ? FIRE : 0));
+        }
+
+        dispatchCols = new int[cols * rows];
+        dispatchRows = new int[cols * rows];
+        int n = 0;
+        switch (order) {
+            case WaveBook.ORDER_BOTTOM_UP:
+                // row by row from the bottom, shuffled within each row
+                for (int y = rows - 1; y >= 0; y--) {
+                    int rowStart = n;
+                    for (int x = 0; x < cols; x++) {
+                        dispatchCols[n] = x;
+                        dispatchRows[n++] = y;
+                    }
+                    shuffle(r, rowStart, n);
+                }
+                break;
+            case WaveBook.ORDER_OUTSIDE_IN:
+                // the outermost columns first, alternating sides, bottom to top within a column
+                for (int i = 0; i < cols; i++) {
+                    int x = i % 2 == 0 ? i / 2 : cols - 1 - i / 2;
+                    for (int y = rows - 1; y >= 0; y--) {
+                        dispatchCols[n] = x;
+                        dispatchRows[n++] = y;
+                    }
+                }
+                break;
+            default:
+                for (int x = 0; x < cols; x++) {
+                    for (int y = 0; y < rows; y++) {
+                        dispatchCols[n] = x;
+                        dispatchRows[n++] = y;
+                    }
+                }
+                shuffle(r, 0, n);
+                break;
+        }
+
+        fireCols = new int[cols];
+        for (int x = 0; x < cols; x++) {
+            fireCols[x] = x;
+        }
+        for (int i = cols - 1; i > 0; i--) {
+            int j = r.nextInt(i + 1);
+            int t = fireCols[i];
+            fireCols[i] = fireCols[j];
+            fireCols[j] = t;
+        }
+
+        int totalWeight = 0;
+        for (int weight : familyWeights) {
+            totalWeight += weight;
+        }
+        pathFamily = new byte[PATHS];
+        pathX = new int[PATHS];
+        pathY = new int[PATHS];
+        for (int i = 0; i < PATHS; i++) {
+            int pick = r.nextInt(totalWeight);
+            int family = 0;
+            while (pick >= familyWeights[family]) {
+                pick -= familyWeights[family++];
+            }
+            pathFamily[i] = (byte) family;
+            pathX[i] = r.nextInt(levelSize.width);
+            pathY[i] = r.nextInt(Math.max(1, levelSize.height - 100));
+        }
+    }
+
+    private boolean inShape(int shape, int x, int y){
+        switch (shape) {
+            case WaveBook.SHAPE_CHECKER:
+                return (x + y) % 2 == 0;
+            case WaveBook.SHAPE_WEDGE:
+                // a point at the top, widening to the full width at the bottom row
+                return Math.abs(2 * x - (cols - 1)) * rows <= (cols - 1) * (y + 1);
+            case WaveBook.SHAPE_HOLLOW:
+                return x == 0 || y == 0 || x == cols - 1 || y == rows - 1;
+            default:
+                return true;
+        }
+    }
+
+    private void shuffle(GameRandom r, int from, int to){
+        for (int i = to - 1; i > from; i--) {
+            int j = from + r.nextInt(i - from + 1);
+            int t = dispatchCols[i];
+            dispatchCols[i] = dispatchCols[j];
+            dispatchCols[j] = t;
+            t = dispatchRows[i];
+            dispatchRows[i] = dispatchRows[j];
+            dispatchRows[j] = t;
+        }
+    }
+
+    private static int gcd(int a, int b){
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    private static int lcm(int a, int b){
+        return a / gcd(a, b) * b;
+    }
+}